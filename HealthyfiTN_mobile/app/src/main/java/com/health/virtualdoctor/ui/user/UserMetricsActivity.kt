@@ -33,6 +33,7 @@ import java.time.ZoneId
 import java.time.format.DateTimeFormatter
 import kotlin.math.roundToInt
 import java.util.Locale
+import java.util.UUID
 import java.util.concurrent.TimeUnit
 
 class UserMetricsActivity : ComponentActivity() {
@@ -418,6 +419,8 @@ class UserMetricsActivity : ComponentActivity() {
                         obj.put("count", record.count)
                         obj.put("startTime", dateFormatter.format(record.startTime))
                         obj.put("endTime", dateFormatter.format(record.endTime))
+                        // App source : priorité de fusion des chevauchements côté serveur
+                        obj.put("dataOrigin", record.metadata.dataOrigin.packageName)
                         stepsArray.put(obj)
                     }
                     dayJson.put("steps", stepsArray)
@@ -436,6 +439,7 @@ class UserMetricsActivity : ComponentActivity() {
                         obj.put("samples", JSONArray(samples))
                         obj.put("startTime", dateFormatter.format(record.startTime))
                         obj.put("endTime", dateFormatter.format(record.endTime))
+                        obj.put("dataOrigin", record.metadata.dataOrigin.packageName)
                         hrArray.put(obj)
                     }
                     dayJson.put("heartRate", hrArray)
@@ -458,6 +462,7 @@ class UserMetricsActivity : ComponentActivity() {
                         obj.put("distanceMeters", record.distance.inMeters)
                         obj.put("startTime", dateFormatter.format(record.startTime))
                         obj.put("endTime", dateFormatter.format(record.endTime))
+                        obj.put("dataOrigin", record.metadata.dataOrigin.packageName)
                         distArray.put(obj)
                     }
                     dayJson.put("distance", distArray)
@@ -1224,6 +1229,7 @@ class UserMetricsActivity : ComponentActivity() {
                     val requestBody = jsonData.toRequestBody("application/json".toMediaType())
                     val request = Request.Builder()
                         .url(springBootUrl)
+                        .header("X-User-Id", healthSyncUserId())
                         .post(requestBody)
                         .build()
 
@@ -1244,6 +1250,18 @@ class UserMetricsActivity : ComponentActivity() {
         }
     }
 
+    /**
+     * Identifiant stable de l'installation, envoyé en X-User-Id : le serveur range les jours
+     * par (userId, date), un renvoi des 7 derniers jours remplace donc les mêmes documents
+     */
+    private fun healthSyncUserId(): String {
+        val prefs = getSharedPreferences("healthsync", MODE_PRIVATE)
+        prefs.getString("user_id", null)?.let { return it }
+        val userId = "user_" + UUID.randomUUID()
+        prefs.edit().putString("user_id", userId).apply()
+        return userId
+    }
+
     private fun launchAIAnalysis(jsonData: String) {
         // Convertir le JSON complet en format attendu par l'IA
         val aiJsonData = convertToAIFormat(jsonData)
@@ -0,0 +1,151 @@
+package com.example.healthsync.bench;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.MongoConfig;
+import com.example.healthsync.ingest.HealthDataStreamReader;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestListener;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.ingest.IntervalMerger;
+import com.example.healthsync.ingest.RecordHandlers;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.support.HealthDataGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemin chaud de l'ingestion, étape par étape, sans MongoDB :
+ * <ul>
+ *   <li>deserialize : JSON → HealthData (payload complet, comme POST /fetch)</li>
+ *   <li>map : HealthData → BiometricData via l'IngestEngine (BiometricDataService.toBiometricData)</li>
+ *   <li>bsonEncode : BiometricData → Document (MappingMongoConverter) → octets BSON</li>
+ *   <li>endToEnd : octets → lecture streaming jour par jour → mapping → BSON (POST /fetch/stream)</li>
+ * </ul>
+ * Payloads générés de 1, 7 et 90 jours, fréquence cardiaque ponctuelle ou continue.
+ * Le profileur gc (par défaut dans le profil Maven) donne le taux d'allocation par opération.
+ * <pre>
+ * mvn -P benchmarks
+ * mvn -P benchmarks -Djmh.args="IngestPath -p days=7 -p density=DENSE -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IngestPathBenchmark {
+
+    private static final String USER_ID = "bench_user";
+
+    @Param({"1", "7", "90"})
+    public int days;
+
+    @Param({"SPARSE", "DENSE"})
+    public HealthDataGenerator.HeartRateDensity density;
+
+    private ObjectMapper mapper;
+    private HealthDataStreamReader streamReader;
+    private IngestEngine engine;
+    private MappingMongoConverter converter;
+    private Codec<Document> documentCodec;
+
+    private byte[] json;
+    private HealthData payload;
+    private List<BiometricData> documents;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        streamReader = new HealthDataStreamReader(mapper, new IngestProperties());
+
+        RecordHandlers handlers = new RecordHandlers();
+        engine = new IngestEngine(List.of(
+                handlers.stepsHandler(), handlers.heartRateHandler(), handlers.distanceHandler(),
+                handlers.sleepHandler(), handlers.exerciseHandler(), handlers.oxygenSaturationHandler(),
+                handlers.bodyTemperatureHandler(), handlers.bloodPressureHandler(), handlers.weightHandler(),
+                handlers.heightHandler(), handlers.hydrationHandler()),
+                new StaticListableBeanFactory().getBeanProvider(IngestListener.class),
+                new IngestMetrics(new SimpleMeterRegistry()), new IntervalMerger(new IngestProperties()));
+
+        // Même configuration de mapping que l'application (conversions de MongoConfig)
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+        payload = new HealthDataGenerator(42, density).payload(LocalDate.of(2025, 10, 30), days);
+        json = mapper.writeValueAsBytes(payload);
+        documents = map();
+        System.out.printf("%n[%d jours, %s] JSON %,d octets, BSON %,d octets%n",
+                days, density, json.length, bsonEncode().stream()
+                        .mapToInt(document -> document.getByteBuffer().remaining()).sum());
+    }
+
+    @Benchmark
+    public HealthData deserialize() throws IOException {
+        return mapper.readValue(json, HealthData.class);
+    }
+
+    @Benchmark
+    public List<BiometricData> map() {
+        IngestSummary summary = new IngestSummary();
+        List<BiometricData> result = new ArrayList<>(payload.getDailyData().size());
+        for (HealthData.DailyData day : payload.getDailyData()) {
+            result.add(engine.process(USER_ID, day, summary));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<RawBsonDocument> bsonEncode() {
+        List<RawBsonDocument> encoded = new ArrayList<>(documents.size());
+        for (BiometricData data : documents) {
+            encoded.add(toBson(data));
+        }
+        return encoded;
+    }
+
+    @Benchmark
+    public List<RawBsonDocument> endToEnd() throws IOException {
+        IngestSummary summary = new IngestSummary();
+        List<RawBsonDocument> encoded = new ArrayList<>(days);
+        streamReader.read(new ByteArrayInputStream(json),
+                day -> encoded.add(toBson(engine.process(USER_ID, day, summary))));
+        return encoded;
+    }
+
+    private RawBsonDocument toBson(BiometricData data) {
+        Document document = new Document();
+        converter.write(data, document);
+        return new RawBsonDocument(document, documentCodec);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.healthsync.bench;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.ingest.IntervalMerger;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.IngestSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fusion des chevauchements (IntervalMerger) sur un jour très fragmenté : records enregistrements
+ * de pas, autant de distance et de FC (12 échantillons chacun), répartis entre trois sources
+ * aux granularités différentes (montre, téléphone, app tierce) et mélangés.
+ * sources=1 donne le même volume sans aucun chevauchement (coût de la détection seule).
+ * <pre>
+ * mvn -P benchmarks -Djmh.args="IntervalMerge -f 1 -wi 3 -i 5 -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IntervalMergeBenchmark {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final List<String> SOURCES = List.of("com.watch.app", "com.phone.app", "com.other.app");
+
+    @Param({"1000", "5000", "20000"})
+    public int records;
+
+    @Param({"1", "3"})
+    public int sources;
+
+    private IntervalMerger merger;
+    private BiometricData day;
+    private List<BiometricData.StepRecord> steps;
+    private List<BiometricData.DistanceRecord> distance;
+    private List<BiometricData.HeartRateRecord> heartRate;
+
+    @Setup
+    public void setup() {
+        IngestProperties properties = new IngestProperties();
+        properties.getMerge().setEnabled(true);
+        properties.getMerge().setSourcePriority(SOURCES);
+        merger = new IntervalMerger(properties);
+
+        Random random = new Random(42);
+        LocalDateTime midnight = LocalDateTime.of(2025, 10, 30, 0, 0);
+        steps = new ArrayList<>(records);
+        distance = new ArrayList<>(records);
+        heartRate = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            // Source s : fenêtres de (s + 1) fois la largeur de base, décalées ; une seule source = pavage exact
+            int source = i % sources;
+            long width = 86_400L * sources / records * (source + 1);
+            long start = sources == 1 ? 86_400L * i / records : random.nextLong(86_400L - width);
+            String from = midnight.plusSeconds(start).format(TIME);
+            String to = midnight.plusSeconds(start + width).format(TIME);
+            String origin = SOURCES.get(source);
+
+            steps.add(new BiometricData.StepRecord((long) random.nextInt(200), from, to, origin));
+            distance.add(new BiometricData.DistanceRecord(random.nextDouble() * 150, from, to, origin));
+            List<Long> samples = new ArrayList<>(12);
+            for (int j = 0; j < 12; j++) {
+                samples.add(60L + random.nextInt(60));
+            }
+            heartRate.add(new BiometricData.HeartRateRecord(samples, from, to, origin));
+        }
+        day = new BiometricData();
+
+        IngestSummary summary = new IngestSummary();
+        merge(summary);
+        System.out.printf("%n[%d enregistrements, %d sources] après fusion : %d pas, %d distances, %d FC%n",
+                records, sources, day.getSteps().size(), day.getDistance().size(), day.getHeartRate().size());
+    }
+
+    @Benchmark
+    public BiometricData merge() {
+        return merge(new IngestSummary());
+    }
+
+    private BiometricData merge(IngestSummary summary) {
+        // merge remplace les listes sans modifier les enregistrements : on repart des listes reçues
+        day.setSteps(steps);
+        day.setDistance(distance);
+        day.setHeartRate(heartRate);
+        merger.merge(day, summary);
+        return day;
+    }
+}
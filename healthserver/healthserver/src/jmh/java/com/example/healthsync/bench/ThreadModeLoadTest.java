@@ -0,0 +1,148 @@
+package com.example.healthsync.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de charge comparatif threads plateforme vs threads virtuels : la même requête
+ * GET est envoyée en boucle fermée à deux instances du serveur, avec N requêtes
+ * en vol (une connexion chacune), pour chaque palier de concurrence.
+ * Affiche débit, p50, p99 et erreurs côte à côte.
+ * <pre>
+ * # instance plateforme (Java 17 ou 21) et instance threads virtuels (Java 21)
+ * # (max-connections : 10000 comme le profil vthreads, sinon la comparaison bute sur les connexions)
+ * mvn spring-boot:run -Dspring-boot.run.arguments=--server.tomcat.max-connections=10000
+ * mvn -P java21 spring-boot:run -Dspring-boot.run.arguments=--server.port=9091
+ *
+ * mvn -P benchmarks test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.healthsync.bench.ThreadModeLoadTest \
+ *     -Dexec.args="platform=http://localhost:9090 virtual=http://localhost:9091 levels=1000,2500,5000,10000"
+ * </pre>
+ * Penser à relever la limite de descripteurs de fichiers (ulimit -n) côté client et serveur.
+ */
+public class ThreadModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("platform", "http://localhost:9090");
+        options.put("virtual", "http://localhost:9091");
+        options.put("path", "/fetch/user/loadtest?limit=20");
+        options.put("levels", "1000,2500,5000,10000");
+        options.put("warmup", "5");
+        options.put("duration", "20");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+
+        int[] levels = Arrays.stream(options.get("levels").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        URI platform = URI.create(options.get("platform") + options.get("path"));
+        URI virtual = URI.create(options.get("virtual") + options.get("path"));
+
+        System.out.printf("%-10s %-9s %10s %9s %9s %8s%n", "connexions", "mode", "req/s", "p50 ms", "p99 ms", "erreurs");
+        for (int level : levels) {
+            for (Map.Entry<String, URI> target : Map.of("platform", platform, "virtual", virtual)
+                    .entrySet().stream().sorted(Map.Entry.comparingByKey()).toList()) {
+                run(target.getValue(), level, warmup);
+                Result result = run(target.getValue(), level, duration);
+                System.out.printf("%-10d %-9s %10.0f %9.1f %9.1f %8d%n", level, target.getKey(),
+                        result.throughput(), result.percentileMs(0.50), result.percentileMs(0.99), result.errors());
+            }
+        }
+    }
+
+    /**
+     * Boucle fermée : chaque réponse libère une place pour la requête suivante
+     */
+    static Result run(URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        LatencyRecorder latencies = new LatencyRecorder(1 << 16);
+        LongAdder errors = new LongAdder();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.increment();
+                        } else {
+                            latencies.record(System.nanoTime() - sent);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        long elapsed = System.nanoTime() - start;
+        return new Result(latencies.sorted(), errors.sum(), elapsed);
+    }
+
+    record Result(long[] latenciesNanos, long errors, long elapsedNanos) {
+
+        double throughput() {
+            return latenciesNanos.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMs(double quantile) {
+            if (latenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    /**
+     * Latences en tableau primitif extensible : pas d'objet par requête pendant la mesure
+     */
+    static final class LatencyRecorder {
+
+        private long[] values;
+        private int size;
+
+        LatencyRecorder(int initialCapacity) {
+            values = new long[initialCapacity];
+        }
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
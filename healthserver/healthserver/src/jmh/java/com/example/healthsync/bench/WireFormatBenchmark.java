@@ -0,0 +1,65 @@
+package com.example.healthsync.bench;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.HealthDataGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs CBOR vs Smile sur un payload de 30 jours (HealthDataGenerator) :
+ * débit de parsing et de sérialisation. La taille du payload de chaque format
+ * est affichée au démarrage de chaque fork.
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec -Djmh.args="WireFormat -f 1 -wi 3 -i 5"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private HealthData payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = switch (format) {
+            case "cbor" -> new ObjectMapper(new CBORFactory());
+            case "smile" -> new ObjectMapper(new SmileFactory());
+            default -> new ObjectMapper();
+        };
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        payload = new HealthDataGenerator(42).payload(LocalDate.of(2025, 10, 30), 30);
+        encoded = mapper.writeValueAsBytes(payload);
+        System.out.printf("%n[%s] payload 30 jours : %,d octets%n", format, encoded.length);
+    }
+
+    @Benchmark
+    public HealthData parse() throws IOException {
+        return mapper.readValue(encoded, HealthData.class);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+}
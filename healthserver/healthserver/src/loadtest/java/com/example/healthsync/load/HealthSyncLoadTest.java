@@ -0,0 +1,65 @@
+package com.example.healthsync.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Campagne de charge contre le serveur complet et un MongoDB embarqué (flapdoodle) :
+ * chauffe, puis mesure au débit visé, rapport JSON dans target/loadtest/report.json.
+ * <pre>
+ * mvn -P loadtest test
+ * mvn -P loadtest test -Dhealthsync.load.users=100 -Dhealthsync.load.rate=50 -Dhealthsync.load.density=SPARSE
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.14",
+        "logging.level.com.example.healthsync=WARN"
+})
+class HealthSyncLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void sustainsTargetRate() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        List<byte[][]> payloads = new PayloadFactory(objectMapper, profile).build(LocalDate.now());
+        LoadGenerator generator = new LoadGenerator(
+                URI.create("http://localhost:" + port + profile.endpoint()), profile, payloads);
+
+        generator.run(Duration.ofSeconds(profile.warmupSeconds()));
+        MongoWriteStats before = MongoWriteStats.capture(mongoClient);
+        LoadGenerator.Run run = generator.run(Duration.ofSeconds(profile.durationSeconds()));
+        MongoWriteStats after = MongoWriteStats.capture(mongoClient);
+
+        LoadReport report = LoadReport.of(profile, run, after.minus(before));
+        Path output = Path.of("target", "loadtest", "report.json");
+        Files.createDirectories(output.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        System.out.printf("%n📈 %.1f req/s, p50 %.1f ms, p99 %.1f ms, %d erreurs, %d abandonnées → %s%n",
+                report.throughputRps(), report.latencyMs().get("p50"), report.latencyMs().get("p99"),
+                report.requests().errors(), report.requests().dropped(), output.toAbsolutePath());
+
+        assertThat(report.requests().ok()).isPositive();
+        assertThat(report.requests().errors()).isZero();
+    }
+}
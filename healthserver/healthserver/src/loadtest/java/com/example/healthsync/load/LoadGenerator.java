@@ -0,0 +1,132 @@
+package com.example.healthsync.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Générateur en boucle ouverte : une requête toutes les 1/rate secondes, quel que soit
+ * le temps de réponse du serveur. La latence est mesurée depuis l'instant d'envoi prévu,
+ * pour ne pas masquer les files d'attente (coordinated omission).
+ * Au-delà de maxInFlight requêtes en vol, l'envoi est compté "dropped" plutôt que retardé.
+ */
+public final class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final URI target;
+    private final LoadProfile profile;
+    private final List<byte[][]> payloads;
+
+    public LoadGenerator(URI target, LoadProfile profile, List<byte[][]> payloads) {
+        this.target = target;
+        this.profile = profile;
+        this.payloads = payloads;
+    }
+
+    /**
+     * Phase de mesure ; appeler d'abord avec la durée de chauffe et ignorer le résultat
+     */
+    public Run run(Duration duration) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(profile.maxInFlight());
+        LatencyRecorder latencies = new LatencyRecorder(1 << 14);
+        LongAdder errors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        LongAdder payloadBytes = new LongAdder();
+
+        long intervalNanos = (long) (1e9 / profile.rate());
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long sent = 0;
+        for (long scheduled = start; scheduled < deadline; scheduled += intervalNanos) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+            byte[][] variants = payloads.get((int) (sent % payloads.size()));
+            byte[] body = variants[(int) ((sent / payloads.size()) % variants.length)];
+            String userId = "load_user_" + (sent % payloads.size());
+            sent++;
+
+            long intended = scheduled;
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .header("X-User-Id", userId)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.increment();
+                        } else {
+                            latencies.record(System.nanoTime() - intended);
+                            payloadBytes.add(body.length);
+                        }
+                        inFlight.release();
+                    });
+        }
+        if (!inFlight.tryAcquire(profile.maxInFlight(), 60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Requêtes encore en vol après 60 s");
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Run(latencies.sorted(), sent, errors.sum(), dropped.sum(), payloadBytes.sum(), elapsed);
+    }
+
+    /**
+     * Résultat brut d'une phase : latences triées (ns) des requêtes réussies
+     */
+    public record Run(long[] latenciesNanos, long sent, long errors, long dropped, long payloadBytes,
+                      long elapsedNanos) {
+
+        public double throughput() {
+            return latenciesNanos.length / (elapsedNanos / 1e9);
+        }
+
+        public double percentileMs(double quantile) {
+            if (latenciesNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    static final class LatencyRecorder {
+
+        private long[] values;
+        private int size;
+
+        LatencyRecorder(int initialCapacity) {
+            values = new long[initialCapacity];
+        }
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.healthsync.load;
+
+import com.example.healthsync.support.HealthDataGenerator.HeartRateDensity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres d'une campagne de charge, lus dans les propriétés système
+ * "healthsync.load.*" (passées en -D à Maven) :
+ * <ul>
+ *   <li>users : utilisateurs simulés (un X-User-Id chacun)</li>
+ *   <li>days : jours par envoi (7 comme UserMetricsActivity.readAndSendData)</li>
+ *   <li>density : SPARSE | DENSE (fréquence cardiaque ponctuelle ou continue)</li>
+ *   <li>exercise-mix : poids par type de séance, ex. RUN:40,WALK:30,SWIM:10,YOGA:10,NONE:10</li>
+ *   <li>rate : requêtes par seconde visées (boucle ouverte)</li>
+ *   <li>duration-seconds, warmup-seconds, max-in-flight</li>
+ *   <li>endpoint : /fetch ou /fetch/stream</li>
+ * </ul>
+ */
+public record LoadProfile(int users, int days, HeartRateDensity density, Map<PayloadFactory.Exercise, Integer> exerciseMix,
+                          double rate, int durationSeconds, int warmupSeconds, int maxInFlight, String endpoint,
+                          long seed) {
+
+    private static final String PREFIX = "healthsync.load.";
+
+    public static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Integer.getInteger(PREFIX + "users", 20),
+                Integer.getInteger(PREFIX + "days", 7),
+                HeartRateDensity.valueOf(System.getProperty(PREFIX + "density", "DENSE")),
+                parseMix(System.getProperty(PREFIX + "exercise-mix", "RUN:40,WALK:30,SWIM:10,YOGA:10,NONE:10")),
+                Double.parseDouble(System.getProperty(PREFIX + "rate", "10")),
+                Integer.getInteger(PREFIX + "duration-seconds", 30),
+                Integer.getInteger(PREFIX + "warmup-seconds", 5),
+                Integer.getInteger(PREFIX + "max-in-flight", 256),
+                System.getProperty(PREFIX + "endpoint", "/fetch"),
+                Long.getLong(PREFIX + "seed", 42L));
+    }
+
+    static Map<PayloadFactory.Exercise, Integer> parseMix(String mix) {
+        Map<PayloadFactory.Exercise, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("exercise-mix invalide: " + entry);
+            }
+            weights.put(PayloadFactory.Exercise.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.healthsync.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rapport machine d'une campagne (sérialisé en JSON dans target/loadtest/report.json)
+ */
+public record LoadReport(LoadProfile profile, Requests requests, double throughputRps,
+                         Map<String, Double> latencyMs, Mongo mongo) {
+
+    public record Requests(long sent, long ok, long errors, long dropped, long payloadBytes, long days) {
+    }
+
+    /**
+     * Amplification d'écriture : octets écrits par MongoDB (checkpoints + journal) par octet
+     * de payload reçu, et opérations d'écriture par jour envoyé (document jour, rollups, sync-state...)
+     */
+    public record Mongo(MongoWriteStats delta, double bytesWrittenPerPayloadByte,
+                        double networkBytesPerPayloadByte, double writeOpsPerDay) {
+    }
+
+    public static LoadReport of(LoadProfile profile, LoadGenerator.Run run, MongoWriteStats delta) {
+        long ok = run.latenciesNanos().length;
+        long days = ok * profile.days();
+
+        Map<String, Double> latency = new LinkedHashMap<>();
+        latency.put("p50", run.percentileMs(0.50));
+        latency.put("p90", run.percentileMs(0.90));
+        latency.put("p99", run.percentileMs(0.99));
+        latency.put("p999", run.percentileMs(0.999));
+        latency.put("max", run.percentileMs(1.0));
+
+        double payload = Math.max(1, run.payloadBytes());
+        Mongo mongo = new Mongo(delta,
+                (delta.blockBytesWritten() + delta.logBytesWritten()) / payload,
+                delta.networkBytesIn() / payload,
+                days == 0 ? 0 : (double) (delta.inserts() + delta.updates()) / days);
+
+        return new LoadReport(profile,
+                new Requests(run.sent(), ok, run.errors(), run.dropped(), run.payloadBytes(), days),
+                run.throughput(), latency, mongo);
+    }
+}
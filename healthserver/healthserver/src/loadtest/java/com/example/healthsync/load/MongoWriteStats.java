@@ -0,0 +1,47 @@
+package com.example.healthsync.load;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+
+/**
+ * Compteurs d'écriture du serveur MongoDB (serverStatus), relevés avant et après une phase.
+ * Un fsync préalable force le checkpoint WiredTiger : les octets écrits sur disque
+ * de la phase sont alors comptés dans la phase.
+ */
+public record MongoWriteStats(long inserts, long updates, long networkBytesIn,
+                              long blockBytesWritten, long logBytesWritten) {
+
+    public static MongoWriteStats capture(MongoClient client) {
+        MongoDatabase admin = client.getDatabase("admin");
+        admin.runCommand(new Document("fsync", 1));
+        Document status = admin.runCommand(new Document("serverStatus", 1));
+
+        Document opcounters = status.get("opcounters", Document.class);
+        Document network = status.get("network", Document.class);
+        Document wiredTiger = status.get("wiredTiger", Document.class);
+        return new MongoWriteStats(
+                number(opcounters, "insert"),
+                number(opcounters, "update"),
+                number(network, "bytesIn"),
+                wiredTiger != null ? number(wiredTiger.get("block-manager", Document.class), "bytes written") : 0,
+                wiredTiger != null ? number(wiredTiger.get("log", Document.class), "log bytes written") : 0);
+    }
+
+    public MongoWriteStats minus(MongoWriteStats before) {
+        return new MongoWriteStats(
+                inserts - before.inserts,
+                updates - before.updates,
+                networkBytesIn - before.networkBytesIn,
+                blockBytesWritten - before.blockBytesWritten,
+                logBytesWritten - before.logBytesWritten);
+    }
+
+    private static long number(Document document, String key) {
+        if (document == null) {
+            return 0;
+        }
+        Object value = document.get(key);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.healthsync.load;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.HealthDataGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Payloads HealthData tels qu'envoyés par UserMetricsActivity.readAndSendData :
+ * les N derniers jours à chaque envoi. D'un envoi à l'autre, seul le jour courant change
+ * (nouvelles mesures) ; les jours précédents sont renvoyés à l'identique, comme sur le téléphone.
+ * Chaque utilisateur dispose de quelques variantes du jour courant, sérialisées d'avance
+ * pour que le coût JSON côté client ne fausse pas la mesure.
+ */
+public final class PayloadFactory {
+
+    private static final int TODAY_VARIANTS = 3;
+
+    /**
+     * Séances d'exercice (codes Health Connect et libellés de l'app Android)
+     */
+    public enum Exercise {
+        RUN(36, "Course à pied", 40, 5200L, 6100.0, 148),
+        WALK(53, "Marche", 55, 6100L, 4300.0, 104),
+        SWIM(47, "Natation en piscine", 45, 0L, 1500.0, 132),
+        YOGA(57, "Yoga", 60, 0L, 0.0, 88),
+        NONE(0, null, 0, 0L, 0.0, 0);
+
+        final int type;
+        final String label;
+        final long minutes;
+        final long steps;
+        final double meters;
+        final int avgHeartRate;
+
+        Exercise(int type, String label, long minutes, long steps, double meters, int avgHeartRate) {
+            this.type = type;
+            this.label = label;
+            this.minutes = minutes;
+            this.steps = steps;
+            this.meters = meters;
+            this.avgHeartRate = avgHeartRate;
+        }
+    }
+
+    private final ObjectMapper mapper;
+    private final LoadProfile profile;
+    private final Random random;
+    private final int totalWeight;
+
+    public PayloadFactory(ObjectMapper mapper, LoadProfile profile) {
+        this.mapper = mapper;
+        this.profile = profile;
+        this.random = new Random(profile.seed());
+        this.totalWeight = profile.exerciseMix().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * @return pour chaque utilisateur, les variantes sérialisées de son payload
+     */
+    public List<byte[][]> build(LocalDate today) throws JsonProcessingException {
+        List<byte[][]> users = new ArrayList<>(profile.users());
+        for (int user = 0; user < profile.users(); user++) {
+            HealthDataGenerator generator = new HealthDataGenerator(profile.seed() + user, profile.density());
+            List<HealthData.DailyData> history = new ArrayList<>(profile.days());
+            for (int i = profile.days() - 1; i >= 1; i--) {
+                history.add(withExercise(generator.day(today.minusDays(i))));
+            }
+
+            byte[][] variants = new byte[TODAY_VARIANTS][];
+            for (int variant = 0; variant < TODAY_VARIANTS; variant++) {
+                List<HealthData.DailyData> days = new ArrayList<>(history);
+                days.add(withExercise(generator.day(today)));
+                HealthData payload = new HealthData();
+                payload.setDailyData(days);
+                variants[variant] = mapper.writeValueAsBytes(payload);
+            }
+            users.add(variants);
+        }
+        return users;
+    }
+
+    private HealthData.DailyData withExercise(HealthData.DailyData day) {
+        Exercise exercise = pick();
+        if (exercise == Exercise.NONE) {
+            day.setExercise(List.of());
+            return day;
+        }
+        HealthData.ExerciseRecord record = day.getExercise().get(0);
+        record.setTitle(exercise.label);
+        record.setExerciseType(exercise.type);
+        record.setExerciseTypeName(exercise.label);
+        record.setDurationMinutes(exercise.minutes);
+        record.setEndTime(record.getStartTime().substring(0, 11) + String.format("%02d:%02d:00",
+                18 + exercise.minutes / 60, exercise.minutes % 60));
+        record.setSteps(exercise.steps);
+        record.setDistanceMeters(exercise.meters);
+        record.setDistanceKm(Math.round(exercise.meters / 10) / 100.0);
+        record.setAvgHeartRate(exercise.avgHeartRate);
+        return day;
+    }
+
+    private Exercise pick() {
+        int draw = random.nextInt(Math.max(1, totalWeight));
+        for (Map.Entry<Exercise, Integer> entry : profile.exerciseMix().entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        return Exercise.NONE;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.healthsync.anomaly;
+
+import com.example.healthsync.config.AnomalyProperties;
+import com.example.healthsync.ingest.IngestListener;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.storage.SampleTimes;
+import com.example.healthsync.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection en flux des anomalies de FC, SpO2, tension et température, sur chaque document
+ * jour écrit par l'ingestion (voir IngestEngine#beforeWrite). Par utilisateur et par signe
+ * vital, une {@link VitalWindow} garde la référence personnelle : chaque échantillon est évalué en O(1) contre les seuils
+ * cliniques ({@link VitalSign}) puis contre l'EWMA (z-score), avant d'entrer dans la fenêtre.
+ * <p>
+ * Seuls les échantillons postérieurs au dernier évalué de leur jour le sont : l'historique
+ * renvoyé à chaque synchronisation ne produit pas de doublons, même quand le client envoie
+ * les jours du plus récent au plus ancien. Pendant une séance d'exercice, une FC haute
+ * est attendue et n'est pas signalée.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "healthsync.anomaly.enabled", havingValue = "true", matchIfMissing = true)
+public class AnomalyDetector implements IngestListener {
+
+    private static final VitalSign[] SIGNS = VitalSign.values();
+
+    private final AnomalyProperties properties;
+    private final List<AnomalySink> sinks;
+    private final MeterRegistry meterRegistry;
+    private final LruCache<String, VitalWindow[]> users;
+    private final long cooldownMillis;
+    // Compteurs résolus au premier événement puis réutilisés : [signe][type][sévérité]
+    private final Counter[][][] counters =
+            new Counter[SIGNS.length][AnomalyEvent.Kind.values().length][AnomalyEvent.Severity.values().length];
+
+    public AnomalyDetector(AnomalyProperties properties, ObjectProvider<AnomalySink> sinks,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sinks = sinks.orderedStream().toList();
+        this.meterRegistry = meterRegistry;
+        this.users = new LruCache<>(properties.getUserCacheSize());
+        this.cooldownMillis = TimeUnit.MINUTES.toMillis(properties.getCooldownMinutes());
+        log.info("🩺 Détection d'anomalies: fenêtre {} échantillons, z ≥ {}, {} sink(s)",
+                properties.getWindowSize(), properties.getDeviationThreshold(), this.sinks.size());
+    }
+
+    @Override
+    public void onDocument(BiometricData data) {
+        VitalWindow[] windows = users.computeIfAbsent(data.getUserId(), key -> newWindows());
+        List<AnomalyEvent> events = new ArrayList<>(0);
+
+        synchronized (windows) {
+            long[] exercises = exerciseIntervals(data.getExercise());
+            if (data.getHeartRate() != null) {
+                for (BiometricData.HeartRateRecord record : data.getHeartRate()) {
+                    heartRate(data.getUserId(), record, exercises, windows, events);
+                }
+            }
+            if (data.getOxygenSaturation() != null) {
+                for (BiometricData.OxygenSaturationRecord record : data.getOxygenSaturation()) {
+                    evaluate(data.getUserId(), VitalSign.OXYGEN_SATURATION, record.getPercentage(),
+                            millis(record.getTime()), false, windows, events);
+                }
+            }
+            if (data.getBodyTemperature() != null) {
+                for (BiometricData.BodyTemperatureRecord record : data.getBodyTemperature()) {
+                    evaluate(data.getUserId(), VitalSign.BODY_TEMPERATURE, record.getTemperature(),
+                            millis(record.getTime()), false, windows, events);
+                }
+            }
+            if (data.getBloodPressure() != null) {
+                for (BiometricData.BloodPressureRecord record : data.getBloodPressure()) {
+                    long time = millis(record.getTime());
+                    evaluate(data.getUserId(), VitalSign.SYSTOLIC, record.getSystolic(), time, false, windows, events);
+                    evaluate(data.getUserId(), VitalSign.DIASTOLIC, record.getDiastolic(), time, false, windows, events);
+                }
+            }
+        }
+
+        // Hors verrou : un sink ne bloque pas les autres requêtes du même utilisateur
+        for (AnomalyEvent event : events) {
+            emit(event);
+        }
+    }
+
+    private void heartRate(String userId, BiometricData.HeartRateRecord record, long[] exercises,
+                           VitalWindow[] windows, List<AnomalyEvent> events) {
+        List<Long> samples = record.getSamples();
+        long start = millis(record.getStartTime());
+        long end = millis(record.getEndTime());
+        if (samples == null || start == Long.MIN_VALUE || end == Long.MIN_VALUE) {
+            return;
+        }
+        for (int i = 0; i < samples.size(); i++) {
+            long time = SampleTimes.atMillis(start, end, i, samples.size());
+            Long bpm = samples.get(i);
+            evaluate(userId, VitalSign.HEART_RATE, bpm != null ? bpm.doubleValue() : null, time,
+                    during(exercises, time), windows, events);
+        }
+    }
+
+    private void evaluate(String userId, VitalSign sign, Double value, long time, boolean exercising,
+                          VitalWindow[] windows, List<AnomalyEvent> events) {
+        VitalWindow window = windows[sign.ordinal()];
+        if (value == null || time == Long.MIN_VALUE || !window.advance(time)) {
+            return;
+        }
+
+        AnomalyEvent.Severity severity = sign.classify(value);
+        AnomalyEvent.Kind kind = AnomalyEvent.Kind.THRESHOLD;
+        if (exercising && value >= sign.highWarning) {
+            severity = null;
+        }
+
+        double baseline = window.ewma();
+        double zScore = 0;
+        if (window.count() >= properties.getMinSamples()) {
+            zScore = (value - baseline) / Math.max(window.stdDev(), sign.minStdDev);
+            if (severity == null && !exercising && Math.abs(zScore) >= properties.getDeviationThreshold()) {
+                severity = AnomalyEvent.Severity.INFO;
+                kind = AnomalyEvent.Kind.DEVIATION;
+            }
+        }
+        window.add(value, properties.getEwmaAlpha());
+
+        if (severity == null || coolingDown(window, severity, time)) {
+            return;
+        }
+        window.lastEventMillis = time;
+        window.lastSeverity = severity;
+        events.add(new AnomalyEvent(userId, sign, value, SampleTimes.fromMillis(time), kind, severity,
+                baseline, zScore));
+    }
+
+    /**
+     * Même sévérité (ou moindre) déjà signalée à moins du délai pour ce signe : pas de répétition.
+     * Écart absolu : un jour plus ancien peut être évalué après un plus récent.
+     * Une aggravation est toujours signalée.
+     */
+    private boolean coolingDown(VitalWindow window, AnomalyEvent.Severity severity, long time) {
+        return window.lastSeverity != null
+                && Math.abs(time - window.lastEventMillis) < cooldownMillis
+                && severity.compareTo(window.lastSeverity) <= 0;
+    }
+
+    private void emit(AnomalyEvent event) {
+        counter(event).increment();
+        for (AnomalySink sink : sinks) {
+            try {
+                sink.accept(event);
+            } catch (Exception e) {
+                log.error("❌ Sink d'anomalies {}: {}", sink.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private VitalWindow[] newWindows() {
+        VitalWindow[] windows = new VitalWindow[SIGNS.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new VitalWindow(properties.getWindowSize(), properties.getLookbackDays());
+        }
+        return windows;
+    }
+
+    /**
+     * Course bénigne entre threads : register renvoie le compteur déjà enregistré
+     */
+    private Counter counter(AnomalyEvent event) {
+        Counter[] bySeverity = counters[event.sign().ordinal()][event.kind().ordinal()];
+        Counter counter = bySeverity[event.severity().ordinal()];
+        if (counter == null) {
+            counter = Counter.builder("healthsync.anomaly.events")
+                    .description("Anomalies détectées par signe vital, type et sévérité")
+                    .tags("sign", event.sign().name(), "kind", event.kind().name(), "severity", event.severity().name())
+                    .register(meterRegistry);
+            bySeverity[event.severity().ordinal()] = counter;
+        }
+        return counter;
+    }
+
+    /**
+     * Séances d'exercice du jour en paires [début, fin] (ms)
+     */
+    private static long[] exerciseIntervals(List<BiometricData.ExerciseRecord> exercises) {
+        if (exercises == null || exercises.isEmpty()) {
+            return new long[0];
+        }
+        long[] intervals = new long[exercises.size() * 2];
+        for (int i = 0; i < exercises.size(); i++) {
+            long start = millis(exercises.get(i).getStartTime());
+            intervals[2 * i] = start;
+            // Heure illisible : intervalle vide
+            intervals[2 * i + 1] = start == Long.MIN_VALUE ? Long.MIN_VALUE : millis(exercises.get(i).getEndTime());
+        }
+        return intervals;
+    }
+
+    private static boolean during(long[] intervals, long time) {
+        for (int i = 0; i < intervals.length; i += 2) {
+            if (time >= intervals[i] && time <= intervals[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long millis(String time) {
+        if (time == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return SampleTimes.toMillis(SampleTimes.parse(time));
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.healthsync.anomaly;
+
+import java.time.LocalDateTime;
+
+/**
+ * Anomalie détectée sur un échantillon.
+ * THRESHOLD : hors des seuils cliniques ; DEVIATION : dans les normes mais à plus de
+ * deviationThreshold écarts-types de la référence personnelle (EWMA).
+ */
+public record AnomalyEvent(String userId, VitalSign sign, double value, LocalDateTime time,
+                           Kind kind, Severity severity, double baseline, double zScore) {
+
+    public enum Kind {
+        THRESHOLD, DEVIATION
+    }
+
+    public enum Severity {
+        INFO, WARNING, CRITICAL
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.healthsync.anomaly;
+
+/**
+ * Destination des anomalies détectées (journal, notification, file de messages...).
+ * Toutes les implémentations déclarées comme beans reçoivent chaque événement,
+ * sur le thread d'ingestion : un traitement lent doit être délégué à son propre exécuteur.
+ */
+public interface AnomalySink {
+
+    void accept(AnomalyEvent event);
+}
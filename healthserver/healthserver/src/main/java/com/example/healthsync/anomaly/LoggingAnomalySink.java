@@ -0,0 +1,30 @@
+package com.example.healthsync.anomaly;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sink par défaut : une ligne de journal par anomalie
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class LoggingAnomalySink implements AnomalySink {
+
+    @Override
+    public void accept(AnomalyEvent event) {
+        if (event.severity() == AnomalyEvent.Severity.INFO) {
+            log.info("🩺 Écart {} pour {}: {} à {} (référence {}, z={})", event.sign(), event.userId(),
+                    event.value(), event.time(), round(event.baseline()), round(event.zScore()));
+        } else {
+            log.warn("🚨 Anomalie {} {} pour {}: {} à {}", event.severity(), event.sign(), event.userId(),
+                    event.value(), event.time());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
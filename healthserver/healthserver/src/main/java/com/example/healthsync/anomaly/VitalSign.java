@@ -0,0 +1,43 @@
+package com.example.healthsync.anomaly;
+
+/**
+ * Signes vitaux surveillés et seuils cliniques fixes (adulte au repos).
+ * Bas : valeur strictement inférieure au seuil ; haut : valeur supérieure ou égale.
+ * NaN = pas de seuil de ce côté.
+ */
+public enum VitalSign {
+
+    HEART_RATE(35, 40, 150, 180, 2.0),
+    OXYGEN_SATURATION(90, 94, Double.NaN, Double.NaN, 0.5),
+    SYSTOLIC(70, 90, 140, 180, 3.0),
+    DIASTOLIC(40, 60, 90, 120, 2.0),
+    BODY_TEMPERATURE(35.0, 35.5, 38.0, 39.5, 0.1);
+
+    final double lowCritical;
+    final double lowWarning;
+    final double highWarning;
+    final double highCritical;
+    // Écart-type plancher : une série très stable ne rend pas chaque petite variation "anormale"
+    final double minStdDev;
+
+    VitalSign(double lowCritical, double lowWarning, double highWarning, double highCritical, double minStdDev) {
+        this.lowCritical = lowCritical;
+        this.lowWarning = lowWarning;
+        this.highWarning = highWarning;
+        this.highCritical = highCritical;
+        this.minStdDev = minStdDev;
+    }
+
+    /**
+     * @return la sévérité clinique de la valeur, ou null si elle est dans les normes
+     */
+    AnomalyEvent.Severity classify(double value) {
+        if (value < lowCritical || value >= highCritical) {
+            return AnomalyEvent.Severity.CRITICAL;
+        }
+        if (value < lowWarning || value >= highWarning) {
+            return AnomalyEvent.Severity.WARNING;
+        }
+        return null;
+    }
+}
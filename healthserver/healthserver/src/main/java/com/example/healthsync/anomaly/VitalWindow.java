@@ -0,0 +1,109 @@
+package com.example.healthsync.anomaly;
+
+import java.util.Arrays;
+
+/**
+ * Fenêtre glissante d'un signe vital pour un utilisateur : anneau de floats de taille fixe,
+ * somme et somme des carrés tenues à jour (moyenne et écart-type en O(1)), plus une EWMA.
+ * Non thread-safe : protégée par le verrou de l'utilisateur.
+ */
+final class VitalWindow {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final float[] ring;
+    private int next;
+    private int count;
+    private double sum;
+    private double sumSquares;
+    private double ewma = Double.NaN;
+
+    // Par jour (anneau de lookbackDays cases), heure du dernier échantillon évalué : les renvois
+    // d'historique sont ignorés, quel que soit l'ordre d'envoi des jours
+    private final long[] watermarkDays;
+    private final long[] watermarks;
+    private long newestDay = Long.MIN_VALUE;
+    // Dernier événement émis, pour le délai de répétition
+    long lastEventMillis = Long.MIN_VALUE;
+    AnomalyEvent.Severity lastSeverity;
+
+    VitalWindow(int size, int lookbackDays) {
+        this.ring = new float[size];
+        this.watermarkDays = new long[lookbackDays];
+        this.watermarks = new long[lookbackDays];
+        Arrays.fill(watermarkDays, Long.MIN_VALUE);
+    }
+
+    /**
+     * Vrai si l'échantillon est postérieur au dernier évalué de son jour, qui devient alors
+     * la nouvelle limite. Jours antérieurs à lookbackDays avant le plus récent : ignorés
+     * (leur case a pu être réutilisée, ils seraient réévalués à chaque renvoi).
+     */
+    boolean advance(long time) {
+        long day = Math.floorDiv(time, MILLIS_PER_DAY);
+        if (newestDay != Long.MIN_VALUE && day <= newestDay - watermarks.length) {
+            return false;
+        }
+        int slot = (int) Math.floorMod(day, (long) watermarks.length);
+        if (watermarkDays[slot] == day && time <= watermarks[slot]) {
+            return false;
+        }
+        watermarkDays[slot] = day;
+        watermarks[slot] = time;
+        newestDay = Math.max(newestDay, day);
+        return true;
+    }
+
+    void add(double value, double alpha) {
+        if (count == ring.length) {
+            double evicted = ring[next];
+            sum -= evicted;
+            sumSquares -= evicted * evicted;
+        } else {
+            count++;
+        }
+        ring[next] = (float) value;
+        sum += ring[next];
+        sumSquares += (double) ring[next] * ring[next];
+        ewma = Double.isNaN(ewma) ? value : alpha * value + (1 - alpha) * ewma;
+
+        next++;
+        if (next == ring.length) {
+            next = 0;
+            resum();
+        }
+    }
+
+    /**
+     * Recalcul exact une fois par tour d'anneau (coût amorti O(1)) : borne la dérive
+     * des additions / soustractions successives
+     */
+    private void resum() {
+        sum = 0;
+        sumSquares = 0;
+        for (int i = 0; i < count; i++) {
+            sum += ring[i];
+            sumSquares += (double) ring[i] * ring[i];
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    double mean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    double stdDev() {
+        if (count < 2) {
+            return 0;
+        }
+        double mean = sum / count;
+        return Math.sqrt(Math.max(0, sumSquares / count - mean * mean));
+    }
+
+    double ewma() {
+        return ewma;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.healthsync.archive;
+
+import com.github.luben.zstd.Zstd;
+import org.bson.RawBsonDocument;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Charge utile d'une archive : documents BSON bruts mis bout à bout puis compressés zstd.
+ * Chaque document BSON commence par sa longueur (int32 little-endian) : aucun index à stocker.
+ */
+final class ArchiveCodec {
+
+    private ArchiveCodec() {
+    }
+
+    static byte[] concat(List<RawBsonDocument> days) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (RawBsonDocument day : days) {
+            ByteBuffer bytes = day.getByteBuffer().asNIO();
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] compress(byte[] raw, int level) {
+        return Zstd.compress(raw, level);
+    }
+
+    static List<RawBsonDocument> decode(byte[] payload, long rawBytes) {
+        byte[] raw = Zstd.decompress(payload, Math.toIntExact(rawBytes));
+        ByteBuffer buffer = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        List<RawBsonDocument> days = new ArrayList<>();
+        int offset = 0;
+        while (offset < raw.length) {
+            int length = buffer.getInt(offset);
+            days.add(new RawBsonDocument(raw, offset, length));
+            offset += length;
+        }
+        return days;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.healthsync.archive;
+
+import com.example.healthsync.service.AsyncIngestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archivage en arrière-plan : quelques mois par intervalle, et aucun tant que des
+ * ingestions asynchrones attendent, pour ne pas concurrencer l'ingestion
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "healthsync.archive.enabled", havingValue = "true")
+public class ArchiveJob {
+
+    private final MonthlyArchiver archiver;
+    private final ObjectProvider<AsyncIngestService> asyncIngestService;
+
+    @Scheduled(fixedDelayString = "${healthsync.archive.interval-ms:10000}")
+    public void runBatch() {
+        AsyncIngestService async = asyncIngestService.getIfAvailable();
+        if (async != null && async.getQueueDepth() > 0) {
+            return;
+        }
+        try {
+            archiver.archiveBatch();
+        } catch (Exception e) {
+            log.error("❌ Archivage interrompu (reprise au prochain lot): {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.healthsync.archive;
+
+import com.example.healthsync.config.ArchiveProperties;
+import com.example.healthsync.model.BiometricArchive;
+import com.example.healthsync.model.BiometricData;
+import com.mongodb.MongoClientSettings;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Lecture des mois archivés (biometric_archive), pour que les lectures de biometric_data
+ * retombent sur les archives. Un jour présent à la fois dans biometric_data et dans une
+ * archive (renvoyé après archivage) est lu depuis biometric_data : c'est aux appelants
+ * d'écarter la copie archivée, jusqu'à sa réintégration par la passe d'archivage suivante.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArchiveStore {
+
+    private static final Codec<Document> DOCUMENT_CODEC =
+            MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ArchiveProperties properties;
+
+    /**
+     * Premier jour jamais archivé ("yyyy-MM-dd") : les mois archivés lui sont tous antérieurs
+     */
+    public String archivableBefore() {
+        return LocalDate.now().minusDays(properties.getMinAgeDays()).withDayOfMonth(1).toString();
+    }
+
+    /**
+     * Premier jour ("yyyy-MM-dd") relu dans les archives par la récupération sans paramètre
+     */
+    public String legacyFetchFrom() {
+        return LocalDate.now().minusMonths(properties.getLegacyFetchMonths()).withDayOfMonth(1).toString();
+    }
+
+    /**
+     * Faux pour les jours récents : le chemin d'écriture n'interroge pas les archives pour eux
+     */
+    public boolean mayBeArchived(String date) {
+        return date != null && date.compareTo(archivableBefore()) < 0;
+    }
+
+    /**
+     * Jours archivés entre deux dates incluses (null = non bornée), triés par date.
+     * Seuls les champs demandés sont gardés (tous si fields est vide).
+     */
+    public List<BiometricData> findDays(String userId, String fromDate, String toDate, Collection<String> fields) {
+        List<BiometricData> days = new ArrayList<>();
+        for (RawBsonDocument raw : findRawDays(userId, fromDate, toDate)) {
+            days.add(toDay(raw, fields));
+        }
+        return days;
+    }
+
+    /**
+     * Même plage en documents BSON bruts (lecture des échantillons sans mapping)
+     */
+    public List<RawBsonDocument> findRawDays(String userId, String fromDate, String toDate) {
+        List<RawBsonDocument> days = new ArrayList<>();
+        for (BiometricArchive archive : mongoTemplate.find(payloads(userId, fromDate, toDate), BiometricArchive.class)) {
+            for (RawBsonDocument raw : ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes())) {
+                if (inRange(date(raw), fromDate, toDate)) {
+                    days.add(raw);
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Même plage au fil des archives (flux à fermer) : un seul mois décompressé à la fois
+     */
+    public Stream<BiometricData> streamDays(String userId, String fromDate, String toDate, Collection<String> fields) {
+        // Une archive par lot du curseur : un mois compressé en mémoire, pas tout un lot par défaut
+        Stream<BiometricArchive> archives = mongoTemplate.stream(payloads(userId, fromDate, toDate).cursorBatchSize(1),
+                BiometricArchive.class);
+        return archives
+                .flatMap(archive -> ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes()).stream())
+                .filter(raw -> inRange(date(raw), fromDate, toDate))
+                .map(raw -> toDay(raw, fields))
+                .onClose(archives::close);
+    }
+
+    /**
+     * Jours archivés triés par date, après afterDate si fournie.
+     * Les archives sont décompressées une à une, jusqu'à avoir limit jours.
+     */
+    public List<BiometricData> findPage(String userId, String fromDate, String toDate, Collection<String> fields,
+                                        String afterDate, int limit) {
+        String start = afterDate != null && (fromDate == null || afterDate.compareTo(fromDate) > 0) ? afterDate : fromDate;
+        List<BiometricData> page = new ArrayList<>();
+        try (Stream<BiometricArchive> archives = mongoTemplate.stream(payloads(userId, start, toDate),
+                BiometricArchive.class)) {
+            for (BiometricArchive archive : (Iterable<BiometricArchive>) archives::iterator) {
+                for (RawBsonDocument raw : ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes())) {
+                    String date = date(raw);
+                    if (inRange(date, fromDate, toDate) && (afterDate == null || date.compareTo(afterDate) > 0)) {
+                        page.add(toDay(raw, fields));
+                        if (page.size() == limit) {
+                            return page;
+                        }
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Jours archivés complets parmi ces dates, indexés par date (seules les dates archivables sont cherchées)
+     */
+    public Map<String, BiometricData> findDays(String userId, Collection<String> dates) {
+        Map<String, BiometricData> days = new HashMap<>();
+        Set<String> wanted = archivable(dates);
+        if (wanted.isEmpty()) {
+            return days;
+        }
+        Query query = Query.query(Criteria.where("userId").is(userId).and("month").in(months(wanted)));
+        query.fields().include("payload", "rawBytes");
+        for (BiometricArchive archive : mongoTemplate.find(query, BiometricArchive.class)) {
+            for (RawBsonDocument raw : ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes())) {
+                if (wanted.contains(date(raw))) {
+                    days.put(date(raw), toDay(raw, List.of()));
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Agrégats archivés parmi ces dates, sans décompression
+     */
+    public List<BiometricData> findSummaries(String userId, Collection<String> dates) {
+        List<BiometricData> summaries = new ArrayList<>();
+        Set<String> wanted = archivable(dates);
+        if (wanted.isEmpty()) {
+            return summaries;
+        }
+        Query query = Query.query(Criteria.where("userId").is(userId).and("month").in(months(wanted)));
+        query.fields().include("summaries");
+        for (BiometricArchive archive : mongoTemplate.find(query, BiometricArchive.class)) {
+            for (BiometricData summary : archive.getSummaries()) {
+                if (wanted.contains(summary.getDate())) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Tous les agrégats archivés d'un utilisateur, archive par archive (flux à fermer)
+     */
+    public Stream<BiometricData> streamSummaries(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId)).with(Sort.by("month"));
+        query.fields().include("summaries");
+        Stream<BiometricArchive> archives = mongoTemplate.stream(query, BiometricArchive.class);
+        return archives.flatMap(archive -> archive.getSummaries().stream()).onClose(archives::close);
+    }
+
+    /**
+     * Jours du mois archivé le plus récent (utilisateur sans données récentes)
+     */
+    public List<BiometricData> findLatestDays(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "month"))
+                .limit(1);
+        query.fields().include("payload", "rawBytes");
+        BiometricArchive archive = mongoTemplate.findOne(query, BiometricArchive.class);
+        List<BiometricData> days = new ArrayList<>();
+        if (archive != null) {
+            ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes()).forEach(raw -> days.add(toDay(raw, List.of())));
+        }
+        return days;
+    }
+
+    public BiometricArchive findArchive(String userId, String month) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("userId").is(userId).and("month").is(month)),
+                BiometricArchive.class);
+    }
+
+    public List<RawBsonDocument> decode(BiometricArchive archive) {
+        return ArchiveCodec.decode(archive.getPayload(), archive.getRawBytes());
+    }
+
+    /**
+     * Étape $unionWith ajoutant aux documents jour les agrégats archivés de la plage,
+     * pour les agrégations de statistiques (la décompression n'est jamais nécessaire)
+     */
+    public Document summaryUnion(String userId, String fromDate, String toDate) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", monthRange(userId, fromDate, toDate).getCriteriaObject()));
+        pipeline.add(new Document("$project", new Document("summaries", 1)));
+        pipeline.add(new Document("$unwind", "$summaries"));
+        pipeline.add(new Document("$replaceWith", "$summaries"));
+        Document date = new Document();
+        if (fromDate != null) {
+            date.append("$gte", fromDate);
+        }
+        if (toDate != null) {
+            date.append("$lte", toDate);
+        }
+        if (!date.isEmpty()) {
+            pipeline.add(new Document("$match", new Document("date", date)));
+        }
+        return new Document("$unionWith", new Document("coll", mongoTemplate.getCollectionName(BiometricArchive.class))
+                .append("pipeline", pipeline));
+    }
+
+    private Query payloads(String userId, String fromDate, String toDate) {
+        Query query = Query.query(monthRange(userId, fromDate, toDate)).with(Sort.by("month"));
+        query.fields().include("payload", "rawBytes");
+        return query;
+    }
+
+    private static Criteria monthRange(String userId, String fromDate, String toDate) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (fromDate != null || toDate != null) {
+            Criteria month = Criteria.where("month");
+            if (fromDate != null) {
+                month.gte(fromDate.substring(0, 7));
+            }
+            if (toDate != null) {
+                month.lte(toDate.substring(0, 7));
+            }
+            criteria.andOperator(month);
+        }
+        return criteria;
+    }
+
+    private Set<String> archivable(Collection<String> dates) {
+        Set<String> archivable = new HashSet<>();
+        for (String date : dates) {
+            if (mayBeArchived(date)) {
+                archivable.add(date);
+            }
+        }
+        return archivable;
+    }
+
+    private static Set<String> months(Collection<String> dates) {
+        Set<String> months = new HashSet<>();
+        dates.forEach(date -> months.add(date.substring(0, 7)));
+        return months;
+    }
+
+    private static boolean inRange(String date, String fromDate, String toDate) {
+        return (fromDate == null || date.compareTo(fromDate) >= 0) && (toDate == null || date.compareTo(toDate) <= 0);
+    }
+
+    static String date(RawBsonDocument raw) {
+        return raw.getString("date").getValue();
+    }
+
+    /**
+     * Document jour mappé comme une lecture de biometric_data ; avec fields, seuls
+     * _id, userId, date et les champs demandés sont gardés (comme la projection MongoDB)
+     */
+    private BiometricData toDay(RawBsonDocument raw, Collection<String> fields) {
+        Document document = raw.decode(DOCUMENT_CODEC);
+        if (!fields.isEmpty()) {
+            Set<String> keep = new HashSet<>(fields);
+            keep.addAll(List.of("_id", "userId", "date"));
+            document.keySet().retainAll(keep);
+        }
+        return mongoTemplate.getConverter().read(BiometricData.class, document);
+    }
+}
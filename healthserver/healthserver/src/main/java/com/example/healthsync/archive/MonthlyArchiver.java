@@ -0,0 +1,223 @@
+package com.example.healthsync.archive;
+
+import com.example.healthsync.config.ArchiveProperties;
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.migration.MigrationCheckpoint;
+import com.example.healthsync.migration.MigrationCheckpointRepository;
+import com.example.healthsync.model.BiometricArchive;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.service.ContentDedupService;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Binary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Archivage des mois anciens : les documents jour d'un (utilisateur, mois) sont repliés dans un
+ * document biometric_archive puis supprimés de biometric_data.
+ * Les mois sont parcourus dans l'ordre (userId, mois) à partir du dernier mois traité
+ * (point de reprise en base). Chaque mois est idempotent : un arrêt entre l'écriture de
+ * l'archive et la suppression des originaux est rattrapé à la passe suivante.
+ */
+@Slf4j
+@Service
+public class MonthlyArchiver {
+
+    static final String NAME = "biometric-archive";
+
+    // Champs gardés lisibles dans l'archive : agrégats du jour, exercice et SpO2
+    private static final List<String> SUMMARY_FIELDS = List.of("date", "schemaVersion",
+            "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate", "totalDistanceKm",
+            "totalSleepHours", "totalHydrationLiters", "stressLevel", "stressScore",
+            "exercise", "oxygenSaturation");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexInitializer indexInitializer;
+    private final MigrationCheckpointRepository checkpointRepository;
+    private final ArchiveStore archiveStore;
+    private final ContentDedupService contentDedupService;
+    private final ArchiveProperties properties;
+
+    private final Counter archivedDays;
+    private final Counter rawBytes;
+    private final Counter compressedBytes;
+
+    public MonthlyArchiver(MongoTemplate mongoTemplate, MongoIndexInitializer indexInitializer,
+                           MigrationCheckpointRepository checkpointRepository, ArchiveStore archiveStore,
+                           ContentDedupService contentDedupService, ArchiveProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexInitializer = indexInitializer;
+        this.checkpointRepository = checkpointRepository;
+        this.archiveStore = archiveStore;
+        this.contentDedupService = contentDedupService;
+        this.properties = properties;
+
+        this.archivedDays = Counter.builder("healthsync.archive.days")
+                .description("Documents jour repliés dans les archives mensuelles")
+                .register(meterRegistry);
+        this.rawBytes = bytes(meterRegistry, "raw");
+        this.compressedBytes = bytes(meterRegistry, "compressed");
+    }
+
+    private static Counter bytes(MeterRegistry registry, String form) {
+        return Counter.builder("healthsync.archive.bytes")
+                .description("Taille des documents jour archivés, avant et après compression")
+                .baseUnit("bytes")
+                .tag("form", form)
+                .register(registry);
+    }
+
+    /**
+     * Archive au plus monthsPerRun mois. Un mois en échec est journalisé puis sauté.
+     * @return le nombre de mois traités dans ce lot (0 = passe terminée, la suivante repart du début)
+     */
+    public int archiveBatch() {
+        MigrationCheckpoint checkpoint = status();
+        String before = archiveStore.archivableBefore();
+
+        int months = 0;
+        while (months < properties.getMonthsPerRun()) {
+            BiometricData next = nextCandidate(checkpoint.getLastId(), before);
+            if (next == null) {
+                // Passe terminée : la suivante repart du début (nouveaux mois éligibles, jours renvoyés)
+                checkpoint.setLastId(null);
+                checkpoint.setCompleted(true);
+                break;
+            }
+            String month = next.getDate().substring(0, 7);
+            try {
+                checkpoint.setMigrated(checkpoint.getMigrated() + archiveMonth(next.getUserId(), month));
+            } catch (Exception e) {
+                log.error("❌ Archivage {} {} ignoré jusqu'à la prochaine passe: {}",
+                        next.getUserId(), month, e.getMessage());
+            }
+            checkpoint.setLastId(next.getUserId() + "|" + month);
+            checkpoint.setCompleted(false);
+            months++;
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return months;
+    }
+
+    public MigrationCheckpoint status() {
+        return checkpointRepository.findById(NAME)
+                .orElseGet(() -> new MigrationCheckpoint(NAME, null, 0, false, null));
+    }
+
+    /**
+     * Premier jour ancien après le mois (userId, mois) du point de reprise, servi par l'index (userId, date)
+     */
+    private BiometricData nextCandidate(String lastKey, String before) {
+        Criteria criteria;
+        if (lastKey == null) {
+            criteria = Criteria.where("date").lt(before);
+        } else {
+            int separator = lastKey.lastIndexOf('|');
+            String userId = lastKey.substring(0, separator);
+            String nextMonth = YearMonth.parse(lastKey.substring(separator + 1)).plusMonths(1) + "-01";
+            criteria = new Criteria().orOperator(
+                    Criteria.where("userId").gt(userId).and("date").lt(before),
+                    Criteria.where("userId").is(userId).and("date").gte(nextMonth).lt(before));
+        }
+        Query query = Query.query(criteria).with(Sort.by("userId", "date")).limit(1);
+        query.fields().include("userId", "date");
+        return mongoTemplate.findOne(query, BiometricData.class);
+    }
+
+    /**
+     * Replie les jours d'un mois dans son archive (fusionnés avec une archive existante,
+     * les jours de biometric_data l'emportant), puis supprime les originaux
+     * @return le nombre de documents jour supprimés de biometric_data
+     */
+    int archiveMonth(String userId, String month) {
+        YearMonth yearMonth = YearMonth.parse(month);
+        List<RawBsonDocument> live = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(BiometricData.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(Filters.and(
+                        Filters.eq("userId", userId),
+                        Filters.gte("date", yearMonth.atDay(1).toString()),
+                        Filters.lt("date", yearMonth.plusMonths(1).atDay(1).toString())))
+                .sort(Sorts.ascending("date"))
+                .into(live);
+        if (live.isEmpty()) {
+            return 0;
+        }
+
+        TreeMap<String, RawBsonDocument> days = new TreeMap<>();
+        BiometricArchive existing = archiveStore.findArchive(userId, month);
+        if (existing != null) {
+            archiveStore.decode(existing).forEach(raw -> days.put(ArchiveStore.date(raw), raw));
+        }
+        live.forEach(raw -> days.put(ArchiveStore.date(raw), raw));
+
+        List<RawBsonDocument> ordered = new ArrayList<>(days.values());
+        byte[] raw = ArchiveCodec.concat(ordered);
+        byte[] payload = ArchiveCodec.compress(raw, properties.getCompressionLevel());
+        List<Document> summaries = new ArrayList<>(ordered.size());
+        for (RawBsonDocument day : ordered) {
+            Document summary = new Document();
+            for (String field : SUMMARY_FIELDS) {
+                if (day.containsKey(field)) {
+                    summary.append(field, day.get(field));
+                }
+            }
+            summaries.add(summary);
+        }
+
+        indexInitializer.ensureIndexes(BiometricArchive.class);
+        Document archive = new Document("userId", userId)
+                .append("month", month)
+                .append("firstDate", days.firstKey())
+                .append("lastDate", days.lastKey())
+                .append("days", days.size())
+                .append("summaries", summaries)
+                .append("payload", new Binary(payload))
+                .append("rawBytes", (long) raw.length)
+                .append("archivedAt", new Date());
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(BiometricArchive.class)).replaceOne(
+                Filters.and(Filters.eq("userId", userId), Filters.eq("month", month)),
+                archive, new ReplaceOptions().upsert(true));
+
+        // Seuls les originaux inchangés depuis leur lecture sont supprimés : un jour réécrit
+        // entre-temps reste dans biometric_data et sera replié à la passe suivante
+        List<DeleteOneModel<Document>> deletes = new ArrayList<>(live.size());
+        for (RawBsonDocument day : live) {
+            BsonValue hash = day.get("contentHash");
+            deletes.add(new DeleteOneModel<>(Filters.and(
+                    Filters.eq("_id", day.get("_id")),
+                    Filters.eq("contentHash", hash != null && hash.isString() ? hash.asString().getValue() : null))));
+        }
+        int deleted = mongoTemplate.getCollection(mongoTemplate.getCollectionName(BiometricData.class))
+                .bulkWrite(deletes).getDeletedCount();
+        live.forEach(day -> contentDedupService.forget(userId, ArchiveStore.date(day)));
+
+        archivedDays.increment(deleted);
+        rawBytes.increment(raw.length);
+        compressedBytes.increment(payload.length);
+        log.info("🗄️ Archive {} {}: {} jours ({} supprimés), {} → {} octets",
+                userId, month, days.size(), deleted, raw.length, payload.length);
+        return deleted;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Détection d'anomalies des signes vitaux à l'ingestion (préfixe "healthsync.anomaly")
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.anomaly")
+public class AnomalyProperties {
+
+    private boolean enabled = true;
+
+    // Échantillons gardés par signe vital et par utilisateur (anneau de floats)
+    private int windowSize = 64;
+
+    // Échantillons nécessaires avant d'évaluer les écarts à la référence personnelle
+    private int minSamples = 20;
+
+    // Poids du nouvel échantillon dans la moyenne mobile exponentielle
+    private double ewmaAlpha = 0.05;
+
+    // Écart (en écarts-types) au-delà duquel un échantillon est signalé
+    private double deviationThreshold = 4.0;
+
+    // Utilisateurs dont les fenêtres restent en mémoire (LRU)
+    private int userCacheSize = 10_000;
+
+    // Pas de nouvel événement de même sévérité pour un signe vital pendant ce délai
+    private long cooldownMinutes = 30;
+
+    // Jours évalués avant le plus récent reçu (limite "déjà évalué" tenue par jour) :
+    // les jours plus anciens ne sont plus signalés
+    private int lookbackDays = 14;
+}
@@ -0,0 +1,33 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Archivage mensuel des jours anciens (préfixe "healthsync.archive")
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.archive")
+public class ArchiveProperties {
+
+    // Job planifié ; les lectures passent par les archives existantes dans tous les cas
+    private boolean enabled = false;
+
+    // Âge minimal (jours) : seuls les mois entièrement antérieurs à aujourd'hui - minAgeDays sont archivés.
+    // Réduire la valeur est sans risque ; l'augmenter après archivage laisse des mois archivés récents
+    // que l'ingestion ne consulte plus (totaux des agrégats, fusion delta).
+    private int minAgeDays = 180;
+
+    // Mois (utilisateur, mois) archivés par exécution du job
+    private int monthsPerRun = 1;
+
+    // Délai entre deux exécutions (ms)
+    private long intervalMs = 10_000;
+
+    // Niveau de compression zstd des documents archivés (1-19)
+    private int compressionLevel = 9;
+
+    // GET /fetch/user/{userId} sans paramètre : mois archivés relus (les plus récents), au-delà
+    // l'historique passe par la pagination from/to. Borne la décompression à chaque appel.
+    private int legacyFetchMonths = 12;
+}
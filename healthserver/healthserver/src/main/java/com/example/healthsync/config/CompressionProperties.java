@@ -0,0 +1,29 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Compression HTTP des corps de requête et de réponse (préfixe "healthsync.compression")
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.compression")
+public class CompressionProperties {
+
+    // Décompression des requêtes Content-Encoding: gzip | zstd
+    private boolean requestEnabled = true;
+
+    // Taille maximale une fois décompressé (protection contre les "zip bombs")
+    private long maxDecompressedBytes = 32L * 1024 * 1024;
+
+    // Compression des réponses selon Accept-Encoding
+    private boolean responseEnabled = true;
+
+    // En dessous de cette taille, la réponse part non compressée
+    private int minResponseBytes = 2048;
+
+    private List<String> mimeTypes = List.of(
+            "application/json", "application/x-ndjson", "text/csv", "text/plain");
+}
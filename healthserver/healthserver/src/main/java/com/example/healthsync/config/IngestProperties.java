@@ -0,0 +1,76 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Limites appliquées à l'ingestion des données Health Connect
+ * (préfixe "healthsync.ingest" dans application.properties)
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.ingest")
+public class IngestProperties {
+
+    // Taille maximale du corps de requête lu en streaming (octets)
+    private long maxPayloadBytes = 32L * 1024 * 1024;
+
+    // Nombre maximal de jours (éléments de dailyData) par requête
+    private int maxDays = 400;
+
+    // Nombre maximal d'enregistrements (objets imbriqués) par jour
+    private int maxRecordsPerDay = 20_000;
+
+    // Nombre maximal d'échantillons numériques (ex: samples HR) par jour
+    private int maxSamplesPerDay = 200_000;
+
+    // Nombre de jours regroupés dans un même upsert en mode streaming
+    private int writeBatchSize = 16;
+
+    // Nombre d'empreintes (userId, date) récentes gardées en mémoire pour la déduplication
+    private int dedupCacheSize = 100_000;
+
+    private Async async = new Async();
+
+    private Merge merge = new Merge();
+
+    /**
+     * Mode asynchrone (POST /fetch/async) : file bornée + écrivain par micro-lots
+     */
+    @Data
+    public static class Async {
+
+        // Nombre maximal d'ingestions en attente avant de répondre 429
+        private int queueCapacity = 1000;
+
+        // Taille mémoire estimée maximale des payloads en attente (octets) avant de répondre 429
+        private long queueMaxBytes = 128L * 1024 * 1024;
+
+        // Nombre maximal de jours (tous utilisateurs confondus) par upsert groupé
+        private int batchMaxDays = 500;
+
+        // Attente maximale pour compléter un micro-lot (ms)
+        private long batchMaxWaitMs = 20;
+
+        // Valeur du header Retry-After quand la file est pleine (secondes)
+        private int retryAfterSeconds = 5;
+
+        // Nombre de statuts d'ingestion conservés en mémoire
+        private int statusRetention = 10_000;
+    }
+
+    /**
+     * Fusion des enregistrements pas / distance / FC qui se chevauchent (plusieurs apps ou appareils)
+     */
+    @Data
+    public static class Merge {
+
+        // Désactivée par défaut : sans dataOrigin (clients Android antérieurs), la priorité de source est sans effet
+        private boolean enabled = false;
+
+        // Sources Health Connect (package de l'app) par priorité décroissante ; les autres viennent après
+        private List<String> sourcePriority = new ArrayList<>();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache des dernières valeurs par utilisateur (préfixe "healthsync.latest")
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.latest")
+public class LatestVitalsProperties {
+
+    // Utilisateurs gardés en mémoire (LRU)
+    private int cacheSize = 50_000;
+
+    // Durée de vie d'une entrée : borne l'écart avec les écritures d'autres instances
+    private long ttlSeconds = 300;
+
+    // Documents jour (les plus récents) lus pour remplir une entrée absente du cache
+    private int lookbackDays = 31;
+}
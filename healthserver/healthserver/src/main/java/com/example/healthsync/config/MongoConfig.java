@@ -0,0 +1,51 @@
+package com.example.healthsync.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Lecture double format pendant la migration du schéma v2 : les anciens documents
+     * stockent les valeurs numériques en chaînes ("3.21"), les nouveaux en double
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new LegacyStringToDoubleConverter()));
+    }
+
+    /**
+     * Taille du pool de connexions MongoDB (100 par défaut côté driver) : en mode threads
+     * virtuels, c'est lui qui borne le nombre de requêtes MongoDB simultanées
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(
+            @Value("${healthsync.mongo.max-pool-size:100}") int maxPoolSize) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize));
+    }
+
+    @ReadingConverter
+    static class LegacyStringToDoubleConverter implements Converter<String, Double> {
+
+        @Override
+        public Double convert(String source) {
+            String value = source.trim().replace(',', '.');
+            if (value.isEmpty()) {
+                return null;
+            }
+            try {
+                return Double.valueOf(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
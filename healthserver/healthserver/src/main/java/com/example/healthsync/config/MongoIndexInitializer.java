@@ -0,0 +1,54 @@
+package com.example.healthsync.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Crée les index déclarés par annotations (@CompoundIndex, @Indexed...) au premier usage
+ * d'une collection, plutôt qu'au démarrage : le serveur démarre même si MongoDB
+ * n'est pas encore joignable.
+ * Verrou explicite plutôt que synchronized : l'appel réseau sous moniteur
+ * épinglerait le thread porteur en mode threads virtuels.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<Class<?>> initialized = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public boolean isInitialized(Class<?> entityType) {
+        return initialized.contains(entityType);
+    }
+
+    public void ensureIndexes(Class<?> entityType) {
+        if (initialized.contains(entityType)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (initialized.contains(entityType)) {
+                return;
+            }
+            MongoPersistentEntityIndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            IndexOperations indexOps = mongoTemplate.indexOps(entityType);
+            resolver.resolveIndexFor(entityType).forEach(indexOps::createIndex);
+
+            initialized.add(entityType);
+            log.info("🗂️ Index MongoDB vérifiés pour {}", entityType.getSimpleName());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
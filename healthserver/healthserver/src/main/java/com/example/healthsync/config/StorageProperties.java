@@ -0,0 +1,18 @@
+package com.example.healthsync.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Options de stockage MongoDB (préfixe "healthsync.storage")
+ */
+@Data
+@ConfigurationProperties(prefix = "healthsync.storage")
+public class StorageProperties {
+
+    // Backend des échantillons HR : embedded | timeseries
+    private String heartRate = "embedded";
+
+    // En mode embedded : échantillons HR encodés en binaire (SampleCodec) plutôt qu'en tableau BSON
+    private boolean compactSamples = false;
+}
@@ -0,0 +1,97 @@
+package com.example.healthsync.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diagnostic d'épinglage en mode threads virtuels (spring.threads.virtual.enabled=true, Java 21+).
+ * Écoute l'événement JFR jdk.VirtualThreadPinned : un thread virtuel bloqué sous
+ * synchronized ou dans du code natif immobilise son thread porteur.
+ * Chaque épinglage alimente healthsync.threads.virtual.pinned ; la pile est
+ * journalisée une fois par point d'entrée distinct.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry registry;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    @Value("${healthsync.threads.pinned-threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    @Override
+    public synchronized void start() {
+        Timer pinned = Timer.builder("healthsync.threads.virtual.pinned")
+                .description("Durée des épinglages de threads virtuels sur leur porteur")
+                .register(registry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(thresholdMs))
+                .withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            report(event);
+        });
+        stream.startAsync();
+        log.info("📌 Suivi JFR des épinglages de threads virtuels actif (seuil {} ms)", thresholdMs);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private void report(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        if (!reported.add(describe(frames.get(0)))) {
+            return;
+        }
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+            stack.append("\n    at ").append(describe(frames.get(i)));
+        }
+        log.warn("📌 Thread virtuel épinglé {} ms{}", event.getDuration().toMillis(), stack);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
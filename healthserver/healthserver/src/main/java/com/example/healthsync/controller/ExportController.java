@@ -0,0 +1,62 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.service.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/fetch/export")
+@CrossOrigin(origins = "*") // TODO: Restreindre en production
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private final ExportService exportService;
+
+    // Délai de la réponse asynchrone des exports, au lieu de spring.mvc.async.request-timeout
+    @Value("${healthsync.export.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // ✅ Export de l'historique (fichier NDJSON ou CSV) écrit au fil de la lecture MongoDB.
+    // type : "summary" ou un type d'enregistrement (une ligne par enregistrement) ; sans type,
+    // un jour complet par ligne en NDJSON, les agrégats du jour en CSV.
+    @GetMapping("/{userId}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        ExportService.Format exportFormat = ExportService.Format.parse(format);
+        exportService.validate(from, to, type);
+        log.info("Exporting data for user: {} ({}, {})", userId, exportFormat, exportService.kind(type, exportFormat));
+
+        String filename = userId + "-" + exportService.kind(type, exportFormat) + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> exportService.export(userId, from, to, type, exportFormat, out);
+        // Repris par le traitement asynchrone du StreamingResponseBody, pour cette requête seulement
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeoutMs);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+    }
+}
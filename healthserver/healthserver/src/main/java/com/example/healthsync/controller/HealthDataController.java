@@ -1,25 +1,59 @@
 package com.example.healthsync.controller;
 
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.WireFormatConfig;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.exception.IngestQueueFullException;
+import com.example.healthsync.exception.IngestUnavailableException;
+import com.example.healthsync.ingest.IngestMetrics;
 import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricPage;
 import com.example.healthsync.model.HealthData;
-import com.example.healthsync.model.HealthData.*;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.model.IngestionStatus;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.service.AsyncIngestService;
 import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.DeltaSyncService;
+import com.example.healthsync.service.LatestVitalsService;
+import com.example.healthsync.service.SyncStateService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/fetch")
 @CrossOrigin(origins = "*") // TODO: Restreindre en production
 @RequiredArgsConstructor
 @Slf4j
 public class HealthDataController {
 
+    // Identifiant stable de l'utilisateur (sinon un userId temporaire est généré)
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final BiometricDataService biometricDataService;
+    private final AsyncIngestService asyncIngestService;
+    private final IngestProperties ingestProperties;
+    private final DeltaSyncService deltaSyncService;
+    private final SyncStateService syncStateService;
+    private final IngestMetrics ingestMetrics;
+    private final LatestVitalsService latestVitalsService;
 
     @GetMapping
     public ResponseEntity<String> testConnection() {
@@ -27,207 +61,167 @@ public class HealthDataController {
     }
 
     @PostMapping
-    public ResponseEntity<String> receiveHealthData(@RequestBody HealthData healthData) {
+    public ResponseEntity<String> receiveHealthData(
+            HttpServletRequest request,
+            @RequestBody HealthData healthData,
+            @RequestHeader(value = USER_ID_HEADER, required = false) String requestUserId) {
+        // -1 si inconnu (corps gzip/zstd : voir healthsync.http.compression.bytes)
+        ingestMetrics.payload("sync", request.getContentLengthLong());
         try {
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  🔔 DONNÉES HEALTH CONNECT REÇUES DEPUIS ANDROID          ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
-
-            // ✅ SAUVEGARDE DANS MONGODB
-            List<BiometricData> savedData = biometricDataService.saveBiometricData(healthData);
-            String userId = savedData.isEmpty() ? "unknown" : savedData.get(0).getUserId();
-
-            System.out.println("💾 DONNÉES SAUVEGARDÉES DANS MONGODB");
-            System.out.println("   • User ID: " + userId);
-            System.out.println("   • Nombre de jours: " + savedData.size());
-            System.out.println("   • IDs MongoDB: ");
-            savedData.forEach(data ->
-                    System.out.println("      - " + data.getDate() + " → " + data.getId())
-            );
-            System.out.println();
-
-            // ✅ Validation des données
-            List<DailyData> dailyDataList = healthData.getDailyData();
-            if (dailyDataList == null || dailyDataList.isEmpty()) {
-                return ResponseEntity.badRequest().body("❌ Format de données invalide: dailyData vide");
-            }
+            // ✅ Validation, conversion et comptage en un passage, puis sauvegarde MongoDB
+            IngestResult saved = biometricDataService.saveBiometricData(healthData, requestUserId);
+            IngestSummary summary = saved.getSummary();
 
-            int totalDataPoints = 0;
-
-            // ✅ Parcours direct des données avec getters
-            for (DailyData day : dailyDataList) {
-                String date = day.getDate();
-
-                System.out.println("\n╭─────────────────────────────────────────────────────────────╮");
-                System.out.println("│  📅 DATE: " + date + "                                   │");
-                System.out.println("╰─────────────────────────────────────────────────────────────╯\n");
-
-                // 👣 STEPS
-                Integer totalSteps = day.getTotalSteps();
-                if (totalSteps != null && totalSteps > 0) {
-                    System.out.println("👣 STEPS: " + totalSteps + " pas");
-                    totalDataPoints++;
-                }
-
-                // ❤️ HEART RATE
-                Integer avgHR = day.getAvgHeartRate();
-                if (avgHR != null && avgHR > 0) {
-                    Integer minHR = day.getMinHeartRate();
-                    Integer maxHR = day.getMaxHeartRate();
-
-                    System.out.println("❤️  HEART RATE:");
-                    System.out.println("   • Moyenne: " + avgHR + " bpm");
-                    if (minHR != null && maxHR != null) {
-                        System.out.println("   • Min: " + minHR + " bpm | Max: " + maxHR + " bpm");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 📏 DISTANCE
-                String distKm = day.getTotalDistanceKm();
-                if (distKm != null && !distKm.equals("0.00")) {
-                    System.out.println("📏 DISTANCE: " + distKm + " km");
-                    totalDataPoints++;
-                }
-
-                // 💤 SLEEP
-                String sleepHours = day.getTotalSleepHours();
-                List<SleepRecord> sleepRecords = day.getSleep();
-                if (sleepHours != null && sleepRecords != null && !sleepRecords.isEmpty()) {
-                    System.out.println("💤 SOMMEIL: " + sleepHours + " heures");
-
-                    for (SleepRecord sleep : sleepRecords) {
-                        System.out.println("   • " + sleep.getTitle() + ": " +
-                                sleep.getStartTime() + " → " + sleep.getEndTime() +
-                                " (" + sleep.getDurationMinutes() + " min)");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 🏋️ EXERCISE
-                List<ExerciseRecord> exercises = day.getExercise();
-                if (exercises != null && !exercises.isEmpty()) {
-                    System.out.println("\n🏋️  EXERCICES (" + exercises.size() + " sessions):");
-
-                    for (int i = 0; i < exercises.size(); i++) {
-                        ExerciseRecord ex = exercises.get(i);
-
-                        System.out.println("\n   ┌─ Session " + (i + 1) + " ─────────────────────────────");
-                        System.out.println("   │ 🏃 Type: " + ex.getExerciseTypeName());
-                        System.out.println("   │ ⏱️  Durée: " + ex.getDurationMinutes() + " minutes");
-                        System.out.println("   │ 🕐 Début: " + ex.getStartTime());
-
-                        if (ex.getDistanceKm() != null && !ex.getDistanceKm().equals("0.00")) {
-                            System.out.println("   │ 📏 Distance: " + ex.getDistanceKm() + " km");
-                        }
-                        if (ex.getSteps() != null && ex.getSteps() > 0) {
-                            System.out.println("   │ 👣 Pas: " + ex.getSteps());
-                        }
-                        if (ex.getActiveCalories() != null && ex.getActiveCalories() > 0) {
-                            System.out.println("   │ 🔥 Calories: " + ex.getActiveCalories() + " kcal");
-                        }
-                        if (ex.getAvgHeartRate() != null && ex.getAvgHeartRate() > 0) {
-                            System.out.println("   │ ❤️  BPM: " + ex.getAvgHeartRate() + " bpm");
-                        }
-
-                        // Métriques avancées
-                        if (ex.getAvgSpeedKmh() != null) {
-                            System.out.println("   │ 🚀 Vitesse moy: " + ex.getAvgSpeedKmh() + " km/h");
-                        }
-                        if (ex.getAvgCadence() != null && ex.getAvgCadence() > 0) {
-                            System.out.println("   │ 🎯 Cadence: " + ex.getAvgCadence() + " rpm");
-                        }
-                        if (ex.getAvgPowerWatts() != null && ex.getAvgPowerWatts() > 0) {
-                            System.out.println("   │ ⚡ Puissance: " + ex.getAvgPowerWatts() + " W");
-                        }
-
-                        System.out.println("   └────────────────────────────────────────────");
-                    }
-                    totalDataPoints += exercises.size();
-                }
-
-                // 💧 HYDRATION
-                String hydrationLiters = day.getTotalHydrationLiters();
-                List<HydrationRecord> hydrationRecords = day.getHydration();
-                if (hydrationLiters != null && hydrationRecords != null && !hydrationRecords.isEmpty()) {
-                    System.out.println("\n💧 HYDRATATION: " + hydrationLiters + " L (" +
-                            hydrationRecords.size() + " prises)");
-                    totalDataPoints++;
-                }
-
-                // 😰 STRESS
-                String stressLevel = day.getStressLevel();
-                Integer stressScore = day.getStressScore();
-                if (stressLevel != null && stressScore != null) {
-                    System.out.println("😰 STRESS: " + stressLevel + " (score: " + stressScore + ")");
-                    totalDataPoints++;
-                }
-
-                // 🫁 OXYGEN SATURATION
-                List<OxygenSaturationRecord> oxygenRecords = day.getOxygenSaturation();
-                if (oxygenRecords != null && !oxygenRecords.isEmpty()) {
-                    System.out.println("\n🫁 SATURATION O2: " + oxygenRecords.size() + " mesures");
-                    totalDataPoints += oxygenRecords.size();
-                }
-
-                // 🌡️ BODY TEMPERATURE
-                List<BodyTemperatureRecord> tempRecords = day.getBodyTemperature();
-                if (tempRecords != null && !tempRecords.isEmpty()) {
-                    System.out.println("🌡️  TEMPÉRATURE: " + tempRecords.size() + " mesures");
-                    totalDataPoints += tempRecords.size();
-                }
-
-                // 💉 BLOOD PRESSURE
-                List<BloodPressureRecord> bpRecords = day.getBloodPressure();
-                if (bpRecords != null && !bpRecords.isEmpty()) {
-                    System.out.println("💉 PRESSION: " + bpRecords.size() + " mesures");
-                    totalDataPoints += bpRecords.size();
-                }
-
-                // ⚖️ WEIGHT
-                List<WeightRecord> weightRecords = day.getWeight();
-                if (weightRecords != null && !weightRecords.isEmpty()) {
-                    System.out.println("⚖️  POIDS: " + weightRecords.size() + " mesures");
-                    totalDataPoints += weightRecords.size();
-                }
-
-                // 📏 HEIGHT
-                List<HeightRecord> heightRecords = day.getHeight();
-                if (heightRecords != null && !heightRecords.isEmpty()) {
-                    System.out.println("📏 TAILLE: " + heightRecords.size() + " mesures");
-                    totalDataPoints += heightRecords.size();
-                }
-
-                System.out.println("\n" + "─".repeat(65));
-            }
+            log.info("Health data processed successfully - User: {}, Records: {}, Data points: {}, Rejected days: {}",
+                    saved.getUserId(), saved.getDays(), summary.getDataPoints(), summary.getRejectedDays());
 
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  ✅ SUCCÈS - " + totalDataPoints + " points sauvegardés dans MongoDB   ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
+            return ResponseEntity.ok(String.format(
+                    "✅ %d données reçues et sauvegardées!\n👤 User ID: %s\n💾 %d enregistrements MongoDB"
+                            + " (%d insérés, %d mis à jour, %d inchangés)",
+                    summary.getDataPoints(), saved.getUserId(), saved.getDays(),
+                    saved.getInserted(), saved.getUpdated(), saved.getUnchanged()
+            ));
+
+        } catch (Exception e) {
+            log.error("Error processing health data", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Ingestion en streaming : dailyData lu jour par jour, mémoire bornée
+    @PostMapping(value = "/stream", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, WireFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<String> receiveHealthDataStream(
+            HttpServletRequest request,
+            @RequestHeader(value = USER_ID_HEADER, required = false) String requestUserId) {
+        try {
+            IngestResult result = biometricDataService.saveBiometricDataStreaming(
+                    request.getInputStream(), MediaType.parseMediaType(request.getContentType()), requestUserId);
 
-            log.info("Health data processed successfully - User: {}, Records: {}, Data points: {}",
-                    userId, savedData.size(), totalDataPoints);
+            log.info("Health data streamed successfully - User: {}, Days: {}",
+                    result.getUserId(), result.getDays());
 
             return ResponseEntity.ok(String.format(
-                    "✅ %d données reçues et sauvegardées!\n👤 User ID: %s\n💾 %d enregistrements MongoDB",
-                    totalDataPoints, userId, savedData.size()
+                    "✅ %d jours reçus et sauvegardés en streaming!\n👤 User ID: %s"
+                            + "\n💾 %d insérés, %d mis à jour, %d inchangés",
+                    result.getDays(), result.getUserId(),
+                    result.getInserted(), result.getUpdated(), result.getUnchanged()
             ));
 
+        } catch (IngestLimitExceededException e) {
+            log.warn("Streamed health data rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("❌ Erreur: " + e.getMessage());
         } catch (Exception e) {
-            log.error("Error processing health data", e);
-            System.err.println("\n❌ ERREUR: " + e.getMessage() + "\n");
+            log.error("Error processing streamed health data", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("❌ Erreur: " + e.getMessage());
         }
     }
 
+    // ✅ Ingestion asynchrone : 202 Accepted immédiat, écriture par micro-lots en arrière-plan
+    @PostMapping("/async")
+    public ResponseEntity<?> receiveHealthDataAsync(
+            HttpServletRequest request,
+            @RequestBody HealthData healthData,
+            @RequestHeader(value = USER_ID_HEADER, required = false) String requestUserId) {
+        ingestMetrics.payload("async", request.getContentLengthLong());
+        try {
+            IngestionStatus status = asyncIngestService.submit(healthData, requestUserId);
+            URI statusUri = URI.create("/fetch/ingestions/" + status.getIngestionId());
+
+            return ResponseEntity.accepted()
+                    .location(statusUri)
+                    .body(Map.of(
+                            "ingestionId", status.getIngestionId(),
+                            "userId", status.getUserId(),
+                            "status", statusUri.toString()));
+
+        } catch (IngestQueueFullException e) {
+            log.warn("Async ingest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestProperties.getAsync().getRetryAfterSeconds()))
+                    .body("❌ Erreur: " + e.getMessage());
+        } catch (IngestUnavailableException e) {
+            log.warn("Async ingest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestProperties.getAsync().getRetryAfterSeconds()))
+                    .body("❌ Erreur: " + e.getMessage());
+        } catch (IngestLimitExceededException e) {
+            log.warn("Async ingest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("❌ Erreur: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Statut d'une ingestion asynchrone
+    @GetMapping("/ingestions/{ingestionId}")
+    public ResponseEntity<?> getIngestionStatus(@PathVariable String ingestionId) {
+        IngestionStatus status = asyncIngestService.getStatus(ingestionId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("❌ Ingestion inconnue ou expirée: " + ingestionId);
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    // ✅ Synchronisation delta : seuls les enregistrements postérieurs aux high-water marks
+    @PostMapping("/delta")
+    public ResponseEntity<?> receiveHealthDataDelta(
+            HttpServletRequest request,
+            @RequestBody HealthData healthData,
+            @RequestHeader(value = USER_ID_HEADER, required = false) String requestUserId) {
+        ingestMetrics.payload("delta", request.getContentLengthLong());
+        try {
+            IngestResult result = deltaSyncService.mergeDelta(healthData, requestUserId);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error merging delta health data", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ High-water marks d'un utilisateur (point de départ de la prochaine synchro delta)
+    @GetMapping("/sync-state/{userId}")
+    public ResponseEntity<?> getSyncState(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(syncStateService.getHighWaterMarks(userId));
+        } catch (Exception e) {
+            log.error("Error fetching sync state: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
     // ✅ Récupérer les données d'un utilisateur
+    // Sans paramètre : jours non archivés et archives des derniers mois (healthsync.archive.legacy-fetch-months,
+    // 12 par défaut), format historique. Avec from/to, fields,
+    // cursor ou limit : une page {items, nextCursor} triée par date, projetée côté MongoDB.
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserData(@PathVariable String userId) {
+    public ResponseEntity<?> getUserData(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             log.info("Fetching data for user: {}", userId);
-            List<BiometricData> data = biometricDataService.getUserData(userId);
-            return ResponseEntity.ok(data);
+            if (from == null && to == null && fields == null && cursor == null && limit == null) {
+                List<BiometricData> data = biometricDataService.getUserData(userId);
+                return ResponseEntity.ok(data);
+            }
+            BiometricPage page = biometricDataService.getUserDataPage(userId, from, to,
+                    fields != null ? fields : List.of(), cursor, limit != null ? limit : DEFAULT_PAGE_SIZE);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
         } catch (Exception e) {
             log.error("Error fetching user data: {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -235,17 +229,53 @@ public class HealthDataController {
         }
     }
 
-    // ✅ Stats d'un utilisateur
+    // ✅ Dernières valeurs (FC, tension, poids, pas du jour) pour les tableaux de bord, servies depuis le cache
+    @GetMapping("/latest/{userId}")
+    public ResponseEntity<?> getLatestVitals(@PathVariable String userId) {
+        try {
+            LatestVitals latest = latestVitalsService.get(userId);
+            if (latest.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("❌ Aucune donnée pour l'utilisateur: " + userId);
+            }
+            return ResponseEntity.ok(latest);
+        } catch (Exception e) {
+            log.error("Error fetching latest vitals: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Stats d'un utilisateur (moyennes, percentiles, exercice), période optionnelle
     @GetMapping("/stats/{userId}")
-    public ResponseEntity<String> getUserStats(@PathVariable String userId) {
+    public ResponseEntity<?> getUserStats(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            log.info("Fetching stats for user: {}", userId);
-            String stats = biometricDataService.getUserStats(userId);
-            return ResponseEntity.ok(stats);
+            log.info("Fetching stats for user: {} ({} → {})", userId, from, to);
+            return ResponseEntity.ok(biometricDataService.getUserStats(userId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
         } catch (Exception e) {
             log.error("Error fetching user stats: {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("❌ Erreur: " + e.getMessage());
         }
     }
+
+    // ✅ Totaux distance / sommeil sur une période (agrégés dans MongoDB)
+    @GetMapping("/stats/{userId}/totals")
+    public ResponseEntity<?> getActivityTotals(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(biometricDataService.getActivityTotals(userId, from, to));
+        } catch (Exception e) {
+            log.error("Error fetching activity totals: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
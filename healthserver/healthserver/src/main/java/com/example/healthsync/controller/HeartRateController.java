@@ -0,0 +1,69 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.model.HeartRateChart;
+import com.example.healthsync.model.HeartRatePoint;
+import com.example.healthsync.service.HeartRateChartService;
+import com.example.healthsync.storage.HeartRateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/fetch/heart-rate")
+@CrossOrigin(origins = "*") // TODO: Restreindre en production
+@RequiredArgsConstructor
+@Slf4j
+public class HeartRateController {
+
+    private final HeartRateStore heartRateStore;
+    private final HeartRateChartService heartRateChartService;
+
+    // ✅ Échantillons HR d'un utilisateur sur une plage de temps
+    @GetMapping("/{userId}")
+    public ResponseEntity<?> getHeartRateRange(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            if (!to.isAfter(from)) {
+                return ResponseEntity.badRequest().body("❌ Erreur: 'to' doit être après 'from'");
+            }
+            List<HeartRatePoint> points = heartRateStore.findRange(userId, from, to);
+            return ResponseEntity.ok(points);
+        } catch (Exception e) {
+            log.error("Error fetching heart rate range: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Graphique HR : série réduite côté serveur (LTTB) avec enveloppe min/max
+    @GetMapping("/{userId}/chart")
+    public ResponseEntity<?> getHeartRateChart(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "300") int points) {
+        try {
+            if (!to.isAfter(from)) {
+                return ResponseEntity.badRequest().body("❌ Erreur: 'to' doit être après 'from'");
+            }
+            HeartRateChart chart = heartRateChartService.chart(userId, from, to, points);
+            return ResponseEntity.ok(chart);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error building heart rate chart: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+}
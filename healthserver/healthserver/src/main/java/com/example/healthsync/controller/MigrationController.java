@@ -0,0 +1,92 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.archive.MonthlyArchiver;
+import com.example.healthsync.migration.SampleCompactionMigrator;
+import com.example.healthsync.migration.SchemaV2Migrator;
+import com.example.healthsync.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/fetch/admin/migrations")
+@RequiredArgsConstructor
+@Slf4j
+public class MigrationController {
+
+    private final SampleCompactionMigrator sampleCompactionMigrator;
+    private final SchemaV2Migrator schemaV2Migrator;
+    private final RollupService rollupService;
+    private final MonthlyArchiver monthlyArchiver;
+
+    // ✅ Compaction des échantillons HR existants (relancer jusqu'à remaining = 0)
+    @PostMapping("/compact-samples")
+    public ResponseEntity<?> compactSamples(
+            @RequestParam(defaultValue = "500") int batchSize,
+            @RequestParam(defaultValue = "20") int maxBatches) {
+        try {
+            int migrated = sampleCompactionMigrator.migrate(batchSize, maxBatches);
+            return ResponseEntity.ok(Map.of(
+                    "migrated", migrated,
+                    "remaining", sampleCompactionMigrator.remaining()));
+        } catch (Exception e) {
+            log.error("Error compacting heart rate samples", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Migration schéma v2 : un lot à la demande (le job planifié fait de même en arrière-plan)
+    @PostMapping("/schema-v2")
+    public ResponseEntity<?> migrateSchemaV2(@RequestParam(defaultValue = "500") int batchSize) {
+        try {
+            schemaV2Migrator.migrateBatch(batchSize);
+            return ResponseEntity.ok(schemaV2Migrator.status());
+        } catch (Exception e) {
+            log.error("Error migrating schema v2", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/schema-v2")
+    public ResponseEntity<?> schemaV2Status() {
+        return ResponseEntity.ok(schemaV2Migrator.status());
+    }
+
+    // ✅ Reconstruction des agrégats semaine/mois d'un utilisateur (données antérieures aux agrégats)
+    @PostMapping("/rollups/{userId}")
+    public ResponseEntity<?> rebuildRollups(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(Map.of("userId", userId, "days", rollupService.rebuild(userId)));
+        } catch (Exception e) {
+            log.error("Error rebuilding rollups: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Archivage mensuel : un lot à la demande (le job planifié fait de même si activé)
+    @PostMapping("/archive")
+    public ResponseEntity<?> archive() {
+        try {
+            monthlyArchiver.archiveBatch();
+            return ResponseEntity.ok(monthlyArchiver.status());
+        } catch (Exception e) {
+            log.error("Error archiving biometric data", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<?> archiveStatus() {
+        return ResponseEntity.ok(monthlyArchiver.status());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.config.WireFormatConfig;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.service.ReactiveBiometricDataService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * API /fetch de la variante WebFlux (--spring.profiles.active=reactive) : uploads lus
+ * au fil de l'eau par un petit nombre de threads event loop, historique en NDJSON.
+ * Les autres endpoints (async, delta, rollups, heart-rate, admin) restent servlet.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/fetch")
+@CrossOrigin(origins = "*") // TODO: Restreindre en production
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveHealthDataController {
+
+    // Identifiant stable de l'utilisateur (sinon un userId temporaire est généré)
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    private final ReactiveBiometricDataService biometricDataService;
+
+    @GetMapping
+    public Mono<String> testConnection() {
+        return Mono.just("✅ Serveur Spring Boot (réactif) accessible depuis le téléphone!");
+    }
+
+    // ✅ Ingestion : POST /fetch et /fetch/stream sont tous deux lus en streaming non bloquant
+    @PostMapping(value = {"", "/stream"}, consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, WireFormatConfig.APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<String>> receiveHealthData(
+            @RequestBody Flux<DataBuffer> body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = USER_ID_HEADER, required = false) String requestUserId) {
+        return biometricDataService.ingest(body, contentType, requestUserId)
+                .map(result -> {
+                    log.info("Health data streamed successfully (reactive) - User: {}, Days: {}",
+                            result.getUserId(), result.getDays());
+                    return ResponseEntity.ok(message(result));
+                })
+                .onErrorResume(IngestLimitExceededException.class, e -> {
+                    log.warn("Streamed health data rejected: {}", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                            .body("❌ Erreur: " + e.getMessage()));
+                })
+                .onErrorResume(e -> {
+                    log.error("Error processing streamed health data", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body("❌ Erreur: " + e.getMessage()));
+                });
+    }
+
+    // ✅ Historique d'un utilisateur, un document par ligne (application/x-ndjson)
+    // ou tableau JSON écrit au fil de l'eau (application/json)
+    @GetMapping(value = "/user/{userId}", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_JSON_VALUE})
+    public Flux<BiometricData> getUserData(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<String> fields) {
+        log.info("Streaming data for user: {}", userId);
+        return biometricDataService.streamUserData(userId, from, to, fields != null ? fields : List.of());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+    }
+
+    private static String message(IngestResult result) {
+        return String.format(
+                "✅ %d données reçues et sauvegardées!\n👤 User ID: %s\n💾 %d enregistrements MongoDB"
+                        + " (%d insérés, %d mis à jour, %d inchangés)",
+                result.getSummary().getDataPoints(), result.getUserId(), result.getDays(),
+                result.getInserted(), result.getUpdated(), result.getUnchanged());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.model.RollupPeriod;
+import com.example.healthsync.model.RollupView;
+import com.example.healthsync.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/fetch/rollups")
+@CrossOrigin(origins = "*") // TODO: Restreindre en production
+@RequiredArgsConstructor
+@Slf4j
+public class RollupController {
+
+    private final RollupService rollupService;
+
+    // ✅ Tendances : agrégats semaine (WEEK) ou mois (MONTH) sur une plage de dates
+    @GetMapping("/{userId}")
+    public ResponseEntity<?> getRollups(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "MONTH") RollupPeriod period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            if (to.isBefore(from)) {
+                return ResponseEntity.badRequest().body("❌ Erreur: 'to' doit être après 'from'");
+            }
+            List<RollupView> rollups = rollupService.findRange(userId, period, from, to);
+            return ResponseEntity.ok(rollups);
+        } catch (Exception e) {
+            log.error("Error fetching rollups: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.healthsync.exception;
+
+/**
+ * Levée quand un payload d'ingestion dépasse une des limites configurées
+ * (taille, nombre de jours, enregistrements ou échantillons par jour)
+ */
+public class IngestLimitExceededException extends RuntimeException {
+
+    public IngestLimitExceededException(String message) {
+        super(message);
+    }
+}
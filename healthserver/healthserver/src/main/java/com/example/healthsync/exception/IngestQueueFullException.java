@@ -0,0 +1,11 @@
+package com.example.healthsync.exception;
+
+/**
+ * Levée quand la file d'ingestion asynchrone est pleine (le client doit réessayer plus tard)
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
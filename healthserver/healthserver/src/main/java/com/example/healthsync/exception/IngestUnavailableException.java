@@ -0,0 +1,11 @@
+package com.example.healthsync.exception;
+
+/**
+ * Levée quand l'ingestion asynchrone n'accepte plus de payload (arrêt du serveur en cours)
+ */
+public class IngestUnavailableException extends RuntimeException {
+
+    public IngestUnavailableException(String message) {
+        super(message);
+    }
+}
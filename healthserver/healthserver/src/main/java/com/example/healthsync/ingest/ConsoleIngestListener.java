@@ -0,0 +1,149 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.HealthData.*;
+import com.example.healthsync.model.IngestResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Affichage console détaillé des données reçues, pour le développement
+ * (healthsync.ingest.debug-console=true). Le rendu se fait sur un thread dédié,
+ * hors du thread de la requête.
+ */
+@Component
+@ConditionalOnProperty(name = "healthsync.ingest.debug-console", havingValue = "true")
+public class ConsoleIngestListener implements IngestListener {
+
+    private final ExecutorService printer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ingest-console");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void onDay(String userId, DailyData day) {
+        printer.execute(() -> printDay(day));
+    }
+
+    @Override
+    public void onComplete(IngestResult result) {
+        printer.execute(() -> {
+            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
+            System.out.println("║  ✅ SUCCÈS - " + result.getSummary().getDataPoints() + " points sauvegardés dans MongoDB   ║");
+            System.out.println("╚═════════════════════════════════════════════════════════════╝");
+            System.out.println("💾 User ID: " + result.getUserId()
+                    + " | Jours: " + result.getDays()
+                    + " | Insérés: " + result.getInserted()
+                    + " | Mis à jour: " + result.getUpdated()
+                    + " | Inchangés: " + result.getUnchanged() + "\n");
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        printer.shutdown();
+    }
+
+    private static void printDay(HealthData.DailyData day) {
+        System.out.println("\n╭─────────────────────────────────────────────────────────────╮");
+        System.out.println("│  📅 DATE: " + day.getDate() + "                                   │");
+        System.out.println("╰─────────────────────────────────────────────────────────────╯\n");
+
+        // 👣 STEPS
+        if (day.getTotalSteps() != null && day.getTotalSteps() > 0) {
+            System.out.println("👣 STEPS: " + day.getTotalSteps() + " pas");
+        }
+
+        // ❤️ HEART RATE
+        if (day.getAvgHeartRate() != null && day.getAvgHeartRate() > 0) {
+            System.out.println("❤️  HEART RATE:");
+            System.out.println("   • Moyenne: " + day.getAvgHeartRate() + " bpm");
+            if (day.getMinHeartRate() != null && day.getMaxHeartRate() != null) {
+                System.out.println("   • Min: " + day.getMinHeartRate() + " bpm | Max: " + day.getMaxHeartRate() + " bpm");
+            }
+        }
+
+        // 📏 DISTANCE
+        if (day.getTotalDistanceKm() != null && day.getTotalDistanceKm() > 0) {
+            System.out.println("📏 DISTANCE: " + day.getTotalDistanceKm() + " km");
+        }
+
+        // 💤 SLEEP
+        List<SleepRecord> sleepRecords = day.getSleep();
+        if (day.getTotalSleepHours() != null && sleepRecords != null && !sleepRecords.isEmpty()) {
+            System.out.println("💤 SOMMEIL: " + day.getTotalSleepHours() + " heures");
+            for (SleepRecord sleep : sleepRecords) {
+                System.out.println("   • " + sleep.getTitle() + ": " +
+                        sleep.getStartTime() + " → " + sleep.getEndTime() +
+                        " (" + sleep.getDurationMinutes() + " min)");
+            }
+        }
+
+        // 🏋️ EXERCISE
+        List<ExerciseRecord> exercises = day.getExercise();
+        if (exercises != null && !exercises.isEmpty()) {
+            System.out.println("\n🏋️  EXERCICES (" + exercises.size() + " sessions):");
+            for (int i = 0; i < exercises.size(); i++) {
+                ExerciseRecord ex = exercises.get(i);
+                System.out.println("\n   ┌─ Session " + (i + 1) + " ─────────────────────────────");
+                System.out.println("   │ 🏃 Type: " + ex.getExerciseTypeName());
+                System.out.println("   │ ⏱️  Durée: " + ex.getDurationMinutes() + " minutes");
+                System.out.println("   │ 🕐 Début: " + ex.getStartTime());
+                if (ex.getDistanceKm() != null && ex.getDistanceKm() > 0) {
+                    System.out.println("   │ 📏 Distance: " + ex.getDistanceKm() + " km");
+                }
+                if (ex.getSteps() != null && ex.getSteps() > 0) {
+                    System.out.println("   │ 👣 Pas: " + ex.getSteps());
+                }
+                if (ex.getActiveCalories() != null && ex.getActiveCalories() > 0) {
+                    System.out.println("   │ 🔥 Calories: " + ex.getActiveCalories() + " kcal");
+                }
+                if (ex.getAvgHeartRate() != null && ex.getAvgHeartRate() > 0) {
+                    System.out.println("   │ ❤️  BPM: " + ex.getAvgHeartRate() + " bpm");
+                }
+                if (ex.getAvgSpeedKmh() != null) {
+                    System.out.println("   │ 🚀 Vitesse moy: " + ex.getAvgSpeedKmh() + " km/h");
+                }
+                if (ex.getAvgCadence() != null && ex.getAvgCadence() > 0) {
+                    System.out.println("   │ 🎯 Cadence: " + ex.getAvgCadence() + " rpm");
+                }
+                if (ex.getAvgPowerWatts() != null && ex.getAvgPowerWatts() > 0) {
+                    System.out.println("   │ ⚡ Puissance: " + ex.getAvgPowerWatts() + " W");
+                }
+                System.out.println("   └────────────────────────────────────────────");
+            }
+        }
+
+        // 💧 HYDRATION
+        List<HydrationRecord> hydrationRecords = day.getHydration();
+        if (day.getTotalHydrationLiters() != null && hydrationRecords != null && !hydrationRecords.isEmpty()) {
+            System.out.println("\n💧 HYDRATATION: " + day.getTotalHydrationLiters() + " L (" +
+                    hydrationRecords.size() + " prises)");
+        }
+
+        // 😰 STRESS
+        if (day.getStressLevel() != null && day.getStressScore() != null) {
+            System.out.println("😰 STRESS: " + day.getStressLevel() + " (score: " + day.getStressScore() + ")");
+        }
+
+        printCount("\n🫁 SATURATION O2", day.getOxygenSaturation());
+        printCount("🌡️  TEMPÉRATURE", day.getBodyTemperature());
+        printCount("💉 PRESSION", day.getBloodPressure());
+        printCount("⚖️  POIDS", day.getWeight());
+        printCount("📏 TAILLE", day.getHeight());
+
+        System.out.println("\n" + "─".repeat(65));
+    }
+
+    private static void printCount(String label, List<?> records) {
+        if (records != null && !records.isEmpty()) {
+            System.out.println(label + ": " + records.size() + " mesures");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Empreinte stable d'un jour : SHA-256 du JSON canonique (propriétés triées),
+ * sans id, userId, receivedAt ni l'empreinte elle-même. Le JSON est écrit directement
+ * dans le digest, sans tampon intermédiaire.
+ */
+public final class DailyDataHasher {
+
+    @JsonIgnoreProperties({"id", "userId", "receivedAt", "contentHash"})
+    private abstract static class IgnoreVolatileFields {
+    }
+
+    private static final ObjectWriter CANONICAL_WRITER = JsonMapper.builder()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .addMixIn(BiometricData.class, IgnoreVolatileFields.class)
+            .build()
+            .writer();
+
+    private DailyDataHasher() {
+    }
+
+    public static String hash(BiometricData day) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                CANONICAL_WRITER.writeValue(out, day);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+
+/**
+ * Délégué Jackson qui compte, token par token, les enregistrements (objets imbriqués)
+ * et les échantillons numériques d'un DailyData pendant sa désérialisation.
+ * Toutes les méthodes "next*" passent par nextToken() pour que rien n'échappe au comptage.
+ */
+class DayLimitingParser extends JsonParserDelegate {
+
+    private final int maxRecords;
+    private final int maxSamples;
+    private int records;
+    private int samples;
+
+    DayLimitingParser(JsonParser parser, int maxRecords, int maxSamples) {
+        super(parser);
+        this.maxRecords = maxRecords;
+        this.maxSamples = maxSamples;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            if (++records > maxRecords) {
+                throw new IngestLimitExceededException(
+                        "Trop d'enregistrements pour un jour (max " + maxRecords + ")");
+            }
+        } else if (token != null && token.isNumeric() && delegate.getParsingContext().inArray()) {
+            if (++samples > maxSamples) {
+                throw new IngestLimitExceededException(
+                        "Trop d'échantillons pour un jour (max " + maxSamples + ")");
+            }
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        JsonToken token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    @Override
+    public String nextFieldName() throws IOException {
+        return nextToken() == JsonToken.FIELD_NAME ? currentName() : null;
+    }
+
+    @Override
+    public boolean nextFieldName(SerializableString name) throws IOException {
+        return nextToken() == JsonToken.FIELD_NAME && name.getValue().equals(currentName());
+    }
+
+    @Override
+    public String nextTextValue() throws IOException {
+        return nextToken() == JsonToken.VALUE_STRING ? getText() : null;
+    }
+
+    @Override
+    public int nextIntValue(int defaultValue) throws IOException {
+        return nextToken() == JsonToken.VALUE_NUMBER_INT ? getIntValue() : defaultValue;
+    }
+
+    @Override
+    public long nextLongValue(long defaultValue) throws IOException {
+        return nextToken() == JsonToken.VALUE_NUMBER_INT ? getLongValue() : defaultValue;
+    }
+
+    @Override
+    public Boolean nextBooleanValue() throws IOException {
+        JsonToken token = nextToken();
+        if (token == JsonToken.VALUE_TRUE) {
+            return Boolean.TRUE;
+        }
+        return token == JsonToken.VALUE_FALSE ? Boolean.FALSE : null;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        JsonToken current = currentToken();
+        if (current != JsonToken.START_OBJECT && current != JsonToken.START_ARRAY) {
+            return this;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = nextToken();
+            if (token == null) {
+                return this;
+            }
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+        return this;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.WireFormatConfig;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.util.LimitedInputStream;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Lecture en streaming d'un payload HealthData : les éléments de "dailyData" sont
+ * désérialisés un par un et transmis immédiatement au consumer.
+ * La mémoire utilisée dépend du plus gros jour, pas de la taille totale du payload.
+ * Accepte JSON, CBOR et Smile (même structure, choisie selon le Content-Type).
+ */
+@Component
+@RequiredArgsConstructor
+public class HealthDataStreamReader {
+
+    private static final String DAILY_DATA = "dailyData";
+
+    private final ObjectMapper objectMapper;
+    private final IngestProperties properties;
+
+    private final JsonFactory cborFactory = new CBORFactory();
+    private final JsonFactory smileFactory = new SmileFactory();
+
+    public int read(InputStream body, Consumer<HealthData.DailyData> consumer) throws IOException {
+        return read(body, MediaType.APPLICATION_JSON, consumer);
+    }
+
+    /**
+     * @return le nombre de jours lus et transmis au consumer
+     */
+    public int read(InputStream body, MediaType contentType, Consumer<HealthData.DailyData> consumer) throws IOException {
+        InputStream limited = new LimitedInputStream(body, properties.getMaxPayloadBytes());
+
+        try (JsonParser parser = factoryFor(contentType).createParser(limited)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Format de données invalide: objet JSON attendu");
+            }
+
+            int days = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+
+                if (!DAILY_DATA.equals(field) || token == JsonToken.VALUE_NULL) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("Format de données invalide: dailyData doit être un tableau");
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    if (++days > properties.getMaxDays()) {
+                        throw new IngestLimitExceededException(
+                                "Trop de jours dans le payload (max " + properties.getMaxDays() + ")");
+                    }
+                    JsonParser dayParser = new DayLimitingParser(parser,
+                            properties.getMaxRecordsPerDay(), properties.getMaxSamplesPerDay());
+                    consumer.accept(objectMapper.readValue(dayParser, HealthData.DailyData.class));
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new IllegalArgumentException("Format de données invalide: élément de dailyData non objet");
+                }
+            }
+            return days;
+        }
+    }
+
+    private JsonFactory factoryFor(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborFactory;
+        }
+        if (WireFormatConfig.APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileFactory;
+        }
+        return objectMapper.getFactory();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.service.BiometricAggregates;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un seul passage par DailyData : métadonnées et agrégats, puis chaque {@link RecordHandler}
+ * valide, convertit et compte ses enregistrements, et l'{@link IntervalMerger} fusionne les
+ * chevauchements. Le résultat est un document BiometricData prêt à écrire et un
+ * {@link IngestSummary} complété. Les observateurs ne voient les documents qu'une fois
+ * écrits ({@link #beforeWrite}).
+ */
+@Slf4j
+@Component
+public class IngestEngine {
+
+    private final List<RecordHandler> handlers;
+    private final List<IngestListener> listeners;
+    private final IngestMetrics metrics;
+    private final IntervalMerger intervalMerger;
+    private final Timer[] conversionTimers;
+
+    public IngestEngine(List<RecordHandler> handlers, ObjectProvider<IngestListener> listeners,
+                        IngestMetrics metrics, IntervalMerger intervalMerger) {
+        this.handlers = handlers;
+        this.listeners = listeners.orderedStream().toList();
+        this.metrics = metrics;
+        this.intervalMerger = intervalMerger;
+        this.conversionTimers = handlers.stream().map(handler -> metrics.conversion(handler.type()))
+                .toArray(Timer[]::new);
+        log.info("🧩 IngestEngine: {} handlers ({})", handlers.size(),
+                handlers.stream().map(RecordHandler::type).toList());
+    }
+
+    /**
+     * @return le document du jour, ou null si le jour est rejeté (date absente ou invalide)
+     */
+    public BiometricData process(String userId, HealthData.DailyData day, IngestSummary summary) {
+        if (!validDate(day.getDate())) {
+            summary.setRejectedDays(summary.getRejectedDays() + 1);
+            log.warn("⚠️ Jour ignoré pour {}: date invalide '{}'", userId, day.getDate());
+            return null;
+        }
+
+        BiometricData data = new BiometricData();
+
+        // Métadonnées
+        data.setUserId(userId);
+        data.setReceivedAt(LocalDateTime.now());
+        data.setDate(day.getDate());
+        data.setSchemaVersion(BiometricData.SCHEMA_VERSION);
+
+        // ✅ Données agrégées
+        data.setTotalSteps(day.getTotalSteps());
+        data.setAvgHeartRate(day.getAvgHeartRate());
+        data.setMinHeartRate(day.getMinHeartRate());
+        data.setMaxHeartRate(day.getMaxHeartRate());
+        data.setTotalDistanceKm(day.getTotalDistanceKm());
+        data.setTotalSleepHours(day.getTotalSleepHours());
+        data.setTotalHydrationLiters(day.getTotalHydrationLiters());
+        data.setStressLevel(day.getStressLevel());
+        data.setStressScore(day.getStressScore());
+
+        // ✅ Listes détaillées : validation, conversion et comptage en un passage
+        for (int i = 0; i < handlers.size(); i++) {
+            RecordHandler handler = handlers.get(i);
+            long start = System.nanoTime();
+            handler.handle(day, data, summary.countsFor(handler.type()));
+            conversionTimers[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        // ✅ Chevauchements entre sources (apps, appareils) : fusion puis agrégats recalculés
+        if (intervalMerger.merge(data, summary)) {
+            BiometricAggregates.recompute(data);
+        }
+        summary.setDays(summary.getDays() + 1);
+
+        for (IngestListener listener : listeners) {
+            listener.onDay(userId, day);
+        }
+        return data;
+    }
+
+    /**
+     * Notification des documents jour écrits ({@link IngestListener#onDocument}), à préparer avant
+     * HeartRateStore.beforeWrite : les échantillons FC que le store retire des documents sont gardés
+     * et remis dans les documents avant la notification. À lancer une fois l'upsert réussi.
+     */
+    public Runnable beforeWrite(List<BiometricData> days) {
+        if (listeners.isEmpty() || days.isEmpty()) {
+            return () -> { };
+        }
+        Map<BiometricData, List<BiometricData.HeartRateRecord>> heartRates = new IdentityHashMap<>();
+        for (BiometricData day : days) {
+            if (day.getHeartRate() != null) {
+                List<BiometricData.HeartRateRecord> records = new ArrayList<>(day.getHeartRate().size());
+                for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+                    records.add(new BiometricData.HeartRateRecord(record.getSamples(), record.getStartTime(),
+                            record.getEndTime(), record.getDataOrigin()));
+                }
+                heartRates.put(day, records);
+            }
+        }
+        return () -> {
+            for (BiometricData day : days) {
+                if (heartRates.containsKey(day)) {
+                    day.setHeartRate(heartRates.get(day));
+                }
+                for (IngestListener listener : listeners) {
+                    listener.onDocument(day);
+                }
+            }
+        };
+    }
+
+    /**
+     * Reporte les compteurs d'un payload dans Micrometer (voir {@link IngestMetrics})
+     */
+    public void record(IngestSummary summary) {
+        metrics.request(summary);
+    }
+
+    /**
+     * Fin d'une ingestion synchrone : métriques et observateurs
+     */
+    public void completed(IngestResult result) {
+        record(result.getSummary());
+        for (IngestListener listener : listeners) {
+            listener.onComplete(result);
+        }
+    }
+
+    private static boolean validDate(String date) {
+        if (date == null) {
+            return false;
+        }
+        try {
+            LocalDate.parse(date);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
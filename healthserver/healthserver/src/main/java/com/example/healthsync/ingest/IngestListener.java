@@ -0,0 +1,26 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestResult;
+
+/**
+ * Observateur optionnel de l'ingestion (ex. affichage console en développement).
+ * Appelé sur le thread de la requête (ou de l'écrivain asynchrone) : une implémentation
+ * ne doit pas y faire de travail coûteux.
+ */
+public interface IngestListener {
+
+    default void onDay(String userId, HealthData.DailyData day) {
+    }
+
+    /**
+     * Document jour écrit (upsert réussi, contenu modifié) : seuls les enregistrements validés
+     * y figurent. Un jour rejeté, identique au contenu stocké ou dont l'écriture échoue n'est pas notifié.
+     */
+    default void onDocument(BiometricData data) {
+    }
+
+    default void onComplete(IngestResult result) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.IngestSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Métriques d'ingestion (exposées par /actuator/prometheus) :
+ * <ul>
+ *   <li>healthsync.ingest.payload.bytes : taille du corps reçu (tag mode : sync | stream | async | delta | reactive)</li>
+ *   <li>healthsync.ingest.days : jours acceptés par requête</li>
+ *   <li>healthsync.ingest.days.rejected : jours rejetés (date absente ou invalide)</li>
+ *   <li>healthsync.ingest.records : enregistrements par type et résultat (accepted | rejected | merged)</li>
+ *   <li>healthsync.ingest.conversion : temps de conversion d'un jour, par type d'enregistrement</li>
+ *   <li>healthsync.ingest.mongo.write : latence du bulk upsert (tag outcome : success | error), histogramme</li>
+ *   <li>healthsync.ingest.mongo.write.days : jours par bulk upsert</li>
+ *   <li>healthsync.ingest.upsert : jours écrits par résultat (inserted | updated | unchanged)</li>
+ *   <li>healthsync.ingest.queue.depth, .queue.bytes, .queue.rejected, .queue.wait : file asynchrone</li>
+ * </ul>
+ * La déduplication est comptée par ContentDedupService (healthsync.ingest.dedup).
+ */
+@Component
+public class IngestMetrics {
+
+    private final MeterRegistry registry;
+
+    private final DistributionSummary acceptedDays;
+    private final Counter rejectedDays;
+    private final Timer writeSuccess;
+    private final Timer writeError;
+    private final DistributionSummary writeDays;
+    private final Counter inserted;
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter queueRejected;
+    private final Timer queueWait;
+
+    public IngestMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        this.acceptedDays = DistributionSummary.builder("healthsync.ingest.days")
+                .description("Jours acceptés par requête d'ingestion")
+                .register(registry);
+        this.rejectedDays = Counter.builder("healthsync.ingest.days.rejected")
+                .description("Jours rejetés (date absente ou invalide)")
+                .register(registry);
+        this.writeSuccess = writeTimer("success");
+        this.writeError = writeTimer("error");
+        this.writeDays = DistributionSummary.builder("healthsync.ingest.mongo.write.days")
+                .description("Jours envoyés à MongoDB par bulk upsert")
+                .register(registry);
+        this.inserted = upsert("inserted");
+        this.updated = upsert("updated");
+        this.unchanged = upsert("unchanged");
+        this.queueRejected = Counter.builder("healthsync.ingest.queue.rejected")
+                .description("Ingestions asynchrones refusées (file pleine)")
+                .register(registry);
+        this.queueWait = Timer.builder("healthsync.ingest.queue.wait")
+                .description("Attente en file entre la soumission et l'écriture")
+                .register(registry);
+    }
+
+    private Timer writeTimer(String outcome) {
+        return Timer.builder("healthsync.ingest.mongo.write")
+                .description("Latence du bulk upsert des documents jour")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Counter upsert(String outcome) {
+        return Counter.builder("healthsync.ingest.upsert")
+                .description("Jours écrits par résultat d'upsert")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void payload(String mode, long bytes) {
+        if (bytes < 0) {
+            return;  // Content-Length absent
+        }
+        DistributionSummary.builder("healthsync.ingest.payload.bytes")
+                .description("Taille du corps de requête d'ingestion")
+                .baseUnit("bytes")
+                .tag("mode", mode)
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Timer de conversion d'un type d'enregistrement, à résoudre une fois par handler
+     */
+    Timer conversion(String type) {
+        return Timer.builder("healthsync.ingest.conversion")
+                .description("Temps de validation et conversion d'un jour, par type d'enregistrement")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    /**
+     * Compteurs d'un payload : jours acceptés et rejetés, enregistrements par type
+     */
+    public void request(IngestSummary summary) {
+        acceptedDays.record(summary.getDays());
+        if (summary.getRejectedDays() > 0) {
+            rejectedDays.increment(summary.getRejectedDays());
+        }
+        for (Map.Entry<String, IngestSummary.RecordCounts> entry : summary.getRecords().entrySet()) {
+            records(entry.getKey(), "accepted").increment(entry.getValue().getAccepted());
+            records(entry.getKey(), "rejected").increment(entry.getValue().getRejected());
+            if (entry.getValue().getMerged() > 0) {
+                records(entry.getKey(), "merged").increment(entry.getValue().getMerged());
+            }
+        }
+    }
+
+    private Counter records(String type, String outcome) {
+        return Counter.builder("healthsync.ingest.records")
+                .description("Enregistrements reçus par type et résultat de validation")
+                .tags("type", type, "outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Mesure un bulk upsert de {@code days} documents (rien n'est mesuré pour un lot vide)
+     */
+    public BulkUpsertResult timeWrite(int days, Supplier<BulkUpsertResult> write) {
+        if (days == 0) {
+            return write.get();
+        }
+        long start = System.nanoTime();
+        try {
+            BulkUpsertResult result = write.get();
+            write(days, System.nanoTime() - start, true);
+            return result;
+        } catch (RuntimeException e) {
+            write(days, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    public void write(int days, long nanos, boolean success) {
+        if (days == 0) {
+            return;
+        }
+        (success ? writeSuccess : writeError).record(nanos, TimeUnit.NANOSECONDS);
+        writeDays.record(days);
+    }
+
+    /**
+     * Résultat final d'un lot, jours filtrés par la déduplication inclus dans "unchanged"
+     */
+    public void upserted(int insertedDays, int updatedDays, int unchangedDays) {
+        inserted.increment(insertedDays);
+        updated.increment(updatedDays);
+        unchanged.increment(unchangedDays);
+    }
+
+    public void queue(Collection<?> queue, AtomicLong queuedBytes) {
+        Gauge.builder("healthsync.ingest.queue.depth", queue, Collection::size)
+                .description("Ingestions asynchrones en attente d'écriture")
+                .register(registry);
+        Gauge.builder("healthsync.ingest.queue.bytes", queuedBytes, AtomicLong::get)
+                .description("Taille mémoire estimée des ingestions en attente")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public void queueRejected() {
+        queueRejected.increment();
+    }
+
+    public void queueWait(Duration wait) {
+        queueWait.record(wait);
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.storage.SampleTimes;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fusion des enregistrements pas, distance et FC dont les intervalles se chevauchent :
+ * Health Connect agrège plusieurs apps et appareils, qui mesurent souvent la même période.
+ * Les enregistrements sont traités par priorité de source (healthsync.ingest.merge.source-priority,
+ * sources absentes ou inconnues en dernier) puis par heure de début ; chacun ne garde que la part
+ * de son intervalle non couverte par les précédents. Pas et distance sont répartis au prorata
+ * de la durée gardée, les échantillons FC hors de cette part sont retirés.
+ * O(n log n) par jour : un tri, puis une TreeMap des intervalles couverts (fusionnés au fil de l'eau).
+ */
+@Component
+public class IntervalMerger {
+
+    // Largeur donnée à un enregistrement instantané (fin absente ou égale au début)
+    private static final long INSTANT_MILLIS = 1000;
+
+    private final boolean enabled;
+    private final Map<String, Integer> ranks = new HashMap<>();
+
+    public IntervalMerger(IngestProperties properties) {
+        this.enabled = properties.getMerge().isEnabled();
+        List<String> priority = properties.getMerge().getSourcePriority();
+        for (int i = 0; i < priority.size(); i++) {
+            ranks.putIfAbsent(priority.get(i), i);
+        }
+    }
+
+    /**
+     * Fusionne les chevauchements du jour, sur place
+     * @return vrai si des enregistrements ont été retirés ou rognés (agrégats à recalculer)
+     */
+    public boolean merge(BiometricData data, IngestSummary summary) {
+        if (!enabled) {
+            return false;
+        }
+        TreeSet<String> trimmed = data.getMergedRecords() != null
+                ? new TreeSet<>(data.getMergedRecords()) : new TreeSet<>();
+        int steps = mergeCounts("steps", trimmed, data.getSteps(), BiometricData.StepRecord::getStartTime,
+                BiometricData.StepRecord::getEndTime, BiometricData.StepRecord::getDataOrigin,
+                (record, span, fragment) -> new BiometricData.StepRecord(
+                        record.getCount() != null ? Math.round(record.getCount() * span.share(fragment)) : null,
+                        format(fragment[0]), format(fragment[1]), record.getDataOrigin()),
+                data::setSteps);
+        int distance = mergeCounts("distance", trimmed, data.getDistance(), BiometricData.DistanceRecord::getStartTime,
+                BiometricData.DistanceRecord::getEndTime, BiometricData.DistanceRecord::getDataOrigin,
+                (record, span, fragment) -> new BiometricData.DistanceRecord(
+                        record.getDistanceMeters() != null ? record.getDistanceMeters() * span.share(fragment) : null,
+                        format(fragment[0]), format(fragment[1]), record.getDataOrigin()),
+                data::setDistance);
+        int heartRate = mergeHeartRate(trimmed, data);
+
+        count(summary, "steps", steps);
+        count(summary, "distance", distance);
+        count(summary, "heartRate", heartRate);
+        if (steps + distance + heartRate == 0) {
+            return false;
+        }
+        data.setMergedRecords(new ArrayList<>(trimmed));
+        return true;
+    }
+
+    /**
+     * Clé d'un enregistrement reçu, telle que DeltaSyncService la compare (voir BiometricData.mergedRecords)
+     */
+    public static String mergedKey(String type, String startTime, String endTime) {
+        return type + "|" + startTime + "|" + endTime;
+    }
+
+    private static void count(IngestSummary summary, String type, int merged) {
+        if (merged > 0) {
+            IngestSummary.RecordCounts counts = summary.countsFor(type);
+            counts.setMerged(counts.getMerged() + merged);
+        }
+    }
+
+    /**
+     * Enregistrement cumulatif (pas, distance) réduit à une part de son intervalle
+     */
+    private interface Trimmer<T> {
+        T trim(T record, Span<T> span, long[] fragment);
+    }
+
+    private <T> int mergeCounts(String type, Set<String> trimmed, List<T> records,
+                                Function<T, String> start, Function<T, String> end,
+                                Function<T, String> origin, Trimmer<T> trimmer,
+                                Consumer<List<T>> target) {
+        List<Span<T>> spans = spans(records, start, end, origin);
+        if (spans == null) {
+            return 0;
+        }
+        int merged = 0;
+        List<Span<T>> kept = new ArrayList<>(spans.size());
+        for (Span<T> span : spans) {
+            if (span.fragments.size() == 1 && span.whole()) {
+                kept.add(span);
+                continue;
+            }
+            merged++;
+            trimmed.add(mergedKey(type, start.apply(span.record), end.apply(span.record)));
+            for (long[] fragment : span.fragments) {
+                kept.add(new Span<>(trimmer.trim(span.record, span, fragment), fragment[0], fragment[1], span.rank, span.index));
+            }
+        }
+        target.accept(ordered(kept));
+        return merged;
+    }
+
+    private int mergeHeartRate(Set<String> trimmed, BiometricData data) {
+        // Échantillons déjà externalisés (time-series) : rien à comparer
+        List<BiometricData.HeartRateRecord> records = data.getHeartRate();
+        if (records == null || records.stream().anyMatch(record -> record.getPackedSamples() == null
+                && (record.getSamples() == null || record.getSamples().isEmpty()))) {
+            return 0;
+        }
+        List<Span<BiometricData.HeartRateRecord>> spans = spans(records,
+                BiometricData.HeartRateRecord::getStartTime, BiometricData.HeartRateRecord::getEndTime,
+                BiometricData.HeartRateRecord::getDataOrigin);
+        if (spans == null) {
+            return 0;
+        }
+        int merged = 0;
+        List<Span<BiometricData.HeartRateRecord>> kept = new ArrayList<>(spans.size());
+        for (Span<BiometricData.HeartRateRecord> span : spans) {
+            if (span.fragments.size() == 1 && span.whole()) {
+                kept.add(span);
+                continue;
+            }
+            merged++;
+            trimmed.add(mergedKey("heartRate", span.record.getStartTime(), span.record.getEndTime()));
+            long[] samples = span.record.sampleArray();
+            long end = span.record.getEndTime() != null
+                    ? SampleTimes.parseMillis(span.record.getEndTime()) : span.start;
+            int i = 0;
+            for (long[] fragment : span.fragments) {
+                // Le dernier échantillon tombe sur la fin de l'enregistrement : part fermée à droite
+                boolean closed = fragment[1] >= end;
+                List<Long> part = new ArrayList<>();
+                long first = 0;
+                long last = 0;
+                for (; i < samples.length; i++) {
+                    long time = SampleTimes.atMillis(span.start, end, i, samples.length);
+                    if (closed ? time > fragment[1] : time >= fragment[1]) {
+                        break;
+                    }
+                    if (time >= fragment[0]) {
+                        if (part.isEmpty()) {
+                            first = time;
+                        }
+                        last = time;
+                        part.add(samples[i]);
+                    }
+                }
+                if (!part.isEmpty()) {
+                    kept.add(new Span<>(new BiometricData.HeartRateRecord(part, format(first), format(last),
+                            span.record.getDataOrigin()), first, last, span.rank, span.index));
+                }
+            }
+        }
+        data.setHeartRate(ordered(kept));
+        return merged;
+    }
+
+    /**
+     * Parts non couvertes de chaque enregistrement, ou null si rien ne se chevauche
+     * (ou si une heure est illisible : le jour est alors gardé tel quel)
+     */
+    private <T> List<Span<T>> spans(List<T> records, Function<T, String> start, Function<T, String> end,
+                                    Function<T, String> origin) {
+        if (records == null || records.size() < 2) {
+            return null;
+        }
+        List<Span<T>> spans = new ArrayList<>(records.size());
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                T record = records.get(i);
+                long from = SampleTimes.parseMillis(start.apply(record));
+                long to = end.apply(record) != null ? SampleTimes.parseMillis(end.apply(record)) : from;
+                String source = origin.apply(record);
+                int rank = source != null ? ranks.getOrDefault(source, ranks.size()) : ranks.size() + 1;
+                spans.add(new Span<>(record, from, Math.max(to, from + INSTANT_MILLIS), rank, i));
+            }
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        // Cas courant : aucun chevauchement, le jour est gardé tel quel
+        spans.sort(Comparator.comparingLong(span -> span.start));
+        long reach = Long.MIN_VALUE;
+        boolean overlaps = false;
+        for (Span<T> span : spans) {
+            if (span.start < reach) {
+                overlaps = true;
+                break;
+            }
+            reach = Math.max(reach, span.end);
+        }
+        if (!overlaps) {
+            return null;
+        }
+
+        // Source prioritaire d'abord, puis heure de début (à égalité, l'ordre reçu)
+        spans.sort(Comparator.comparingInt((Span<T> span) -> span.rank)
+                .thenComparingLong(span -> span.start)
+                .thenComparingInt(span -> span.index));
+        TreeMap<Long, Long> covered = new TreeMap<>();
+        for (Span<T> span : spans) {
+            span.fragments = uncovered(covered, span.start, span.end);
+            cover(covered, span.start, span.end);
+        }
+        return spans;
+    }
+
+    /**
+     * Parts de [start, end) hors des intervalles couverts (disjoints, triés)
+     */
+    static List<long[]> uncovered(TreeMap<Long, Long> covered, long start, long end) {
+        List<long[]> fragments = new ArrayList<>(1);
+        long cursor = start;
+        Map.Entry<Long, Long> floor = covered.floorEntry(start);
+        if (floor != null && floor.getValue() > cursor) {
+            cursor = floor.getValue();
+        }
+        for (Map.Entry<Long, Long> interval : covered.subMap(start, false, end, false).entrySet()) {
+            if (interval.getKey() > cursor) {
+                fragments.add(new long[]{cursor, interval.getKey()});
+            }
+            cursor = Math.max(cursor, interval.getValue());
+        }
+        if (cursor < end) {
+            fragments.add(new long[]{cursor, end});
+        }
+        return fragments;
+    }
+
+    /**
+     * Ajoute [start, end) aux intervalles couverts en fusionnant ceux qu'il touche :
+     * chaque intervalle n'est retiré qu'une fois, O(log n) amorti
+     */
+    static void cover(TreeMap<Long, Long> covered, long start, long end) {
+        Map.Entry<Long, Long> floor = covered.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+        Iterator<Map.Entry<Long, Long>> next = covered.tailMap(start, true).entrySet().iterator();
+        while (next.hasNext()) {
+            Map.Entry<Long, Long> interval = next.next();
+            if (interval.getKey() > end) {
+                break;
+            }
+            end = Math.max(end, interval.getValue());
+            next.remove();
+        }
+        covered.put(start, end);
+    }
+
+    /**
+     * Enregistrements gardés, triés par heure de début
+     */
+    private static <T> List<T> ordered(List<Span<T>> kept) {
+        kept.sort(Comparator.comparingLong((Span<T> span) -> span.start).thenComparingInt(span -> span.index));
+        List<T> records = new ArrayList<>(kept.size());
+        kept.forEach(span -> records.add(span.record));
+        return records;
+    }
+
+    private static String format(long millis) {
+        return SampleTimes.fromMillis(millis).format(SampleTimes.FORMAT);
+    }
+
+    private static final class Span<T> {
+        final T record;
+        final long start;
+        final long end;
+        final int rank;
+        final int index;
+        List<long[]> fragments;
+
+        Span(T record, long start, long end, int rank, int index) {
+            this.record = record;
+            this.start = start;
+            this.end = end;
+            this.rank = rank;
+            this.index = index;
+        }
+
+        boolean whole() {
+            return fragments.get(0)[0] == start && fragments.get(0)[1] == end;
+        }
+
+        double share(long[] fragment) {
+            return (double) (fragment[1] - fragment[0]) / (end - start);
+        }
+    }
+}
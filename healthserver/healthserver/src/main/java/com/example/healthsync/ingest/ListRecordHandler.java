@@ -0,0 +1,79 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Handler générique d'une liste d'enregistrements : un filtre de validité,
+ * une conversion vers le modèle MongoDB et, optionnellement, un compteur d'échantillons
+ */
+public class ListRecordHandler<S, T> implements RecordHandler {
+
+    private final String type;
+    private final Function<HealthData.DailyData, List<S>> source;
+    private final Predicate<S> valid;
+    private final Function<S, T> converter;
+    private final BiConsumer<BiometricData, List<T>> target;
+    private final ToIntFunction<S> samples;
+
+    public ListRecordHandler(String type,
+                             Function<HealthData.DailyData, List<S>> source,
+                             Predicate<S> valid,
+                             Function<S, T> converter,
+                             BiConsumer<BiometricData, List<T>> target) {
+        this(type, source, valid, converter, target, null);
+    }
+
+    public ListRecordHandler(String type,
+                             Function<HealthData.DailyData, List<S>> source,
+                             Predicate<S> valid,
+                             Function<S, T> converter,
+                             BiConsumer<BiometricData, List<T>> target,
+                             ToIntFunction<S> samples) {
+        this.type = type;
+        this.source = source;
+        this.valid = valid;
+        this.converter = converter;
+        this.target = target;
+        this.samples = samples;
+    }
+
+    @Override
+    public String type() {
+        return type;
+    }
+
+    @Override
+    public void handle(HealthData.DailyData day, BiometricData data, IngestSummary.RecordCounts counts) {
+        List<S> records = source.apply(day);
+        if (records == null) {
+            return;
+        }
+        List<T> converted = new ArrayList<>(records.size());
+        int rejected = 0;
+        long sampleCount = 0;
+        for (S record : records) {
+            if (record == null || !valid.test(record)) {
+                rejected++;
+                continue;
+            }
+            converted.add(converter.apply(record));
+            if (samples != null) {
+                sampleCount += samples.applyAsInt(record);
+            }
+        }
+        target.accept(data, converted);
+
+        counts.setAccepted(counts.getAccepted() + converted.size());
+        counts.setRejected(counts.getRejected() + rejected);
+        counts.setSamples(counts.getSamples() + sampleCount);
+    }
+}
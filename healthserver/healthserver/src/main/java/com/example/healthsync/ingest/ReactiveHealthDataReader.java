@@ -0,0 +1,241 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.WireFormatConfig;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.model.HealthData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Équivalent non bloquant de HealthDataStreamReader pour la variante WebFlux :
+ * les morceaux du corps (DataBuffer) alimentent un parser Jackson asynchrone et
+ * chaque élément de "dailyData" est émis dès que son objet est complet.
+ * Aucun thread n'attend les octets d'un upload lent ; la mémoire dépend du plus gros jour.
+ * Mêmes limites (taille, jours, enregistrements et échantillons par jour).
+ * Les formats sans parser asynchrone (CBOR) sont agrégés puis lus par HealthDataStreamReader.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveHealthDataReader {
+
+    private static final String DAILY_DATA = "dailyData";
+
+    private final ObjectMapper objectMapper;
+    private final IngestProperties properties;
+    private final HealthDataStreamReader streamReader;
+
+    private final JsonFactory cborFactory = new CBORFactory();
+    private final JsonFactory smileFactory = new SmileFactory();
+
+    public Flux<HealthData.DailyData> read(Flux<DataBuffer> body, MediaType contentType) {
+        JsonFactory factory = factoryFor(contentType);
+        if (!factory.canParseAsync()) {
+            return readAggregated(body, contentType);
+        }
+        return Flux.defer(() -> {
+            DayTokenizer tokenizer = new DayTokenizer(factory);
+            return body.concatMapIterable(tokenizer::feed)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.end())))
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    private Flux<HealthData.DailyData> readAggregated(Flux<DataBuffer> body, MediaType contentType) {
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, properties.getMaxPayloadBytes());
+        return DataBufferUtils.join(body, maxBytes)
+                .onErrorMap(DataBufferLimitException.class, e -> new IngestLimitExceededException(
+                        "Payload trop volumineux: limite de " + maxBytes + " octets dépassée"))
+                .flatMapIterable(buffer -> {
+                    List<HealthData.DailyData> days = new ArrayList<>();
+                    try (InputStream in = buffer.asInputStream(true)) {
+                        streamReader.read(in, contentType, days::add);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return days;
+                });
+    }
+
+    private JsonFactory factoryFor(MediaType contentType) {
+        if (contentType == null) {
+            return objectMapper.getFactory();
+        }
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborFactory;
+        }
+        if (WireFormatConfig.APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileFactory;
+        }
+        return objectMapper.getFactory();
+    }
+
+    /**
+     * Automate sur les tokens du parser asynchrone : profondeur 1 = objet racine,
+     * profondeur 2 = tableau dailyData (ou valeur ignorée), au-delà = intérieur d'un jour.
+     * Les tokens d'un jour sont copiés dans un TokenBuffer puis désérialisés d'un bloc.
+     */
+    private final class DayTokenizer {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        private long bytes;
+        private int depth;
+        private boolean started;
+        private boolean inDailyData;
+        private String field;
+        private TokenBuffer day;
+        private int days;
+
+        DayTokenizer(JsonFactory factory) {
+            try {
+                parser = factory.createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<HealthData.DailyData> feed(DataBuffer buffer) {
+            try {
+                int size = buffer.readableByteCount();
+                bytes += size;
+                if (bytes > properties.getMaxPayloadBytes()) {
+                    throw new IngestLimitExceededException(
+                            "Payload trop volumineux: limite de " + properties.getMaxPayloadBytes() + " octets dépassée");
+                }
+                byte[] chunk = new byte[size];
+                buffer.read(chunk);
+                feeder.feedInput(chunk, 0, size);
+                return drain();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Format de données invalide: " + e.getMessage(), e);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        List<HealthData.DailyData> end() {
+            feeder.endOfInput();
+            try {
+                List<HealthData.DailyData> last = drain();
+                if (!started || depth != 0) {
+                    throw new IllegalArgumentException("Format de données invalide: payload incomplet");
+                }
+                return last;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Format de données invalide: " + e.getMessage(), e);
+            }
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // parser en mémoire : rien à libérer
+            }
+        }
+
+        private List<HealthData.DailyData> drain() throws IOException {
+            List<HealthData.DailyData> complete = List.of();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (day != null) {
+                    day.copyCurrentEvent(parser);
+                    track(token);
+                    if (depth == 2) {
+                        if (complete.isEmpty()) {
+                            complete = new ArrayList<>();
+                        }
+                        complete.add(readDay());
+                    }
+                } else if (!started) {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IllegalArgumentException("Format de données invalide: objet JSON attendu");
+                    }
+                    started = true;
+                    depth = 1;
+                } else if (depth == 1) {
+                    rootToken(token);
+                } else if (depth == 2 && inDailyData) {
+                    dailyDataToken(token);
+                } else {
+                    track(token);
+                }
+            }
+            return complete;
+        }
+
+        private void rootToken(JsonToken token) throws IOException {
+            if (token == JsonToken.FIELD_NAME) {
+                field = parser.currentName();
+            } else if (token == JsonToken.END_OBJECT) {
+                depth = 0;
+            } else if (DAILY_DATA.equals(field) && token == JsonToken.START_ARRAY) {
+                inDailyData = true;
+                depth = 2;
+            } else if (DAILY_DATA.equals(field) && token != JsonToken.VALUE_NULL) {
+                throw new IllegalArgumentException("Format de données invalide: dailyData doit être un tableau");
+            } else {
+                track(token);
+            }
+        }
+
+        private void dailyDataToken(JsonToken token) throws IOException {
+            if (token == JsonToken.END_ARRAY) {
+                inDailyData = false;
+                depth = 1;
+            } else if (token == JsonToken.START_OBJECT) {
+                if (++days > properties.getMaxDays()) {
+                    throw new IngestLimitExceededException(
+                            "Trop de jours dans le payload (max " + properties.getMaxDays() + ")");
+                }
+                day = new TokenBuffer(parser);
+                day.copyCurrentEvent(parser);
+                depth = 3;
+            } else {
+                throw new IllegalArgumentException("Format de données invalide: élément de dailyData non objet");
+            }
+        }
+
+        private void track(JsonToken token) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+
+        private HealthData.DailyData readDay() throws IOException {
+            TokenBuffer tokens = day;
+            day = null;
+            try (JsonParser buffered = tokens.asParser(objectMapper)) {
+                buffered.nextToken();
+                JsonParser dayParser = new DayLimitingParser(buffered,
+                        properties.getMaxRecordsPerDay(), properties.getMaxSamplesPerDay());
+                return objectMapper.readValue(dayParser, HealthData.DailyData.class);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+
+/**
+ * Traitement d'un type d'enregistrement (pas, HR, sommeil...) lors de l'unique passage
+ * de l'{@link IngestEngine} sur un jour : validation, conversion et comptage.
+ * Chaque handler est un bean ; en ajouter un suffit pour prendre en charge un nouveau type.
+ */
+public interface RecordHandler {
+
+    /**
+     * Nom du type, identique au champ de BiometricData ("steps", "heartRate"...)
+     */
+    String type();
+
+    /**
+     * Valide et convertit les enregistrements de ce type de source vers target.
+     * Les enregistrements invalides sont ignorés et comptés rejetés.
+     */
+    void handle(HealthData.DailyData source, BiometricData target, IngestSummary.RecordCounts counts);
+}
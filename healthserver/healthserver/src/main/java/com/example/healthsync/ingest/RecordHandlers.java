@@ -0,0 +1,140 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Handlers des types d'enregistrements envoyés par l'app Android.
+ * Règles de validation : horodatage présent et valeur physiquement plausible.
+ */
+@Configuration
+public class RecordHandlers {
+
+    @Bean
+    @Order(1)
+    public RecordHandler stepsHandler() {
+        return new ListRecordHandler<HealthData.StepRecord, BiometricData.StepRecord>("steps",
+                HealthData.DailyData::getSteps,
+                s -> s.getStartTime() != null && s.getCount() != null && s.getCount() >= 0,
+                s -> new BiometricData.StepRecord(s.getCount(), s.getStartTime(), s.getEndTime(), s.getDataOrigin()),
+                BiometricData::setSteps);
+    }
+
+    @Bean
+    @Order(2)
+    public RecordHandler heartRateHandler() {
+        return new ListRecordHandler<HealthData.HeartRateRecord, BiometricData.HeartRateRecord>("heartRate",
+                HealthData.DailyData::getHeartRate,
+                hr -> hr.getStartTime() != null && hr.getSamples() != null && !hr.getSamples().isEmpty(),
+                hr -> new BiometricData.HeartRateRecord(hr.getSamples(), hr.getStartTime(), hr.getEndTime(),
+                        hr.getDataOrigin()),
+                BiometricData::setHeartRate,
+                hr -> hr.getSamples().size());
+    }
+
+    @Bean
+    @Order(3)
+    public RecordHandler distanceHandler() {
+        return new ListRecordHandler<HealthData.DistanceRecord, BiometricData.DistanceRecord>("distance",
+                HealthData.DailyData::getDistance,
+                d -> d.getStartTime() != null && d.getDistanceMeters() != null && d.getDistanceMeters() >= 0,
+                d -> new BiometricData.DistanceRecord(d.getDistanceMeters(), d.getStartTime(), d.getEndTime(),
+                        d.getDataOrigin()),
+                BiometricData::setDistance);
+    }
+
+    @Bean
+    @Order(4)
+    public RecordHandler sleepHandler() {
+        return new ListRecordHandler<HealthData.SleepRecord, BiometricData.SleepRecord>("sleep",
+                HealthData.DailyData::getSleep,
+                s -> s.getStartTime() != null && s.getEndTime() != null,
+                s -> new BiometricData.SleepRecord(s.getTitle(), s.getStartTime(), s.getEndTime(), s.getDurationMinutes()),
+                BiometricData::setSleep);
+    }
+
+    @Bean
+    @Order(5)
+    public RecordHandler exerciseHandler() {
+        return new ListRecordHandler<HealthData.ExerciseRecord, BiometricData.ExerciseRecord>("exercise",
+                HealthData.DailyData::getExercise,
+                e -> e.getStartTime() != null,
+                e -> new BiometricData.ExerciseRecord(
+                        e.getTitle(), e.getExerciseType(), e.getExerciseTypeName(),
+                        e.getStartTime(), e.getEndTime(), e.getDurationMinutes(),
+                        e.getSteps(), e.getDistanceMeters(), e.getDistanceKm(),
+                        e.getActiveCalories(), e.getTotalCalories(),
+                        e.getAvgHeartRate(), e.getMinHeartRate(), e.getMaxHeartRate(),
+                        e.getAvgCadence(), e.getMinCadence(), e.getMaxCadence(),
+                        e.getAvgSpeedKmh(), e.getMaxSpeedKmh(), e.getMinSpeedKmh(),
+                        e.getAvgStrideLengthMeters(), e.getMinStrideLengthMeters(), e.getMaxStrideLengthMeters(),
+                        e.getAvgPowerWatts()),
+                BiometricData::setExercise);
+    }
+
+    @Bean
+    @Order(6)
+    public RecordHandler oxygenSaturationHandler() {
+        return new ListRecordHandler<HealthData.OxygenSaturationRecord, BiometricData.OxygenSaturationRecord>("oxygenSaturation",
+                HealthData.DailyData::getOxygenSaturation,
+                o2 -> o2.getTime() != null && o2.getPercentage() != null
+                        && o2.getPercentage() > 0 && o2.getPercentage() <= 100,
+                o2 -> new BiometricData.OxygenSaturationRecord(o2.getPercentage(), o2.getTime()),
+                BiometricData::setOxygenSaturation);
+    }
+
+    @Bean
+    @Order(7)
+    public RecordHandler bodyTemperatureHandler() {
+        return new ListRecordHandler<HealthData.BodyTemperatureRecord, BiometricData.BodyTemperatureRecord>("bodyTemperature",
+                HealthData.DailyData::getBodyTemperature,
+                t -> t.getTime() != null && t.getTemperature() != null
+                        && t.getTemperature() >= 25 && t.getTemperature() <= 45,
+                t -> new BiometricData.BodyTemperatureRecord(t.getTemperature(), t.getTime()),
+                BiometricData::setBodyTemperature);
+    }
+
+    @Bean
+    @Order(8)
+    public RecordHandler bloodPressureHandler() {
+        return new ListRecordHandler<HealthData.BloodPressureRecord, BiometricData.BloodPressureRecord>("bloodPressure",
+                HealthData.DailyData::getBloodPressure,
+                bp -> bp.getTime() != null && bp.getSystolic() != null && bp.getDiastolic() != null
+                        && bp.getSystolic() > 0 && bp.getDiastolic() > 0,
+                bp -> new BiometricData.BloodPressureRecord(bp.getSystolic(), bp.getDiastolic(), bp.getTime()),
+                BiometricData::setBloodPressure);
+    }
+
+    @Bean
+    @Order(9)
+    public RecordHandler weightHandler() {
+        return new ListRecordHandler<HealthData.WeightRecord, BiometricData.WeightRecord>("weight",
+                HealthData.DailyData::getWeight,
+                w -> w.getTime() != null && w.getWeight() != null && w.getWeight() > 0,
+                w -> new BiometricData.WeightRecord(w.getWeight(), w.getTime()),
+                BiometricData::setWeight);
+    }
+
+    @Bean
+    @Order(10)
+    public RecordHandler heightHandler() {
+        return new ListRecordHandler<HealthData.HeightRecord, BiometricData.HeightRecord>("height",
+                HealthData.DailyData::getHeight,
+                h -> h.getTime() != null && h.getHeight() != null && h.getHeight() > 0,
+                h -> new BiometricData.HeightRecord(h.getHeight(), h.getTime()),
+                BiometricData::setHeight);
+    }
+
+    @Bean
+    @Order(11)
+    public RecordHandler hydrationHandler() {
+        return new ListRecordHandler<HealthData.HydrationRecord, BiometricData.HydrationRecord>("hydration",
+                HealthData.DailyData::getHydration,
+                h -> h.getTime() != null && h.getVolumeMl() != null && h.getVolumeMl() >= 0,
+                h -> new BiometricData.HydrationRecord(h.getVolumeMl(), h.getTime()),
+                BiometricData::setHydration);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.healthsync.migration;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point de reprise d'une migration par lots (dernier _id traité)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "migration_checkpoints")
+public class MigrationCheckpoint {
+
+    @Id
+    private String name;
+
+    private String lastId;
+
+    private long migrated;
+
+    private boolean completed;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.example.healthsync.migration;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MigrationCheckpointRepository extends MongoRepository<MigrationCheckpoint, String> {
+}
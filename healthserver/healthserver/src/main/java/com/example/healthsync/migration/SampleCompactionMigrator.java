@@ -0,0 +1,73 @@
+package com.example.healthsync.migration;
+
+import com.example.healthsync.model.BiometricData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Migration des documents existants vers les échantillons HR compacts.
+ * Chaque lot ne sélectionne que des documents encore au format tableau :
+ * la migration est idempotente et reprend naturellement là où elle s'est arrêtée.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SampleCompactionMigrator {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @return le nombre de documents migrés dans ce lot (0 = migration terminée)
+     */
+    public int migrateBatch(int batchSize) {
+        Query query = Query.query(Criteria.where("heartRate.samples").exists(true))
+                .with(Sort.by("_id"))
+                .limit(batchSize);
+        query.fields().include("heartRate");
+
+        List<BiometricData> batch = mongoTemplate.find(query, BiometricData.class);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+        for (BiometricData doc : batch) {
+            doc.getHeartRate().forEach(BiometricData.HeartRateRecord::pack);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(doc.getId())),
+                    new Update().set("heartRate", doc.getHeartRate()));
+        }
+        bulk.execute();
+
+        log.info("🗜️ Compaction HR: {} documents migrés", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Exécute au plus maxBatches lots
+     * @return le nombre total de documents migrés
+     */
+    public int migrate(int batchSize, int maxBatches) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int migrated = migrateBatch(batchSize);
+            if (migrated == 0) {
+                break;
+            }
+            total += migrated;
+        }
+        return total;
+    }
+
+    public long remaining() {
+        return mongoTemplate.count(Query.query(Criteria.where("heartRate.samples").exists(true)), BiometricData.class);
+    }
+}
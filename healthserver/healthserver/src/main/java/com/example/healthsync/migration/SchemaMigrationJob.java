@@ -0,0 +1,32 @@
+package com.example.healthsync.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration v2 en arrière-plan : un lot par intervalle, pour ne pas concurrencer l'ingestion
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "healthsync.migration.schema-v2.enabled", havingValue = "true")
+public class SchemaMigrationJob {
+
+    private final SchemaV2Migrator migrator;
+
+    @Value("${healthsync.migration.schema-v2.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${healthsync.migration.schema-v2.interval-ms:5000}")
+    public void runBatch() {
+        try {
+            migrator.migrateBatch(batchSize);
+        } catch (Exception e) {
+            log.error("❌ Migration schéma v2 interrompue (reprise au prochain lot): {}", e.getMessage());
+        }
+    }
+}
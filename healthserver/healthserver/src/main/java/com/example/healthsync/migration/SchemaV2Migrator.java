@@ -0,0 +1,116 @@
+package com.example.healthsync.migration;
+
+import com.example.healthsync.model.BiometricData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration de biometric_data vers le schéma v2 (valeurs numériques en double).
+ * La conversion est faite dans MongoDB (update pipeline avec $convert), par lots
+ * triés par _id ; le dernier _id traité est sauvegardé pour reprendre après un redémarrage.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchemaV2Migrator {
+
+    static final String NAME = "biometric-schema-v2";
+
+    private static final List<String> DAY_FIELDS = List.of(
+            "totalDistanceKm", "totalSleepHours", "totalHydrationLiters");
+    private static final List<String> EXERCISE_FIELDS = List.of(
+            "distanceKm", "avgSpeedKmh", "maxSpeedKmh", "minSpeedKmh",
+            "avgStrideLengthMeters", "minStrideLengthMeters", "maxStrideLengthMeters");
+
+    private final MongoTemplate mongoTemplate;
+    private final MigrationCheckpointRepository checkpointRepository;
+
+    /**
+     * @return le nombre de documents migrés dans ce lot (0 = migration terminée)
+     */
+    public int migrateBatch(int batchSize) {
+        MigrationCheckpoint checkpoint = checkpointRepository.findById(NAME)
+                .orElseGet(() -> new MigrationCheckpoint(NAME, null, 0, false, null));
+        if (checkpoint.isCompleted()) {
+            return 0;
+        }
+
+        Criteria criteria = Criteria.where("schemaVersion").ne(BiometricData.SCHEMA_VERSION);
+        if (checkpoint.getLastId() != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(checkpoint.getLastId()));
+        }
+        Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+        query.fields().include("_id");
+
+        List<ObjectId> ids = new ArrayList<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, collection())) {
+            ids.add(doc.getObjectId("_id"));
+        }
+
+        if (ids.isEmpty()) {
+            checkpoint.setCompleted(true);
+        } else {
+            mongoTemplate.getCollection(collection()).updateMany(
+                    new Document("_id", new Document("$in", ids)),
+                    List.of(new Document("$set", conversion())));
+            checkpoint.setLastId(ids.get(ids.size() - 1).toHexString());
+            checkpoint.setMigrated(checkpoint.getMigrated() + ids.size());
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+
+        log.info("🔢 Migration schéma v2: {} documents (total {}){}", ids.size(), checkpoint.getMigrated(),
+                checkpoint.isCompleted() ? " ✅ terminée" : "");
+        return ids.size();
+    }
+
+    public MigrationCheckpoint status() {
+        return checkpointRepository.findById(NAME)
+                .orElseGet(() -> new MigrationCheckpoint(NAME, null, 0, false, null));
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(BiometricData.class);
+    }
+
+    /**
+     * $set du pipeline : chaque champ chaîne est converti en double (null si illisible)
+     */
+    private static Document conversion() {
+        Document set = new Document();
+        for (String field : DAY_FIELDS) {
+            set.append(field, toDouble("$" + field));
+        }
+
+        Document exerciseFields = new Document();
+        for (String field : EXERCISE_FIELDS) {
+            exerciseFields.append(field, toDouble("$$e." + field));
+        }
+        Document mapExercise = new Document("$map", new Document("input", "$exercise")
+                .append("as", "e")
+                .append("in", new Document("$mergeObjects", List.of("$$e", exerciseFields))));
+        set.append("exercise", new Document("$cond", List.of(
+                new Document("$isArray", "$exercise"), mapExercise, "$exercise")));
+
+        set.append("schemaVersion", BiometricData.SCHEMA_VERSION);
+        return set;
+    }
+
+    private static Document toDouble(String expression) {
+        return new Document("$convert", new Document("input", expression)
+                .append("to", "double")
+                .append("onError", null)
+                .append("onNull", null));
+    }
+}
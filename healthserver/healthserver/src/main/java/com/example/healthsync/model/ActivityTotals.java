@@ -0,0 +1,19 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totaux distance / sommeil d'un utilisateur sur une plage de dates, calculés par MongoDB
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityTotals {
+    private int days;
+    private Double totalDistanceKm;
+    private Double avgDistanceKm;
+    private Double totalSleepHours;
+    private Double avgSleepHours;
+}
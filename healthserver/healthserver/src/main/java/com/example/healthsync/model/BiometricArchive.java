@@ -0,0 +1,44 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mois archivé d'un utilisateur : les documents jour de biometric_data sont remplacés par
+ * un document par (userId, mois), avec les agrégats lisibles par MongoDB et les documents
+ * complets compressés
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "biometric_archive")
+@CompoundIndex(name = "user_month_idx", def = "{'userId': 1, 'month': 1}", unique = true)
+public class BiometricArchive {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String month;  // "2025-10"
+
+    private String firstDate;
+    private String lastDate;
+    private int days;
+
+    // Agrégats de chaque jour, plus exercice et SpO2 (peu volumineux, lus par /stats)
+    private List<BiometricData> summaries;
+
+    // Documents jour complets (BSON concaténés, échantillons compris), compressés zstd
+    private byte[] payload;
+    private long rawBytes;
+
+    private LocalDateTime archivedAt;
+}
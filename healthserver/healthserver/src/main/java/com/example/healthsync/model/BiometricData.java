@@ -1,20 +1,34 @@
 package com.example.healthsync.model;
 
+import com.example.healthsync.util.SampleCodec;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "biometric_data")
+@CompoundIndexes({
+        // Unique : sert aussi le tri et la pagination par date, sans tri en mémoire
+        @CompoundIndex(name = "user_date_idx", def = "{'userId': 1, 'date': 1}", unique = true)
+})
 public class BiometricData {
 
+    // Version du schéma : 2 = valeurs numériques typées (1 ou absent = chaînes héritées)
+    public static final int SCHEMA_VERSION = 2;
+
     @Id
     private String id;  // MongoDB génère automatiquement
 
@@ -24,14 +38,18 @@ public class BiometricData {
 
     private String date;  // Date des données (format: "2025-10-30")
 
+    private Integer schemaVersion;
+
+    private String contentHash;  // SHA-256 du contenu canonique du jour (hors receivedAt)
+
     // ✅ TOUTES LES DONNÉES AGRÉGÉES
     private Integer totalSteps;
     private Integer avgHeartRate;
     private Integer minHeartRate;
     private Integer maxHeartRate;
-    private String totalDistanceKm;
-    private String totalSleepHours;
-    private String totalHydrationLiters;
+    private Double totalDistanceKm;
+    private Double totalSleepHours;
+    private Double totalHydrationLiters;
     private String stressLevel;
     private Integer stressScore;
 
@@ -48,6 +66,11 @@ public class BiometricData {
     private List<HeightRecord> height;
     private List<HydrationRecord> hydration;
 
+    // Enregistrements reçus puis rognés ou retirés par la fusion des chevauchements ("type|début|fin") :
+    // un renvoi de l'original en synchronisation delta est reconnu comme doublon. Stocké, pas exposé.
+    @JsonIgnore
+    private List<String> mergedRecords;
+
     // ✅ Classes internes identiques à HealthData
 
     @Data
@@ -57,15 +80,85 @@ public class BiometricData {
         private Long count;
         private String startTime;
         private String endTime;
+
+        // App source Health Connect (package), absente des anciens clients
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String dataOrigin;
+
+        public StepRecord(Long count, String startTime, String endTime) {
+            this(count, startTime, endTime, null);
+        }
     }
 
     @Data
     @NoArgsConstructor
-    @AllArgsConstructor
     public static class HeartRateRecord {
         private List<Long> samples;
         private String startTime;
         private String endTime;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String dataOrigin;
+
+        // Échantillons encodés par SampleCodec (mode compact) : samples est alors null
+        @JsonIgnore
+        private byte[] packedSamples;
+
+        public HeartRateRecord(List<Long> samples, String startTime, String endTime) {
+            this(samples, startTime, endTime, null);
+        }
+
+        public HeartRateRecord(List<Long> samples, String startTime, String endTime, String dataOrigin) {
+            this.samples = samples;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.dataOrigin = dataOrigin;
+        }
+
+        /**
+         * Échantillons en liste (compatibilité JSON), décodés seulement si demandés
+         */
+        public List<Long> getSamples() {
+            if (samples == null && packedSamples != null) {
+                long[] decoded = SampleCodec.decode(packedSamples);
+                List<Long> boxed = new ArrayList<>(decoded.length);
+                for (long sample : decoded) {
+                    boxed.add(sample);
+                }
+                return boxed;
+            }
+            return samples;
+        }
+
+        /**
+         * Échantillons en tableau primitif, sans objet par échantillon
+         */
+        public long[] sampleArray() {
+            if (packedSamples != null) {
+                return SampleCodec.decode(packedSamples);
+            }
+            if (samples == null) {
+                return new long[0];
+            }
+            long[] values = new long[samples.size()];
+            int count = 0;
+            for (Long sample : samples) {
+                if (sample != null) {
+                    values[count++] = sample;
+                }
+            }
+            return count == values.length ? values : Arrays.copyOf(values, count);
+        }
+
+        /**
+         * Passe en stockage compact (no-op si déjà compact ou vide)
+         */
+        public void pack() {
+            if (samples != null) {
+                packedSamples = SampleCodec.encode(samples);
+                samples = null;
+            }
+        }
     }
 
     @Data
@@ -75,6 +168,13 @@ public class BiometricData {
         private Double distanceMeters;
         private String startTime;
         private String endTime;
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String dataOrigin;
+
+        public DistanceRecord(Double distanceMeters, String startTime, String endTime) {
+            this(distanceMeters, startTime, endTime, null);
+        }
     }
 
     @Data
@@ -101,7 +201,7 @@ public class BiometricData {
         // Métriques de performance
         private Long steps;
         private Double distanceMeters;
-        private String distanceKm;
+        private Double distanceKm;
 
         // Calories
         private Integer activeCalories;
@@ -118,14 +218,14 @@ public class BiometricData {
         private Integer maxCadence;
 
         // Vitesse
-        private String avgSpeedKmh;
-        private String maxSpeedKmh;
-        private String minSpeedKmh;
+        private Double avgSpeedKmh;
+        private Double maxSpeedKmh;
+        private Double minSpeedKmh;
 
         // Longueur de foulée
-        private String avgStrideLengthMeters;
-        private String minStrideLengthMeters;
-        private String maxStrideLengthMeters;
+        private Double avgStrideLengthMeters;
+        private Double minStrideLengthMeters;
+        private Double maxStrideLengthMeters;
 
         // Puissance
         private Integer avgPowerWatts;
@@ -0,0 +1,18 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de l'historique d'un utilisateur. nextCursor (opaque) est absent sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BiometricPage {
+    private List<BiometricData> items;
+    private String nextCursor;
+}
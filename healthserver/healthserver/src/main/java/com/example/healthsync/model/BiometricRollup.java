@@ -0,0 +1,45 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Agrégat hebdomadaire ou mensuel d'un utilisateur, recalculé à l'ingestion
+ * depuis les jours du bucket (voir RollupService).
+ * Les sommes sont stockées ; moyennes, min et max sont calculés à la lecture.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "biometric_rollups")
+@CompoundIndex(name = "user_period_start_idx", def = "{'userId': 1, 'period': 1, 'start': 1}")
+public class BiometricRollup {
+
+    @Id
+    private String id;  // userId:WEEK:2025-W44
+
+    private String userId;
+    private RollupPeriod period;
+    private String bucket;  // "2025-W44", "2025-10"
+    private String start;   // premier jour du bucket (format "2025-10-27")
+
+    private int days;
+    private long steps;
+    private long heartRateSum;  // somme des FC moyennes journalières
+    private int heartRateDays;
+    private double sleepHours;
+    private double distanceKm;
+    private double hydrationLiters;
+
+    // Min/max ne se soustraient pas : valeur par jour, réduite à la lecture
+    private Map<String, Integer> heartRateMinByDay = new HashMap<>();
+    private Map<String, Integer> heartRateMaxByDay = new HashMap<>();
+
+    private LocalDateTime updatedAt;
+}
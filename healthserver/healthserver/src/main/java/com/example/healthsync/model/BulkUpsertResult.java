@@ -0,0 +1,28 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Résultat d'un upsert groupé sur la clé (userId, date)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpsertResult {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    // Position, dans le lot, des documents créés (permet d'attribuer les insertions)
+    private List<Integer> upsertedIndexes = List.of();
+
+    public BulkUpsertResult(int inserted, int updated, int unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+    }
+}
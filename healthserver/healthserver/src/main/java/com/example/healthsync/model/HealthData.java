@@ -20,9 +20,9 @@ public class HealthData {
         private Integer maxHeartRate;
         private Integer avgHeartRate;
         private List<DistanceRecord> distance;
-        private String totalDistanceKm;
+        private Double totalDistanceKm;
         private List<SleepRecord> sleep;
-        private String totalSleepHours;
+        private Double totalSleepHours;
         private List<ExerciseRecord> exercise;
         private List<OxygenSaturationRecord> oxygenSaturation;
         private List<BodyTemperatureRecord> bodyTemperature;
@@ -30,7 +30,7 @@ public class HealthData {
         private List<WeightRecord> weight;
         private List<HeightRecord> height;
         private List<HydrationRecord> hydration;
-        private String totalHydrationLiters;
+        private Double totalHydrationLiters;
         private String stressLevel;
         private Integer stressScore;
     }
@@ -40,6 +40,7 @@ public class HealthData {
         private Long count;
         private String startTime;
         private String endTime;
+        private String dataOrigin;  // Package de l'app source (metadata.dataOrigin Health Connect)
     }
 
     @Data
@@ -47,6 +48,7 @@ public class HealthData {
         private List<Long> samples;
         private String startTime;
         private String endTime;
+        private String dataOrigin;
     }
 
     @Data
@@ -54,6 +56,7 @@ public class HealthData {
         private Double distanceMeters;
         private String startTime;
         private String endTime;
+        private String dataOrigin;
     }
 
     @Data
@@ -76,7 +79,7 @@ public class HealthData {
         // Métriques de performance
         private Long steps;
         private Double distanceMeters;
-        private String distanceKm;
+        private Double distanceKm;
 
         // Calories
         private Integer activeCalories;
@@ -93,14 +96,14 @@ public class HealthData {
         private Integer maxCadence;
 
         // Vitesse (COMPLET: min/max/avg)
-        private String avgSpeedKmh;
-        private String maxSpeedKmh;
-        private String minSpeedKmh;
+        private Double avgSpeedKmh;
+        private Double maxSpeedKmh;
+        private Double minSpeedKmh;
 
         // Longueur de foulée (COMPLET: min/max/avg)
-        private String avgStrideLengthMeters;
-        private String minStrideLengthMeters;
-        private String maxStrideLengthMeters;
+        private Double avgStrideLengthMeters;
+        private Double minStrideLengthMeters;
+        private Double maxStrideLengthMeters;
 
         // Puissance (cyclisme)
         private Integer avgPowerWatts;
@@ -0,0 +1,33 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Série HR sous-échantillonnée pour un graphique : points retenus par LTTB
+ * et enveloppe min/max des échantillons bruts de chaque bucket
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeartRateChart {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int rawSamples;  // nombre d'échantillons bruts sur la plage
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDateTime time;
+        private int bpm;
+        private int min;
+        private int max;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point (heure, bpm) renvoyé par les lectures par plage de temps
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeartRatePoint {
+    private LocalDateTime time;
+    private int bpm;
+}
@@ -0,0 +1,35 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un échantillon de fréquence cardiaque dans la collection time-series
+ * (metaField = userId, timeField = timestamp). record relie l'échantillon à son HeartRateRecord
+ * ({@link com.example.healthsync.storage.HeartRateStore#recordKey}) ; absent des échantillons plus anciens.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "heart_rate_samples")
+@TimeSeries(timeField = "timestamp", metaField = "userId", granularity = Granularity.SECONDS)
+public class HeartRateSample {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private LocalDateTime timestamp;
+
+    private Integer bpm;
+
+    private String record;
+}
@@ -0,0 +1,40 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Résumé d'une ingestion : compteurs uniquement, jamais les documents complets
+ */
+@Data
+@NoArgsConstructor
+public class IngestResult {
+    private String userId;
+    private int days;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    // Mode delta : enregistrements réellement ajoutés et ignorés (déjà connus)
+    private int newRecords;
+    private int duplicateRecords;
+
+    // High-water marks par type après cette ingestion
+    private Map<String, String> highWaterMarks;
+
+    // Comptage par type d'enregistrement (IngestEngine)
+    private IngestSummary summary;
+
+    public IngestResult(String userId) {
+        this.userId = userId;
+    }
+
+    public void add(int days, BulkUpsertResult result) {
+        this.days += days;
+        this.inserted += result.getInserted();
+        this.updated += result.getUpdated();
+        this.unchanged += result.getUnchanged();
+    }
+}
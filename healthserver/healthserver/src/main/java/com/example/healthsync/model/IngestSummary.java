@@ -0,0 +1,44 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Résumé du passage de l'IngestEngine sur un payload : jours acceptés ou rejetés et,
+ * par type d'enregistrement, enregistrements acceptés, rejetés et échantillons
+ */
+@Data
+@NoArgsConstructor
+public class IngestSummary {
+
+    private int days;
+    private int rejectedDays;
+    private Map<String, RecordCounts> records = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class RecordCounts {
+        private int accepted;
+        private int rejected;
+        private long samples;  // HR : nombre de bpm reçus
+        private int merged;    // Supprimés ou rognés par la fusion des intervalles qui se chevauchent
+    }
+
+    public RecordCounts countsFor(String type) {
+        return records.computeIfAbsent(type, key -> new RecordCounts());
+    }
+
+    /**
+     * Points de données acceptés, tous types confondus
+     */
+    public int getDataPoints() {
+        int total = 0;
+        for (RecordCounts counts : records.values()) {
+            total += counts.getAccepted();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Suivi d'une ingestion asynchrone (GET /fetch/ingestions/{id})
+ */
+@Data
+@NoArgsConstructor
+public class IngestionStatus {
+
+    public enum State { QUEUED, PROCESSING, DONE, FAILED }
+
+    private String ingestionId;
+    private String userId;
+    private State state;
+    private int days;
+
+    // Jours créés / jours déjà présents (mis à jour ou inchangés) / jours rejetés (date invalide)
+    private int inserted;
+    private int existing;
+    private int rejected;
+
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+
+    public IngestionStatus(String ingestionId, String userId, int days) {
+        this.ingestionId = ingestionId;
+        this.userId = userId;
+        this.days = days;
+        this.state = State.QUEUED;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Copie figée, lisible hors du verrou sous lequel l'écrivain met le statut à jour
+     */
+    public IngestionStatus copy() {
+        IngestionStatus copy = new IngestionStatus();
+        copy.ingestionId = ingestionId;
+        copy.userId = userId;
+        copy.state = state;
+        copy.days = days;
+        copy.inserted = inserted;
+        copy.existing = existing;
+        copy.rejected = rejected;
+        copy.error = error;
+        copy.submittedAt = submittedAt;
+        copy.completedAt = completedAt;
+        return copy;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.healthsync.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dernières valeurs d'un utilisateur pour les tableaux de bord (médecin, patient) :
+ * dernière FC, dernière tension, dernier poids et pas du jour le plus récent reçu.
+ * Un champ est null si aucune mesure n'est connue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatestVitals {
+
+    private String userId;
+    private Reading heartRate;
+    private BloodPressure bloodPressure;
+    private Reading weight;
+    private DailySteps steps;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Reading {
+        private Double value;
+        private String time;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BloodPressure {
+        private Double systolic;
+        private Double diastolic;
+        private String time;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailySteps {
+        private String date;
+        private Integer count;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return heartRate == null && bloodPressure == null && weight == null && steps == null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.healthsync.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Granularité des agrégats : semaine ISO (lundi) ou mois calendaire
+ */
+public enum RollupPeriod {
+    WEEK {
+        @Override
+        public String bucket(LocalDate date) {
+            return String.format("%d-W%02d",
+                    date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+        }
+
+        @Override
+        public LocalDate start(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate end(LocalDate date) {
+            return start(date).plusDays(6);
+        }
+    },
+    MONTH {
+        @Override
+        public String bucket(LocalDate date) {
+            return String.format("%d-%02d", date.getYear(), date.getMonthValue());
+        }
+
+        @Override
+        public LocalDate start(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate end(LocalDate date) {
+            return date.withDayOfMonth(date.lengthOfMonth());
+        }
+    };
+
+    /** Libellé du bucket contenant la date ("2025-W44", "2025-10") */
+    public abstract String bucket(LocalDate date);
+
+    /** Premier jour du bucket contenant la date */
+    public abstract LocalDate start(LocalDate date);
+
+    /** Dernier jour du bucket contenant la date */
+    public abstract LocalDate end(LocalDate date);
+}
@@ -0,0 +1,27 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Agrégat d'une semaine ou d'un mois tel que renvoyé par l'API de tendances
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupView {
+    private RollupPeriod period;
+    private String bucket;
+    private String start;
+    private int days;
+    private long totalSteps;
+    private Long avgSteps;
+    private Integer minHeartRate;
+    private Integer avgHeartRate;
+    private Integer maxHeartRate;
+    private Double totalSleepHours;
+    private Double avgSleepHours;
+    private Double totalDistanceKm;
+    private Double totalHydrationLiters;
+}
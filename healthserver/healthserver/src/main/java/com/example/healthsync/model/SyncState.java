@@ -0,0 +1,30 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * État de synchronisation d'un utilisateur : pour chaque type d'enregistrement,
+ * la fin du dernier enregistrement reçu (high-water mark, format "yyyy-MM-dd HH:mm:ss").
+ * Le client n'envoie ensuite que les enregistrements postérieurs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sync_state")
+public class SyncState {
+
+    @Id
+    private String userId;
+
+    private Map<String, String> highWaterMarks = new HashMap<>();
+
+    private LocalDateTime updatedAt;
+}
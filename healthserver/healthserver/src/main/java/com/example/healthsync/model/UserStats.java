@@ -0,0 +1,52 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Statistiques d'un utilisateur sur une plage de dates, calculées par MongoDB en une agrégation.
+ * Une métrique est null si aucune valeur n'est connue sur la plage.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    private String userId;
+    private String from;  // null = depuis le premier jour
+    private String to;    // null = jusqu'au dernier jour
+
+    private int daysWithData;
+    private String firstDate;
+    private String lastDate;
+
+    private Metric steps;             // pas par jour
+    private Metric heartRate;         // FC moyenne journalière ; min / max = extrêmes des jours
+    private Metric sleepHours;        // heures de sommeil par jour renseigné
+    private Metric oxygenSaturation;  // mesures SpO2 individuelles (%)
+    private List<ExerciseMinutes> exercise;  // par type, minutes décroissantes
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metric {
+        private int count;
+        private Double avg;
+        private Double min;
+        private Double max;
+        private Double p50;  // percentiles approchés ($percentile)
+        private Double p90;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExerciseMinutes {
+        private String type;
+        private int sessions;
+        private long minutes;
+    }
+}
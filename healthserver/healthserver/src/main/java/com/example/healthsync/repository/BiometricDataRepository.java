@@ -4,14 +4,16 @@ import com.example.healthsync.model.BiometricData;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BiometricDataRepository extends MongoRepository<BiometricData, String> {
+public interface BiometricDataRepository extends MongoRepository<BiometricData, String>, BiometricDataRepositoryCustom {
 
     List<BiometricData> findByUserId(String userId);
     Optional<BiometricData> findByUserIdAndDate(String userId, String date);
+    List<BiometricData> findByUserIdAndDateIn(String userId, Collection<String> dates);
     List<BiometricData> findByUserIdOrderByReceivedAtDesc(String userId);
     long countByUserId(String userId);
 }
\ No newline at end of file
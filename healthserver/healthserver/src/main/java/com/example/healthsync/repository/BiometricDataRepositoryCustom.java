@@ -0,0 +1,52 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.ActivityTotals;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.UserStats;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface BiometricDataRepositoryCustom {
+
+    /**
+     * Upsert groupé (un seul aller-retour, non ordonné) sur la clé naturelle (userId, date)
+     */
+    BulkUpsertResult upsertAll(List<BiometricData> days);
+
+    /**
+     * Totaux distance / sommeil entre deux dates incluses ("yyyy-MM-dd"), agrégés dans MongoDB
+     * (mois archivés compris)
+     */
+    ActivityTotals activityTotals(String userId, String fromDate, String toDate);
+
+    /**
+     * Statistiques (moyennes, extrêmes, percentiles, minutes d'exercice par type) entre deux
+     * dates incluses, bornes nulles = non bornées. Une seule agrégation servie par l'index
+     * (userId, date), mois archivés compris : aucun document n'est chargé dans la JVM.
+     */
+    UserStats userStats(String userId, String fromDate, String toDate);
+
+    /**
+     * Page de l'historique triée par date, après afterDate si fournie. La date est unique
+     * par utilisateur et suffit donc à reprendre après le curseur.
+     * Seuls les champs demandés sont renvoyés par MongoDB (tous si fields est vide).
+     */
+    List<BiometricData> findPage(String userId, String fromDate, String toDate, Collection<String> fields,
+                                 String afterDate, int limit);
+
+    /**
+     * Historique trié par date, bornes incluses (null = ouvert), lu au fil d'un curseur
+     * (flux à fermer). Seuls les champs demandés sont lus (tous si fields est vide).
+     */
+    Stream<BiometricData> streamRange(String userId, String fromDate, String toDate, Collection<String> fields);
+
+    /**
+     * Parmi les lookbackDays documents les plus récents, en une agrégation : date et totalSteps
+     * du plus récent, et dernier enregistrement heartRate, bloodPressure et weight de chaque type.
+     * Null si l'utilisateur n'a aucune donnée.
+     */
+    BiometricData findLatestRecords(String userId, int lookbackDays);
+}
@@ -0,0 +1,302 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.model.ActivityTotals;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.UserStats;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class BiometricDataRepositoryCustomImpl implements BiometricDataRepositoryCustom {
+
+    // Jours par getMore d'un curseur de streamRange : mémoire bornée quelle que soit la plage
+    private static final int STREAM_BATCH_SIZE = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexInitializer indexInitializer;
+    private final BiometricDataUpdates updates;
+    private final ArchiveStore archiveStore;
+
+    @Override
+    public BulkUpsertResult upsertAll(List<BiometricData> days) {
+        if (days.isEmpty()) {
+            return new BulkUpsertResult(0, 0, 0);
+        }
+        indexInitializer.ensureIndexes(BiometricData.class);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+        for (BiometricData day : days) {
+            bulk.upsert(updates.key(day), updates.toUpdate(day));
+        }
+        BulkWriteResult result = bulk.execute();
+
+        int inserted = result.getUpserts().size();
+        int updated = result.getModifiedCount();
+        List<Integer> upsertedIndexes = new ArrayList<>(inserted);
+        result.getUpserts().forEach(upsert -> upsertedIndexes.add(upsert.getIndex()));
+        return new BulkUpsertResult(inserted, updated, result.getMatchedCount() - updated, upsertedIndexes);
+    }
+
+    @Override
+    public ActivityTotals activityTotals(String userId, String fromDate, String toDate) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId).and("date").gte(fromDate).lte(toDate)),
+                context -> archiveStore.summaryUnion(userId, fromDate, toDate),
+                Aggregation.group()
+                        .count().as("days")
+                        .sum(toDouble("totalDistanceKm")).as("totalDistanceKm")
+                        .avg(toDouble("totalDistanceKm")).as("avgDistanceKm")
+                        .sum(toDouble("totalSleepHours")).as("totalSleepHours")
+                        .avg(toDouble("totalSleepHours")).as("avgSleepHours"));
+
+        ActivityTotals totals = mongoTemplate.aggregate(aggregation, BiometricData.class, ActivityTotals.class)
+                .getUniqueMappedResult();
+        return totals != null ? totals : new ActivityTotals(0, 0.0, null, 0.0, null);
+    }
+
+    @Override
+    public UserStats userStats(String userId, String fromDate, String toDate) {
+        indexInitializer.ensureIndexes(BiometricData.class);
+
+        // Seuls les champs utiles traversent le pipeline (pas les échantillons détaillés)
+        Document project = new Document("_id", 0)
+                .append("date", 1)
+                .append("steps", convert("$totalSteps", "double"))
+                .append("heartRate", positive(convert("$avgHeartRate", "double")))
+                .append("minHeartRate", positive(convert("$minHeartRate", "double")))
+                .append("maxHeartRate", positive(convert("$maxHeartRate", "double")))
+                .append("sleepHours", positive(convert("$totalSleepHours", "double")))
+                .append("oxygenSaturation", "$oxygenSaturation.percentage")
+                .append("exercise.exerciseTypeName", 1)
+                .append("exercise.exerciseType", 1)
+                .append("exercise.durationMinutes", 1);
+
+        Document days = new Document("_id", null)
+                .append("daysWithData", new Document("$sum", 1))
+                .append("firstDate", new Document("$min", "$date"))
+                .append("lastDate", new Document("$max", "$date"));
+        Document daysShape = new Document("_id", 0)
+                .append("daysWithData", 1)
+                .append("firstDate", 1)
+                .append("lastDate", 1);
+        accumulate(days, daysShape, "steps", "$steps");
+        // FC : percentiles des moyennes journalières, mais extrêmes réels des jours
+        accumulate(days, daysShape, "heartRate", "$heartRate", "$minHeartRate", "$maxHeartRate");
+        accumulate(days, daysShape, "sleepHours", "$sleepHours");
+
+        Document oxygen = new Document("_id", null);
+        Document oxygenShape = new Document("_id", 0);
+        accumulate(oxygen, oxygenShape, "oxygenSaturation", convert("$oxygenSaturation", "double"));
+
+        Document facet = new Document()
+                .append("days", List.of(new Document("$group", days), new Document("$project", daysShape)))
+                .append("oxygen", List.of(
+                        new Document("$unwind", "$oxygenSaturation"),
+                        new Document("$group", oxygen),
+                        new Document("$project", oxygenShape)))
+                .append("exercise", List.of(
+                        new Document("$unwind", "$exercise"),
+                        new Document("$group", new Document("_id", new Document("$ifNull", List.of(
+                                "$exercise.exerciseTypeName",
+                                new Document("$toString", "$exercise.exerciseType"),
+                                "UNKNOWN")))
+                                .append("sessions", new Document("$sum", 1))
+                                .append("minutes", new Document("$sum",
+                                        convert("$exercise.durationMinutes", "long")))),
+                        new Document("$sort", new Document("minutes", -1).append("_id", 1)),
+                        new Document("$project", new Document("_id", 0)
+                                .append("type", "$_id")
+                                .append("sessions", 1)
+                                .append("minutes", 1))));
+
+        // $facet renvoie toujours un document : facettes vides si aucun jour sur la plage
+        Document summary = new Document("$ifNull", List.of(new Document("$first", "$days"), new Document()));
+        Document shape = new Document("daysWithData", new Document("$ifNull", List.of("$$d.daysWithData", 0)))
+                .append("firstDate", "$$d.firstDate")
+                .append("lastDate", "$$d.lastDate")
+                .append("steps", "$$d.steps")
+                .append("heartRate", "$$d.heartRate")
+                .append("sleepHours", "$$d.sleepHours")
+                .append("oxygenSaturation", new Document("$first", "$oxygen.oxygenSaturation"))
+                .append("exercise", "$exercise");
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(userRange(userId, fromDate, toDate)),
+                // Mois archivés : leurs agrégats, exercice et SpO2 sont lisibles sans décompression
+                context -> archiveStore.summaryUnion(userId, fromDate, toDate),
+                context -> new Document("$project", project),
+                context -> new Document("$facet", facet),
+                context -> new Document("$replaceWith", new Document("$let",
+                        new Document("vars", new Document("d", summary)).append("in", shape))));
+
+        UserStats stats = mongoTemplate.aggregate(aggregation, BiometricData.class, UserStats.class)
+                .getUniqueMappedResult();
+        if (stats == null) {
+            stats = new UserStats();
+        }
+        stats.setUserId(userId);
+        stats.setFrom(fromDate);
+        stats.setTo(toDate);
+        return stats;
+    }
+
+    @Override
+    public List<BiometricData> findPage(String userId, String fromDate, String toDate, Collection<String> fields,
+                                        String afterDate, int limit) {
+        indexInitializer.ensureIndexes(BiometricData.class);
+
+        // (userId, date) est unique : la date seule ordonne les documents d'un utilisateur,
+        // le tri et la reprise après le curseur sont servis par user_date_idx
+        Criteria criteria = userRange(userId, fromDate, toDate);
+        if (afterDate != null) {
+            criteria.and("date").gt(afterDate);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by("date"))
+                .limit(limit);
+        if (!fields.isEmpty()) {
+            query.fields().include("userId", "date");
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return mongoTemplate.find(query, BiometricData.class);
+    }
+
+    @Override
+    public Stream<BiometricData> streamRange(String userId, String fromDate, String toDate,
+                                             Collection<String> fields) {
+        indexInitializer.ensureIndexes(BiometricData.class);
+
+        Query query = Query.query(userRange(userId, fromDate, toDate))
+                .with(Sort.by("date"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        if (!fields.isEmpty()) {
+            query.fields().include("userId", "date");
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return mongoTemplate.stream(query, BiometricData.class);
+    }
+
+    @Override
+    public BiometricData findLatestRecords(String userId, int lookbackDays) {
+        indexInitializer.ensureIndexes(BiometricData.class);
+
+        Document group = new Document("_id", null)
+                .append("date", new Document("$first", "$date"))
+                .append("totalSteps", new Document("$first", "$totalSteps"));
+        Document project = new Document("_id", 0)
+                .append("date", 1)
+                .append("totalSteps", 1);
+        for (String field : List.of("heartRate", "bloodPressure", "weight")) {
+            // {date, record} du dernier enregistrement de chaque jour non vide : $max garde le jour le plus récent
+            Document size = new Document("$size", new Document("$ifNull", List.of("$" + field, List.of())));
+            group.append(field, new Document("$max", new Document("$cond", List.of(
+                    new Document("$gt", List.of(size, 0)),
+                    new Document("date", "$date")
+                            .append("record", new Document("$arrayElemAt", List.of("$" + field, -1))),
+                    "$$REMOVE"))));
+            project.append(field, new Document("$cond", List.of(
+                    new Document("$ifNull", List.of("$" + field, false)),
+                    List.of("$" + field + ".record"),
+                    "$$REMOVE")));
+        }
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.sort(Sort.Direction.DESC, "date"),
+                Aggregation.limit(lookbackDays),
+                context -> new Document("$group", group),
+                context -> new Document("$project", project));
+
+        BiometricData latest = mongoTemplate.aggregate(aggregation, BiometricData.class, BiometricData.class)
+                .getUniqueMappedResult();
+        if (latest != null) {
+            latest.setUserId(userId);
+        }
+        return latest;
+    }
+
+    private static void accumulate(Document group, Document shape, String name, Object input) {
+        accumulate(group, shape, name, input, input, input);
+    }
+
+    /**
+     * Ajoute au $group les accumulateurs d'une métrique (ignorant les valeurs nulles) et au
+     * $project suivant sa forme {count, avg, min, max, p50, p90}, absente si aucune valeur
+     */
+    private static void accumulate(Document group, Document shape, String name, Object input,
+                                   Object minInput, Object maxInput) {
+        group.append(name + "Count", new Document("$sum", new Document("$cond",
+                        List.of(new Document("$isNumber", input), 1, 0))))
+                .append(name + "Avg", new Document("$avg", input))
+                .append(name + "Min", new Document("$min", minInput))
+                .append(name + "Max", new Document("$max", maxInput))
+                .append(name + "Pct", new Document("$percentile", new Document("input", input)
+                        .append("p", List.of(0.5, 0.9))
+                        .append("method", "approximate")));
+        shape.append(name, new Document("$cond", List.of(
+                new Document("$gt", List.of("$" + name + "Count", 0)),
+                new Document("count", "$" + name + "Count")
+                        .append("avg", "$" + name + "Avg")
+                        .append("min", "$" + name + "Min")
+                        .append("max", "$" + name + "Max")
+                        .append("p50", new Document("$arrayElemAt", List.of("$" + name + "Pct", 0)))
+                        .append("p90", new Document("$arrayElemAt", List.of("$" + name + "Pct", 1))),
+                "$$REMOVE")));
+    }
+
+    /**
+     * Valeur si strictement positive, sinon null : l'app envoie 0 pour un jour sans mesure
+     */
+    private static Document positive(Object value) {
+        return new Document("$let", new Document("vars", new Document("v", value))
+                .append("in", new Document("$cond", Arrays.asList(
+                        new Document("$gt", List.of("$$v", 0)), "$$v", null))));
+    }
+
+    private static Criteria userRange(String userId, String fromDate, String toDate) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (fromDate != null || toDate != null) {
+            Criteria date = Criteria.where("date");
+            if (fromDate != null) {
+                date.gte(fromDate);
+            }
+            if (toDate != null) {
+                date.lte(toDate);
+            }
+            criteria.andOperator(date);
+        }
+        return criteria;
+    }
+
+    /**
+     * $convert tolérant : accepte les documents v2 (double) et ceux pas encore migrés (chaîne)
+     */
+    private static AggregationExpression toDouble(String field) {
+        return context -> convert("$" + field, "double");
+    }
+
+    private static Document convert(Object input, String type) {
+        return new Document("$convert", new Document("input", input)
+                .append("to", type)
+                .append("onError", null)
+                .append("onNull", null));
+    }
+}
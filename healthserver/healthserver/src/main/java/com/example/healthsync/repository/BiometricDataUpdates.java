@@ -0,0 +1,72 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.BiometricData;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Clé naturelle et update d'un upsert BiometricData sur (userId, date),
+ * partagés par l'écriture bloquante et l'écriture réactive
+ */
+@Component
+@RequiredArgsConstructor
+public class BiometricDataUpdates {
+
+    // Champs gérés à part : clé naturelle, id et date de première réception
+    private static final Set<String> KEY_FIELDS = Set.of("_id", "userId", "date", "receivedAt");
+
+    private final MongoConverter converter;
+
+    private volatile List<String> dataFields;
+
+    public Query key(BiometricData day) {
+        return Query.query(Criteria.where("userId").is(day.getUserId()).and("date").is(day.getDate()));
+    }
+
+    /**
+     * $set des champs présents, $unset des champs absents : un jour renvoyé à l'identique
+     * ne modifie pas le document (compté "unchanged" par MongoDB)
+     */
+    public Update toUpdate(BiometricData day) {
+        Document document = new Document();
+        converter.write(day, document);
+
+        Update update = new Update().setOnInsert("receivedAt", day.getReceivedAt());
+        for (String field : dataFields()) {
+            Object value = document.get(field);
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        }
+        return update;
+    }
+
+    private List<String> dataFields() {
+        List<String> fields = dataFields;
+        if (fields == null) {
+            MongoPersistentEntity<?> entity = converter.getMappingContext()
+                    .getRequiredPersistentEntity(BiometricData.class);
+            fields = new ArrayList<>();
+            for (MongoPersistentProperty property : entity) {
+                if (!KEY_FIELDS.contains(property.getFieldName())) {
+                    fields.add(property.getFieldName());
+                }
+            }
+            dataFields = fields;
+        }
+        return fields;
+    }
+}
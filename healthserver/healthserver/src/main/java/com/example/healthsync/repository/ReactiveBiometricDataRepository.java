@@ -0,0 +1,13 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.BiometricData;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Accès réactif aux documents jour, utilisé par la variante WebFlux (profil "reactive")
+ */
+@Repository
+public interface ReactiveBiometricDataRepository
+        extends ReactiveMongoRepository<BiometricData, String>, ReactiveBiometricDataRepositoryCustom {
+}
@@ -0,0 +1,23 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReactiveBiometricDataRepositoryCustom {
+
+    /**
+     * Upsert groupé non ordonné sur (userId, date), même update que la version bloquante
+     */
+    Mono<BulkUpsertResult> upsertAll(List<BiometricData> days);
+
+    /**
+     * Historique trié par date, bornes incluses ("yyyy-MM-dd", null = ouvert), émis
+     * document par document. Seuls les champs demandés sont lus (tous si fields est vide).
+     */
+    Flux<BiometricData> streamRange(String userId, String fromDate, String toDate, Collection<String> fields);
+}
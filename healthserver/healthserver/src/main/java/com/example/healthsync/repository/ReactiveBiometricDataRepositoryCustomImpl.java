@@ -0,0 +1,82 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReactiveBiometricDataRepositoryCustomImpl implements ReactiveBiometricDataRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MongoIndexInitializer indexInitializer;
+    private final BiometricDataUpdates updates;
+
+    @Override
+    public Mono<BulkUpsertResult> upsertAll(List<BiometricData> days) {
+        if (days.isEmpty()) {
+            return Mono.just(new BulkUpsertResult(0, 0, 0));
+        }
+        return ensureIndexes().then(Mono.defer(() -> {
+            ReactiveBulkOperations bulk = reactiveMongoTemplate.bulkOps(
+                    BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+            for (BiometricData day : days) {
+                bulk.upsert(updates.key(day), updates.toUpdate(day));
+            }
+            return bulk.execute();
+        })).map(result -> {
+            int inserted = result.getUpserts().size();
+            int updated = result.getModifiedCount();
+            List<Integer> upsertedIndexes = new ArrayList<>(inserted);
+            result.getUpserts().forEach(upsert -> upsertedIndexes.add(upsert.getIndex()));
+            return new BulkUpsertResult(inserted, updated, result.getMatchedCount() - updated, upsertedIndexes);
+        });
+    }
+
+    @Override
+    public Flux<BiometricData> streamRange(String userId, String fromDate, String toDate, Collection<String> fields) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (fromDate != null || toDate != null) {
+            Criteria date = Criteria.where("date");
+            if (fromDate != null) {
+                date.gte(fromDate);
+            }
+            if (toDate != null) {
+                date.lte(toDate);
+            }
+            criteria.andOperator(date);
+        }
+
+        Query query = Query.query(criteria).with(Sort.by("date", "_id"));
+        if (!fields.isEmpty()) {
+            query.fields().include("userId", "date");
+            fields.forEach(field -> query.fields().include(field));
+        }
+        return ensureIndexes().thenMany(reactiveMongoTemplate.find(query, BiometricData.class));
+    }
+
+    /**
+     * Création des index via le driver bloquant (une seule fois par collection), hors event loop
+     */
+    private Mono<Void> ensureIndexes() {
+        if (indexInitializer.isInitialized(BiometricData.class)) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> indexInitializer.ensureIndexes(BiometricData.class))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+}
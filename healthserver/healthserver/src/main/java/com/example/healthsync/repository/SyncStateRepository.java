@@ -0,0 +1,9 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.model.SyncState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncStateRepository extends MongoRepository<SyncState, String> {
+}
@@ -0,0 +1,403 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.exception.IngestQueueFullException;
+import com.example.healthsync.exception.IngestUnavailableException;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.model.IngestionStatus;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ingestion asynchrone : la requête est mise en file (202 Accepted) et un écrivain unique
+ * vide la file par micro-lots, tous utilisateurs confondus, en un upsert groupé par lot.
+ * La file est bornée en nombre d'ingestions et en taille mémoire estimée des payloads :
+ * file pleine → IngestQueueFullException (429 côté contrôleur).
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class AsyncIngestService implements SmartLifecycle {
+
+    private final BiometricDataService biometricDataService;
+    private final BiometricDataRepository repository;
+    private final SyncStateService syncStateService;
+    private final HeartRateStore heartRateStore;
+    private final ContentDedupService contentDedupService;
+    private final RollupService rollupService;
+    private final IngestEngine ingestEngine;
+    private final IngestProperties ingestProperties;
+    private final IngestMetrics ingestMetrics;
+    private final LatestVitalsService latestVitalsService;
+
+    // Empreinte mémoire estimée du payload désérialisé (graphe d'objets Java, pas le JSON reçu)
+    private static final long DAY_BYTES = 1024;
+    private static final long RECORD_BYTES = 256;
+    private static final long EXERCISE_BYTES = 768;
+    private static final long SAMPLE_BYTES = 24;
+
+    private BlockingQueue<PendingIngestion> queue;
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private Map<String, IngestionStatus> statuses;
+    private Thread writer;
+    private volatile boolean running;
+    // Positionné par stop() avant running : plus aucun payload accepté
+    private volatile boolean stopped;
+
+    private record PendingIngestion(IngestionStatus status, HealthData payload, long bytes) {
+    }
+
+    /**
+     * Met le payload en file et renvoie une copie de son statut (QUEUED)
+     */
+    public IngestionStatus submit(HealthData healthData, String requestUserId) {
+        if (stopped) {
+            throw new IngestUnavailableException("Ingestion asynchrone arrêtée");
+        }
+        if (healthData.getDailyData() == null || healthData.getDailyData().isEmpty()) {
+            throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
+        }
+        if (healthData.getDailyData().size() > ingestProperties.getMaxDays()) {
+            throw new IllegalArgumentException("Trop de jours dans le payload (max " + ingestProperties.getMaxDays() + ")");
+        }
+
+        long bytes = estimateBytes(healthData);
+        long maxBytes = ingestProperties.getAsync().getQueueMaxBytes();
+        if (bytes > maxBytes) {
+            throw new IngestLimitExceededException("Payload trop volumineux pour la file ("
+                    + bytes + " octets estimés, max " + maxBytes + ")");
+        }
+
+        String userId = biometricDataService.resolveUserId(requestUserId);
+        IngestionStatus status = new IngestionStatus(
+                UUID.randomUUID().toString(), userId, healthData.getDailyData().size());
+
+        if (!reserve(bytes, maxBytes)) {
+            ingestMetrics.queueRejected();
+            throw new IngestQueueFullException("File d'ingestion pleine (" + queuedBytes.get() + " octets en attente)");
+        }
+        IngestionStatus queued = remember(status);
+        PendingIngestion pending = new PendingIngestion(status, healthData, bytes);
+        if (!queue.offer(pending)) {
+            forget(status, bytes);
+            ingestMetrics.queueRejected();
+            throw new IngestQueueFullException("File d'ingestion pleine (" + queue.size() + " en attente)");
+        }
+        // Arrêt pendant la mise en file : l'écrivain a pu finir de vider la file avant l'offer.
+        // Retiré ici, le payload est refusé ; sinon l'écrivain l'a déjà pris et l'écrit.
+        if (stopped && queue.remove(pending)) {
+            forget(status, bytes);
+            throw new IngestUnavailableException("Ingestion asynchrone arrêtée");
+        }
+        return queued;
+    }
+
+    private void forget(IngestionStatus status, long bytes) {
+        queuedBytes.addAndGet(-bytes);
+        synchronized (statuses) {
+            statuses.remove(status.getIngestionId());
+        }
+    }
+
+    /**
+     * Réserve la place du payload dans le budget mémoire de la file, libérée une fois le lot écrit
+     */
+    private boolean reserve(long bytes, long maxBytes) {
+        long current;
+        do {
+            current = queuedBytes.get();
+            if (current + bytes > maxBytes) {
+                return false;
+            }
+        } while (!queuedBytes.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Taille mémoire estimée d'un payload : par jour, par enregistrement et par échantillon FC
+     */
+    static long estimateBytes(HealthData healthData) {
+        long bytes = 0;
+        for (HealthData.DailyData day : healthData.getDailyData()) {
+            if (day == null) {
+                continue;
+            }
+            bytes += DAY_BYTES + EXERCISE_BYTES * size(day.getExercise())
+                    + RECORD_BYTES * (size(day.getSteps()) + size(day.getDistance()) + size(day.getSleep())
+                    + size(day.getOxygenSaturation()) + size(day.getBodyTemperature())
+                    + size(day.getBloodPressure()) + size(day.getWeight()) + size(day.getHeight())
+                    + size(day.getHydration()));
+            if (day.getHeartRate() != null) {
+                for (HealthData.HeartRateRecord record : day.getHeartRate()) {
+                    bytes += RECORD_BYTES + (record != null ? SAMPLE_BYTES * size(record.getSamples()) : 0);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    /**
+     * Copie du statut prise sous le verrou (null si inconnu ou expiré)
+     */
+    public IngestionStatus getStatus(String ingestionId) {
+        synchronized (statuses) {
+            IngestionStatus status = statuses.get(ingestionId);
+            return status != null ? status.copy() : null;
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    private IngestionStatus remember(IngestionStatus status) {
+        synchronized (statuses) {
+            statuses.put(status.getIngestionId(), status);
+            return status.copy();
+        }
+    }
+
+    // ─── Écrivain ───────────────────────────────────────────────────────────
+
+    private void writeLoop() {
+        List<PendingIngestion> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingIngestion first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, first.status().getDays());
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Interruption externe : le lot en cours est écrit, le reste de la file est abandonné
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                return;
+            } catch (Exception e) {
+                log.error("❌ Écrivain d'ingestion: {}", e.getMessage(), e);
+            } finally {
+                batch.forEach(pending -> queuedBytes.addAndGet(-pending.bytes()));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Complète le micro-lot jusqu'à batchMaxDays jours ou batchMaxWaitMs d'attente
+     */
+    private void fillBatch(List<PendingIngestion> batch, int days) throws InterruptedException {
+        IngestProperties.Async async = ingestProperties.getAsync();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(async.getBatchMaxWaitMs());
+        while (days < async.getBatchMaxDays()) {
+            long remaining = deadline - System.nanoTime();
+            PendingIngestion next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            days += next.status().getDays();
+        }
+    }
+
+    private void writeBatch(List<PendingIngestion> batch) {
+        updateStatuses(batch, status -> status.setState(IngestionStatus.State.PROCESSING));
+        LocalDateTime dequeuedAt = LocalDateTime.now();
+        batch.forEach(pending -> ingestMetrics.queueWait(
+                Duration.between(pending.status().getSubmittedAt(), dequeuedAt)));
+
+        try {
+            // Un seul document par (userId, date) : le bulk non ordonné ne garantit pas quel upsert
+            // l'emporte, le dernier soumis est donc choisi ici
+            Map<String, Map<String, BiometricData>> writtenByUser = new LinkedHashMap<>();
+            Map<BiometricData, Integer> owners = new IdentityHashMap<>();
+            int[] accepted = new int[batch.size()];
+            int received = 0;
+
+            for (int i = 0; i < batch.size(); i++) {
+                PendingIngestion pending = batch.get(i);
+                String userId = pending.status().getUserId();
+
+                IngestSummary summary = new IngestSummary();
+                List<BiometricData> days = new ArrayList<>(pending.status().getDays());
+                for (HealthData.DailyData day : pending.payload().getDailyData()) {
+                    BiometricData data = biometricDataService.toBiometricData(userId, day, summary);
+                    if (data != null) {
+                        days.add(data);
+                    }
+                }
+                ingestEngine.record(summary);
+                accepted[i] = days.size();
+                received += days.size();
+
+                Set<BiometricData> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+                changed.addAll(contentDedupService.filterChanged(userId, days));
+                Map<String, BiometricData> written = writtenByUser.computeIfAbsent(userId, key -> new LinkedHashMap<>());
+                for (BiometricData day : days) {
+                    // Identique au stocké mais plus récent qu'une version du lot : remplace quand même celle-ci
+                    if (changed.contains(day) || written.containsKey(day.getDate())) {
+                        written.put(day.getDate(), day);
+                        owners.put(day, i);
+                    }
+                }
+            }
+
+            List<BiometricData> documents = new ArrayList<>();
+            Map<String, List<BiometricData>> daysByUser = new LinkedHashMap<>();
+            Map<String, LatestVitals> latestByUser = new HashMap<>();
+            List<Runnable> sampleWrites = new ArrayList<>();
+            List<Runnable> notifications = new ArrayList<>();
+            writtenByUser.forEach((userId, written) -> {
+                if (written.isEmpty()) {
+                    return;
+                }
+                List<BiometricData> days = new ArrayList<>(written.values());
+                daysByUser.put(userId, days);
+                latestByUser.put(userId, latestVitalsService.capture(userId, days));
+                notifications.add(ingestEngine.beforeWrite(days));
+                sampleWrites.add(heartRateStore.beforeWrite(userId, days));
+                documents.addAll(days);
+            });
+
+            BulkUpsertResult result = ingestMetrics.timeWrite(documents.size(), () -> repository.upsertAll(documents));
+            // Échantillons time-series écrits une fois les documents jour en base
+            sampleWrites.forEach(Runnable::run);
+            notifications.forEach(Runnable::run);
+            ingestMetrics.upserted(result.getInserted(), result.getUpdated(),
+                    result.getUnchanged() + received - documents.size());
+            daysByUser.forEach((userId, days) -> {
+                contentDedupService.remember(userId, days);
+                rollupService.apply(userId, days);
+                syncStateService.advance(userId, days);
+            });
+            latestByUser.forEach(latestVitalsService::apply);
+
+            int[] inserted = new int[batch.size()];
+            for (int index : result.getUpsertedIndexes()) {
+                inserted[owners.get(documents.get(index))]++;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                int created = inserted[i];
+                int kept = accepted[i];
+                updateStatuses(List.of(batch.get(i)), s -> {
+                    s.setInserted(created);
+                    s.setExisting(kept - created);
+                    s.setRejected(s.getDays() - kept);
+                    s.setState(IngestionStatus.State.DONE);
+                    s.setCompletedAt(LocalDateTime.now());
+                });
+            }
+
+            log.info("✅ Micro-lot écrit: {} ingestions, {} jours, insérés={}, mis à jour={}, inchangés={}",
+                    batch.size(), documents.size(),
+                    result.getInserted(), result.getUpdated(), result.getUnchanged());
+
+        } catch (Exception e) {
+            log.error("❌ Erreur écriture micro-lot ({} ingestions): {}", batch.size(), e.getMessage());
+            updateStatuses(batch, status -> {
+                if (status.getState() != IngestionStatus.State.DONE) {
+                    status.setState(IngestionStatus.State.FAILED);
+                    status.setError(e.getMessage());
+                    status.setCompletedAt(LocalDateTime.now());
+                }
+            });
+        }
+    }
+
+    /**
+     * Les statuts sont lus par les threads HTTP : modifications sous le même verrou que les lectures
+     */
+    private void updateStatuses(List<PendingIngestion> batch, Consumer<IngestionStatus> update) {
+        synchronized (statuses) {
+            batch.forEach(pending -> update.accept(pending.status()));
+        }
+    }
+
+    // ─── Cycle de vie ───────────────────────────────────────────────────────
+
+    @PostConstruct
+    void init() {
+        IngestProperties.Async async = ingestProperties.getAsync();
+        int retention = async.getStatusRetention();
+        queue = new ArrayBlockingQueue<>(async.getQueueCapacity());
+        ingestMetrics.queue(queue, queuedBytes);
+        statuses = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestionStatus> eldest) {
+                return size() > retention;
+            }
+        };
+    }
+
+    @Override
+    public void start() {
+        stopped = false;
+        running = true;
+        writer = new Thread(this::writeLoop, "ingest-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("🚚 Écrivain d'ingestion démarré (file: {} ingestions, {} octets)",
+                ingestProperties.getAsync().getQueueCapacity(), ingestProperties.getAsync().getQueueMaxBytes());
+    }
+
+    /**
+     * Arrêt propre : les nouveaux payloads sont refusés (503), l'écrivain termine la file
+     * avant de s'arrêter (pas d'interruption pendant une écriture MongoDB)
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
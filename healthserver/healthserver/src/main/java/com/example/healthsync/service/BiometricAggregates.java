@@ -0,0 +1,88 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+
+import java.util.List;
+
+/**
+ * Recalcule les agrégats d'un jour à partir de ses enregistrements détaillés,
+ * avec les mêmes arrondis que l'app Android
+ */
+public final class BiometricAggregates {
+
+    private BiometricAggregates() {
+    }
+
+    public static void recompute(BiometricData data) {
+        if (data.getSteps() != null) {
+            long steps = 0;
+            for (BiometricData.StepRecord record : data.getSteps()) {
+                steps += record.getCount() != null ? record.getCount() : 0;
+            }
+            data.setTotalSteps((int) steps);
+        }
+
+        if (data.getHeartRate() != null) {
+            long sum = 0;
+            long count = 0;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            boolean externalized = false;
+            for (BiometricData.HeartRateRecord record : data.getHeartRate()) {
+                List<Long> samples = record.getSamples();
+                if (samples == null) {
+                    externalized = true;
+                    continue;
+                }
+                for (Long bpm : samples) {
+                    if (bpm == null) {
+                        continue;
+                    }
+                    sum += bpm;
+                    count++;
+                    min = Math.min(min, bpm);
+                    max = Math.max(max, bpm);
+                }
+            }
+            if (count > 0 && externalized && data.getAvgHeartRate() != null
+                    && data.getMinHeartRate() != null && data.getMaxHeartRate() != null) {
+                // Échantillons déjà stockés ailleurs (time-series) : on élargit min/max,
+                // la moyenne existante est conservée
+                data.setMinHeartRate((int) Math.min(min, data.getMinHeartRate()));
+                data.setMaxHeartRate((int) Math.max(max, data.getMaxHeartRate()));
+            } else if (count > 0) {
+                data.setMinHeartRate((int) min);
+                data.setMaxHeartRate((int) max);
+                data.setAvgHeartRate((int) Math.round((double) sum / count));
+            }
+        }
+
+        if (data.getDistance() != null) {
+            double meters = 0;
+            for (BiometricData.DistanceRecord record : data.getDistance()) {
+                meters += record.getDistanceMeters() != null ? record.getDistanceMeters() : 0;
+            }
+            data.setTotalDistanceKm(round(meters / 1000, 100));
+        }
+
+        if (data.getSleep() != null) {
+            long minutes = 0;
+            for (BiometricData.SleepRecord record : data.getSleep()) {
+                minutes += record.getDurationMinutes() != null ? record.getDurationMinutes() : 0;
+            }
+            data.setTotalSleepHours(round(minutes / 60.0, 10));
+        }
+
+        if (data.getHydration() != null) {
+            double ml = 0;
+            for (BiometricData.HydrationRecord record : data.getHydration()) {
+                ml += record.getVolumeMl() != null ? record.getVolumeMl() : 0;
+            }
+            data.setTotalHydrationLiters(round(ml / 1000, 100));
+        }
+    }
+
+    private static double round(double value, int scale) {
+        return Math.round(value * scale) / (double) scale;
+    }
+}
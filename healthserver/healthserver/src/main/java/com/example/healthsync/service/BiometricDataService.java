@@ -1,164 +1,327 @@
 package com.example.healthsync.service;
 
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.ingest.HealthDataStreamReader;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.model.ActivityTotals;
 import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricPage;
+import com.example.healthsync.model.BulkUpsertResult;
 import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.model.UserStats;
 import com.example.healthsync.repository.BiometricDataRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.healthsync.storage.HeartRateStore;
+import com.example.healthsync.util.LimitedInputStream;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BiometricDataService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Projection "summary" : agrégats du jour, sans aucun tableau d'enregistrements
+    private static final List<String> SUMMARY_FIELDS = List.of("receivedAt", "schemaVersion",
+            "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate", "totalDistanceKm",
+            "totalSleepHours", "totalHydrationLiters", "stressLevel", "stressScore");
+
+    private static final List<String> RECORD_FIELDS = List.of("steps", "heartRate", "distance", "sleep",
+            "exercise", "oxygenSaturation", "bodyTemperature", "bloodPressure", "weight", "height", "hydration");
+
     private final BiometricDataRepository repository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HealthDataStreamReader streamReader;
+    private final IngestEngine ingestEngine;
+    private final IngestProperties ingestProperties;
+    private final SyncStateService syncStateService;
+    private final HeartRateStore heartRateStore;
+    private final ContentDedupService contentDedupService;
+    private final RollupService rollupService;
+    private final IngestMetrics ingestMetrics;
+    private final LatestVitalsService latestVitalsService;
+    private final ArchiveStore archiveStore;
 
     private String generateTemporaryUserId() {
         return "user_" + UUID.randomUUID().toString().substring(0, 8);
     }
 
     /**
-     * Sauvegarde les données biométriques reçues de l'app Android
-     * Convertit HealthData → BiometricData pour MongoDB
+     * Utilise l'identifiant fourni par le client (header X-User-Id) si présent,
+     * sinon un identifiant temporaire
      */
-    public List<BiometricData> saveBiometricData(HealthData healthData) {
-        List<BiometricData> savedRecords = new ArrayList<>();
+    String resolveUserId(String userId) {
+        return (userId == null || userId.isBlank()) ? generateTemporaryUserId() : userId;
+    }
 
+    /**
+     * Sauvegarde les données biométriques reçues de l'app Android
+     * Convertit HealthData → BiometricData puis un seul upsert groupé sur (userId, date)
+     */
+    public IngestResult saveBiometricData(HealthData healthData, String requestUserId) {
         if (healthData.getDailyData() == null || healthData.getDailyData().isEmpty()) {
             throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
         }
 
-        String userId = generateTemporaryUserId();
-        log.info("📝 UserID généré: {}", userId);
+        String userId = resolveUserId(requestUserId);
+        log.info("📝 UserID: {}", userId);
 
+        IngestSummary summary = new IngestSummary();
+        List<BiometricData> days = new ArrayList<>(healthData.getDailyData().size());
         for (HealthData.DailyData day : healthData.getDailyData()) {
-            try {
-                BiometricData data = new BiometricData();
-
-                // Métadonnées
-                data.setUserId(userId);
-                data.setReceivedAt(LocalDateTime.now());
-                data.setDate(day.getDate());
-
-                // ✅ Données agrégées
-                data.setTotalSteps(day.getTotalSteps());
-                data.setAvgHeartRate(day.getAvgHeartRate());
-                data.setMinHeartRate(day.getMinHeartRate());
-                data.setMaxHeartRate(day.getMaxHeartRate());
-                data.setTotalDistanceKm(day.getTotalDistanceKm());
-                data.setTotalSleepHours(day.getTotalSleepHours());
-                data.setTotalHydrationLiters(day.getTotalHydrationLiters());
-                data.setStressLevel(day.getStressLevel());
-                data.setStressScore(day.getStressScore());
-
-                // ✅ Conversion des listes détaillées
-                if (day.getSteps() != null) {
-                    data.setSteps(day.getSteps().stream()
-                            .map(s -> new BiometricData.StepRecord(s.getCount(), s.getStartTime(), s.getEndTime()))
-                            .collect(Collectors.toList()));
-                }
+            BiometricData data = toBiometricData(userId, day, summary);
+            if (data != null) {
+                days.add(data);
+            }
+        }
+        // Validé avant toute écriture
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("Aucun jour valide à sauvegarder");
+        }
 
-                if (day.getHeartRate() != null) {
-                    data.setHeartRate(day.getHeartRate().stream()
-                            .map(hr -> new BiometricData.HeartRateRecord(hr.getSamples(), hr.getStartTime(), hr.getEndTime()))
-                            .collect(Collectors.toList()));
-                }
+        IngestResult result = new IngestResult(userId);
+        result.setSummary(summary);
+        result.add(days.size(), upsert(days));
+        result.setHighWaterMarks(syncStateService.advance(userId, days));
+        ingestEngine.completed(result);
+        return result;
+    }
 
-                if (day.getDistance() != null) {
-                    data.setDistance(day.getDistance().stream()
-                            .map(d -> new BiometricData.DistanceRecord(d.getDistanceMeters(), d.getStartTime(), d.getEndTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Ingestion en streaming : les jours sont convertis dès leur lecture et écrits
+     * par lots de writeBatchSize, sans jamais matérialiser le payload complet
+     */
+    public IngestResult saveBiometricDataStreaming(InputStream body, String requestUserId) throws IOException {
+        return saveBiometricDataStreaming(body, MediaType.APPLICATION_JSON, requestUserId);
+    }
 
-                if (day.getSleep() != null) {
-                    data.setSleep(day.getSleep().stream()
-                            .map(s -> new BiometricData.SleepRecord(s.getTitle(), s.getStartTime(), s.getEndTime(), s.getDurationMinutes()))
-                            .collect(Collectors.toList()));
-                }
+    public IngestResult saveBiometricDataStreaming(InputStream body, MediaType contentType, String requestUserId)
+            throws IOException {
+        String userId = resolveUserId(requestUserId);
+        log.info("📝 UserID (streaming): {}", userId);
 
-                if (day.getExercise() != null) {
-                    data.setExercise(day.getExercise().stream()
-                            .map(e -> new BiometricData.ExerciseRecord(
-                                    e.getTitle(), e.getExerciseType(), e.getExerciseTypeName(),
-                                    e.getStartTime(), e.getEndTime(), e.getDurationMinutes(),
-                                    e.getSteps(), e.getDistanceMeters(), e.getDistanceKm(),
-                                    e.getActiveCalories(), e.getTotalCalories(),
-                                    e.getAvgHeartRate(), e.getMinHeartRate(), e.getMaxHeartRate(),
-                                    e.getAvgCadence(), e.getMinCadence(), e.getMaxCadence(),
-                                    e.getAvgSpeedKmh(), e.getMaxSpeedKmh(), e.getMinSpeedKmh(),
-                                    e.getAvgStrideLengthMeters(), e.getMinStrideLengthMeters(), e.getMaxStrideLengthMeters(),
-                                    e.getAvgPowerWatts()
-                            ))
-                            .collect(Collectors.toList()));
+        IngestResult result = new IngestResult(userId);
+        IngestSummary summary = new IngestSummary();
+        result.setSummary(summary);
+        List<BiometricData> batch = new ArrayList<>();
+        // Octets réellement lus (le Content-Length est absent en chunked)
+        LimitedInputStream counted = new LimitedInputStream(body, Long.MAX_VALUE);
+        try {
+            streamReader.read(counted, contentType, day -> {
+                BiometricData data = toBiometricData(userId, day, summary);
+                if (data == null) {
+                    return;
                 }
-
-                if (day.getOxygenSaturation() != null) {
-                    data.setOxygenSaturation(day.getOxygenSaturation().stream()
-                            .map(o2 -> new BiometricData.OxygenSaturationRecord(o2.getPercentage(), o2.getTime()))
-                            .collect(Collectors.toList()));
+                batch.add(data);
+                if (batch.size() >= ingestProperties.getWriteBatchSize()) {
+                    result.add(batch.size(), upsert(batch));
+                    result.setHighWaterMarks(syncStateService.advance(userId, batch));
+                    batch.clear();
                 }
+            });
+        } finally {
+            ingestMetrics.payload("stream", counted.getCount());
+        }
 
-                if (day.getBodyTemperature() != null) {
-                    data.setBodyTemperature(day.getBodyTemperature().stream()
-                            .map(temp -> new BiometricData.BodyTemperatureRecord(temp.getTemperature(), temp.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        if (summary.getDays() == 0) {
+            throw new IllegalArgumentException("Aucun jour valide à sauvegarder");
+        }
+        if (!batch.isEmpty()) {
+            result.add(batch.size(), upsert(batch));
+            result.setHighWaterMarks(syncStateService.advance(userId, batch));
+        }
+        ingestEngine.completed(result);
+        return result;
+    }
 
-                if (day.getBloodPressure() != null) {
-                    data.setBloodPressure(day.getBloodPressure().stream()
-                            .map(bp -> new BiometricData.BloodPressureRecord(bp.getSystolic(), bp.getDiastolic(), bp.getTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Déduplication par empreinte puis upsert groupé des seuls jours modifiés.
+     * Les jours identiques au contenu stocké, comme les copies remplacées d'une date
+     * répétée dans le lot, sont comptés "inchangés" sans être écrits.
+     */
+    private BulkUpsertResult upsert(List<BiometricData> days) {
+        String userId = days.get(0).getUserId();
+        try {
+            List<BiometricData> changed = contentDedupService.filterChanged(userId, lastByDate(days));
+            LatestVitals latest = latestVitalsService.capture(userId, changed);
+            Runnable notifyWritten = ingestEngine.beforeWrite(changed);
+            Runnable writeSamples = heartRateStore.beforeWrite(userId, changed);
+            BulkUpsertResult result = ingestMetrics.timeWrite(changed.size(), () -> repository.upsertAll(changed));
+            writeSamples.run();
+            notifyWritten.run();
+            contentDedupService.remember(userId, changed);
+            rollupService.apply(userId, changed);
+            latestVitalsService.apply(userId, latest);
+            result.setUnchanged(result.getUnchanged() + days.size() - changed.size());
+            ingestMetrics.upserted(result.getInserted(), result.getUpdated(), result.getUnchanged());
 
-                if (day.getWeight() != null) {
-                    data.setWeight(day.getWeight().stream()
-                            .map(w -> new BiometricData.WeightRecord(w.getWeight(), w.getTime()))
-                            .collect(Collectors.toList()));
-                }
+            log.info("✅ Upsert: userId={}, jours={}, insérés={}, mis à jour={}, inchangés={}",
+                    userId, days.size(),
+                    result.getInserted(), result.getUpdated(), result.getUnchanged());
+            return result;
 
-                if (day.getHeight() != null) {
-                    data.setHeight(day.getHeight().stream()
-                            .map(h -> new BiometricData.HeightRecord(h.getHeight(), h.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        } catch (Exception e) {
+            log.error("❌ Erreur sauvegarde de {} jours: {}", days.size(), e.getMessage());
+            throw new RuntimeException("Erreur lors de la sauvegarde: " + e.getMessage(), e);
+        }
+    }
 
-                if (day.getHydration() != null) {
-                    data.setHydration(day.getHydration().stream()
-                            .map(hyd -> new BiometricData.HydrationRecord(hyd.getVolumeMl(), hyd.getTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Une date présente plusieurs fois dans un lot : seule la dernière occurrence est gardée,
+     * à la place de la première. Évite deux upserts du même document dans un bulk non ordonné.
+     */
+    static List<BiometricData> lastByDate(List<BiometricData> days) {
+        Map<String, BiometricData> byDate = new LinkedHashMap<>();
+        days.forEach(day -> byDate.put(day.getDate(), day));
+        return byDate.size() == days.size() ? days : new ArrayList<>(byDate.values());
+    }
 
-                // ✅ Sauvegarde dans MongoDB
-                BiometricData saved = repository.save(data);
-                savedRecords.add(saved);
+    /**
+     * Convertit un DailyData (format Android) en document BiometricData, via l'IngestEngine
+     * (validation et comptage dans le même passage). Renvoie null si le jour est rejeté.
+     */
+    public BiometricData toBiometricData(String userId, HealthData.DailyData day, IngestSummary summary) {
+        return ingestEngine.process(userId, day, summary);
+    }
+
+    /**
+     * Jours non archivés et mois archivés récents (healthsync.archive.legacy-fetch-months), triés par date.
+     * Les archives plus anciennes ne sont pas décompressées : elles se lisent par getUserDataPage.
+     */
+    public List<BiometricData> getUserData(String userId) {
+        List<BiometricData> live = repository.findByUserId(userId);
+        List<BiometricData> archived = archiveStore.findDays(userId, archiveStore.legacyFetchFrom(), null, List.of());
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Map<String, BiometricData> byDate = new TreeMap<>();
+        archived.forEach(day -> byDate.put(day.getDate(), day));
+        live.forEach(day -> byDate.put(day.getDate(), day));
+        return new ArrayList<>(byDate.values());
+    }
 
-                log.info("✅ Sauvegardé: userId={}, date={}, id={}",
-                        userId, data.getDate(), saved.getId());
+    /**
+     * Historique paginé : plage de dates, projection ("summary" et/ou types d'enregistrements)
+     * et pagination par date via un curseur opaque
+     */
+    public BiometricPage getUserDataPage(String userId, LocalDate from, LocalDate to, List<String> fields,
+                                         String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit doit être entre 1 et " + MAX_PAGE_SIZE);
+        }
+        Set<String> projection = projection(fields);
+
+        String afterDate = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+        // Un élément de plus que demandé : indique s'il existe une page suivante
+        String fromDate = from != null ? from.toString() : null;
+        String toDate = to != null ? to.toString() : null;
+        List<BiometricData> items = merge(
+                repository.findPage(userId, fromDate, toDate, projection, afterDate, limit + 1),
+                archiveStore.findPage(userId, fromDate, toDate, projection, afterDate, limit + 1),
+                limit + 1);
 
-            } catch (Exception e) {
-                log.error("❌ Erreur sauvegarde jour {}: {}", day.getDate(), e.getMessage());
-                throw new RuntimeException("Erreur lors de la sauvegarde: " + e.getMessage(), e);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = encodeCursor(items.get(limit - 1).getDate());
+        }
+        return new BiometricPage(items, nextCursor);
+    }
+
+    /**
+     * Fusion de deux pages triées par date. Une date présente des deux côtés ne garde que
+     * le document de biometric_data : s'il n'est pas dans la page live, c'est qu'elle est pleine
+     * avant cette date, et la copie archivée est de toute façon hors de la page fusionnée.
+     */
+    private static List<BiometricData> merge(List<BiometricData> live, List<BiometricData> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<String> liveDates = new HashSet<>();
+        live.forEach(day -> liveDates.add(day.getDate()));
+
+        List<BiometricData> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (j < archived.size() && liveDates.contains(archived.get(j).getDate())) {
+                j++;
+            } else if (j == archived.size() || i < live.size() && live.get(i).getDate().compareTo(archived.get(j).getDate()) < 0) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
             }
         }
+        return merged;
+    }
 
-        return savedRecords;
+    /**
+     * Champs MongoDB à lire pour les champs demandés ("summary" et/ou types d'enregistrements)
+     */
+    static Set<String> projection(List<String> fields) {
+        Set<String> projection = new LinkedHashSet<>();
+        for (String field : fields) {
+            if ("summary".equals(field)) {
+                projection.addAll(SUMMARY_FIELDS);
+            } else if (RECORD_FIELDS.contains(field)) {
+                projection.add(field);
+            } else {
+                throw new IllegalArgumentException("Champ inconnu: " + field
+                        + " (attendus: summary, " + String.join(", ", RECORD_FIELDS) + ")");
+            }
+        }
+        return projection;
     }
 
-    public List<BiometricData> getUserData(String userId) {
-        return repository.findByUserId(userId);
+    /**
+     * Curseur = date du dernier jour de la page : (userId, date) est unique
+     */
+    static String encodeCursor(String date) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(date.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        try {
+            // Curseur "date|id" émis par une version précédente : l'id est ignoré
+            String date = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2)[0];
+            return LocalDate.parse(date).toString();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur invalide");
+        }
+    }
+
+    public ActivityTotals getActivityTotals(String userId, LocalDate from, LocalDate to) {
+        return repository.activityTotals(userId, from.toString(), to.toString());
     }
 
-    public String getUserStats(String userId) {
-        long count = repository.countByUserId(userId);
-        return String.format("👤 User %s: %d enregistrements", userId, count);
+    public UserStats getUserStats(String userId, LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from doit précéder to");
+        }
+        return repository.userStats(userId, from != null ? from.toString() : null, to != null ? to.toString() : null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.ingest.DailyDataHasher;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Déduplication des jours retransmis : un jour dont l'empreinte est identique à celle
+ * déjà stockée n'est pas réécrit. Un cache local des empreintes récentes évite
+ * la plupart des lectures MongoDB.
+ */
+@Slf4j
+@Service
+public class ContentDedupService {
+
+    private final MongoTemplate mongoTemplate;
+    private final LruCache<String, String> recentHashes;
+
+    private final Counter cacheHits;
+    private final Counter storeHits;
+    private final Counter misses;
+
+    public ContentDedupService(MongoTemplate mongoTemplate, IngestProperties ingestProperties,
+                               MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.recentHashes = new LruCache<>(ingestProperties.getDedupCacheSize());
+
+        this.cacheHits = outcome(meterRegistry, "cache_hit");
+        this.storeHits = outcome(meterRegistry, "store_hit");
+        this.misses = outcome(meterRegistry, "miss");
+        Gauge.builder("healthsync.ingest.dedup.hit.ratio", this, ContentDedupService::hitRatio)
+                .description("Part des jours reçus identiques au contenu déjà stocké")
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("healthsync.ingest.dedup")
+                .description("Jours reçus par résultat de déduplication")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Calcule l'empreinte de chaque jour et ne garde que les jours modifiés.
+     * À appeler avant toute transformation de stockage (compaction, time-series).
+     */
+    public List<BiometricData> filterChanged(String userId, List<BiometricData> days) {
+        List<BiometricData> unknown = new ArrayList<>();
+        List<BiometricData> changed = new ArrayList<>(days.size());
+
+        for (BiometricData day : days) {
+            day.setContentHash(DailyDataHasher.hash(day));
+            if (day.getContentHash().equals(recentHashes.get(key(userId, day.getDate())))) {
+                cacheHits.increment();
+            } else {
+                unknown.add(day);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return changed;
+        }
+
+        // Une seule lecture projetée pour les jours absents du cache
+        Map<String, String> stored = storedHashes(userId, unknown);
+        for (BiometricData day : unknown) {
+            String storedHash = stored.get(day.getDate());
+            if (day.getContentHash().equals(storedHash)) {
+                storeHits.increment();
+                recentHashes.put(key(userId, day.getDate()), storedHash);
+            } else {
+                misses.increment();
+                changed.add(day);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Après une écriture réussie : les empreintes écrites deviennent les empreintes connues
+     */
+    public void remember(String userId, List<BiometricData> written) {
+        for (BiometricData day : written) {
+            if (day.getContentHash() != null) {
+                recentHashes.put(key(userId, day.getDate()), day.getContentHash());
+            }
+        }
+    }
+
+    /**
+     * Invalide le cache d'un jour réécrit hors de ce service (fusion delta, archivage...)
+     */
+    public void forget(String userId, String date) {
+        recentHashes.remove(key(userId, date));
+    }
+
+    public double hitRatio() {
+        double hits = cacheHits.count() + storeHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private Map<String, String> storedHashes(String userId, List<BiometricData> days) {
+        List<String> dates = new ArrayList<>(days.size());
+        days.forEach(day -> dates.add(day.getDate()));
+
+        Query query = Query.query(Criteria.where("userId").is(userId).and("date").in(dates));
+        query.fields().include("date", "contentHash").exclude("_id");
+
+        Map<String, String> hashes = new HashMap<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(BiometricData.class))) {
+            hashes.put(doc.getString("date"), doc.getString("contentHash"));
+        }
+        return hashes;
+    }
+
+    private static String key(String userId, String date) {
+        return userId + "|" + date;
+    }
+}
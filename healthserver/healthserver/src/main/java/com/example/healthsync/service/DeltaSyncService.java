@@ -0,0 +1,167 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.ingest.IntervalMerger;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Synchronisation incrémentale : le client n'envoie que les enregistrements postérieurs
+ * à ses high-water marks, le serveur les fusionne dans les documents jour existants.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeltaSyncService {
+
+    private final BiometricDataRepository repository;
+    private final BiometricDataService biometricDataService;
+    private final SyncStateService syncStateService;
+    private final HeartRateStore heartRateStore;
+    private final ContentDedupService contentDedupService;
+    private final RollupService rollupService;
+    private final ArchiveStore archiveStore;
+    private final IngestEngine ingestEngine;
+    private final IngestMetrics ingestMetrics;
+    private final LatestVitalsService latestVitalsService;
+    private final IntervalMerger intervalMerger;
+
+    public IngestResult mergeDelta(HealthData delta, String userId) {
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException("X-User-Id requis pour une synchronisation delta");
+        }
+        if (delta.getDailyData() == null || delta.getDailyData().isEmpty()) {
+            throw new IllegalArgumentException("Aucune donnée quotidienne à fusionner");
+        }
+
+        // Une seule lecture pour tous les jours concernés
+        Set<String> dates = new HashSet<>();
+        delta.getDailyData().forEach(day -> dates.add(day.getDate()));
+        Map<String, BiometricData> existing = new HashMap<>();
+        repository.findByUserIdAndDateIn(userId, dates).forEach(doc -> existing.put(doc.getDate(), doc));
+        // Jour d'un mois archivé : le delta complète le jour archivé (réécrit dans biometric_data)
+        Set<String> missing = new HashSet<>(dates);
+        missing.removeAll(existing.keySet());
+        existing.putAll(archiveStore.findDays(userId, missing));
+
+        IngestResult result = new IngestResult(userId);
+        IngestSummary summary = new IngestSummary();
+        result.setSummary(summary);
+        List<BiometricData> merged = new ArrayList<>(delta.getDailyData().size());
+        Set<String> mergedDates = new HashSet<>();
+
+        for (HealthData.DailyData day : delta.getDailyData()) {
+            BiometricData incoming = biometricDataService.toBiometricData(userId, day, summary);
+            if (incoming == null) {
+                continue;
+            }
+            // Date répétée dans le delta : fusionnée dans le même document, écrit une fois
+            BiometricData target = existing.get(day.getDate());
+            if (target == null) {
+                target = new BiometricData();
+                target.setUserId(userId);
+                target.setDate(incoming.getDate());
+                target.setReceivedAt(incoming.getReceivedAt());
+                existing.put(target.getDate(), target);
+            }
+            mergeInto(target, incoming, result);
+            // Chevauchements entre les enregistrements existants et ceux du delta
+            intervalMerger.merge(target, summary);
+
+            // Le stress est calculé côté téléphone sur la journée : la dernière valeur fait foi
+            if (incoming.getStressLevel() != null) {
+                target.setStressLevel(incoming.getStressLevel());
+                target.setStressScore(incoming.getStressScore());
+            }
+            BiometricAggregates.recompute(target);
+            if (mergedDates.add(target.getDate())) {
+                merged.add(target);
+            }
+        }
+
+        List<BiometricData> changed = contentDedupService.filterChanged(userId, merged);
+        LatestVitals latest = latestVitalsService.capture(userId, changed);
+        Runnable notifyWritten = ingestEngine.beforeWrite(changed);
+        Runnable writeSamples = heartRateStore.beforeWrite(userId, changed);
+        BulkUpsertResult written = ingestMetrics.timeWrite(changed.size(), () -> repository.upsertAll(changed));
+        writeSamples.run();
+        notifyWritten.run();
+        contentDedupService.remember(userId, changed);
+        rollupService.apply(userId, changed);
+        latestVitalsService.apply(userId, latest);
+        written.setUnchanged(written.getUnchanged() + merged.size() - changed.size());
+        ingestMetrics.upserted(written.getInserted(), written.getUpdated(), written.getUnchanged());
+        result.add(merged.size(), written);
+        result.setHighWaterMarks(syncStateService.advance(userId, merged));
+        ingestEngine.completed(result);
+
+        log.info("🔄 Delta fusionné: userId={}, jours={}, nouveaux={}, doublons={}",
+                userId, merged.size(), result.getNewRecords(), result.getDuplicateRecords());
+        return result;
+    }
+
+    private void mergeInto(BiometricData target, BiometricData incoming, IngestResult result) {
+        List<String> trimmed = target.getMergedRecords() != null ? target.getMergedRecords() : List.of();
+        // Originaux rognés dès la conversion du delta (chevauchements internes au delta)
+        if (incoming.getMergedRecords() != null) {
+            Set<String> union = new TreeSet<>(trimmed);
+            union.addAll(incoming.getMergedRecords());
+            target.setMergedRecords(new ArrayList<>(union));
+        }
+        target.setSteps(merge(target.getSteps(), incoming.getSteps(), r -> IntervalMerger.mergedKey("steps", r.getStartTime(), r.getEndTime()), trimmed, result));
+        target.setHeartRate(merge(target.getHeartRate(), incoming.getHeartRate(), r -> IntervalMerger.mergedKey("heartRate", r.getStartTime(), r.getEndTime()), trimmed, result));
+        target.setDistance(merge(target.getDistance(), incoming.getDistance(), r -> IntervalMerger.mergedKey("distance", r.getStartTime(), r.getEndTime()), trimmed, result));
+        target.setSleep(merge(target.getSleep(), incoming.getSleep(), r -> r.getStartTime() + "|" + r.getEndTime(), List.of(), result));
+        target.setExercise(merge(target.getExercise(), incoming.getExercise(), r -> r.getStartTime() + "|" + r.getEndTime(), List.of(), result));
+        target.setOxygenSaturation(merge(target.getOxygenSaturation(), incoming.getOxygenSaturation(), BiometricData.OxygenSaturationRecord::getTime, List.of(), result));
+        target.setBodyTemperature(merge(target.getBodyTemperature(), incoming.getBodyTemperature(), BiometricData.BodyTemperatureRecord::getTime, List.of(), result));
+        target.setBloodPressure(merge(target.getBloodPressure(), incoming.getBloodPressure(), BiometricData.BloodPressureRecord::getTime, List.of(), result));
+        target.setWeight(merge(target.getWeight(), incoming.getWeight(), BiometricData.WeightRecord::getTime, List.of(), result));
+        target.setHeight(merge(target.getHeight(), incoming.getHeight(), BiometricData.HeightRecord::getTime, List.of(), result));
+        target.setHydration(merge(target.getHydration(), incoming.getHydration(), BiometricData.HydrationRecord::getTime, List.of(), result));
+    }
+
+    /**
+     * Union par clé temporelle : un enregistrement déjà présent (renvoi, retry) est ignoré,
+     * de même que l'original d'un enregistrement déjà rogné ou retiré par la fusion (trimmed)
+     */
+    private <T> List<T> merge(List<T> existing, List<T> incoming, Function<T, String> key,
+                              List<String> trimmed, IngestResult result) {
+        if (incoming == null || incoming.isEmpty()) {
+            return existing;
+        }
+        List<T> merged = existing != null ? new ArrayList<>(existing) : new ArrayList<>(incoming.size());
+        Set<String> known = new HashSet<>(trimmed);
+        merged.forEach(record -> known.add(key.apply(record)));
+
+        for (T record : incoming) {
+            if (known.add(key.apply(record))) {
+                merged.add(record);
+                result.setNewRecords(result.getNewRecords() + 1);
+            } else {
+                result.setDuplicateRecords(result.getDuplicateRecords() + 1);
+            }
+        }
+        return merged;
+    }
+}
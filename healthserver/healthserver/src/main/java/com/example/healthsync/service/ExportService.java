@@ -0,0 +1,359 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateStore;
+import com.example.healthsync.storage.SampleTimes;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Export de l'historique d'un utilisateur (mois archivés compris) en NDJSON ou CSV.
+ * Les jours sont lus au fil d'un curseur MongoDB et écrits aussitôt dans la réponse :
+ * la mémoire reste constante quelle que soit la période, et un client lent ralentit
+ * la lecture (écritures bloquantes sur la socket) au lieu de remplir le tas.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final String SUMMARY = "summary";
+    private static final String HEART_RATE = "heartRate";
+
+    @Getter
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format inconnu: " + format + " (attendus: ndjson, csv)");
+            }
+        }
+    }
+
+    private final BiometricDataRepository repository;
+    private final ArchiveStore archiveStore;
+    private final HeartRateStore heartRateStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Vérifie la demande avant l'envoi des en-têtes : une erreur en cours d'écriture ne peut plus
+     * être renvoyée au client
+     */
+    public void validate(LocalDate from, LocalDate to, String type) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from doit précéder to");
+        }
+        if (type != null) {
+            BiometricDataService.projection(List.of(type));
+        }
+    }
+
+    /**
+     * Nom du contenu exporté : type demandé, sinon jours complets (NDJSON) ou agrégats (CSV)
+     */
+    public String kind(String type, Format format) {
+        if (type != null) {
+            return type;
+        }
+        return format == Format.CSV ? SUMMARY : "days";
+    }
+
+    /**
+     * Écrit l'export dans out (non fermé).
+     * type null : un jour complet par ligne en NDJSON, les agrégats du jour en CSV ;
+     * "summary" : les agrégats du jour ; un type d'enregistrement : une ligne par enregistrement
+     * (en CSV, une ligne par échantillon pour heartRate).
+     * @return le nombre de lignes écrites (hors en-tête CSV)
+     */
+    public long export(String userId, LocalDate from, LocalDate to, String type, Format format, OutputStream out)
+            throws IOException {
+        validate(from, to, type);
+        String kind = type != null ? type : format == Format.CSV ? SUMMARY : null;
+        Set<String> fields = kind != null ? BiometricDataService.projection(List.of(kind)) : Set.of();
+        String fromDate = from != null ? from.toString() : null;
+        String toDate = to != null ? to.toString() : null;
+
+        long started = System.nanoTime();
+        long lines;
+        try (Stream<BiometricData> live = repository.streamRange(userId, fromDate, toDate, fields);
+             Stream<BiometricData> archived = archiveStore.streamDays(userId, fromDate, toDate, fields)) {
+            Iterator<BiometricData> days = merge(live.iterator(), archived.iterator());
+            lines = format == Format.CSV
+                    ? writeCsv(userId, kind, fields, days, out)
+                    : writeNdjson(userId, kind, days, out);
+        }
+        log.info("📤 Export {} {} ({}): {} lignes en {} ms", userId, format, kind(type, format), lines,
+                (System.nanoTime() - started) / 1_000_000);
+        return lines;
+    }
+
+    private long writeNdjson(String userId, String kind, Iterator<BiometricData> days, OutputStream out)
+            throws IOException {
+        // Pas de flush par valeur : la réponse part par blocs, au rythme du tampon
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        BeanPropertyDefinition recordList = kind == null || SUMMARY.equals(kind) ? null : property(kind);
+        List<BeanPropertyDefinition> columns = recordList != null ? properties(recordType(recordList), false) : List.of();
+
+        long lines = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (days.hasNext()) {
+                BiometricData day = days.next();
+                if (kind == null || HEART_RATE.equals(kind)) {
+                    fillSamples(userId, day);
+                }
+                if (recordList == null) {
+                    writer.writeValue(generator, day);
+                    generator.writeRaw('\n');
+                    lines++;
+                    continue;
+                }
+                // Enregistrement aplati : userId et date, puis ses propres champs
+                for (Object record : records(day, recordList)) {
+                    generator.writeStartObject();
+                    generator.writeStringField("userId", userId);
+                    generator.writeStringField("date", day.getDate());
+                    for (BeanPropertyDefinition column : columns) {
+                        Object value = column.getAccessor().getValue(record);
+                        if (value == null && column.findInclusion().getValueInclusion() == JsonInclude.Include.NON_NULL) {
+                            continue;
+                        }
+                        generator.writeFieldName(column.getName());
+                        writer.writeValue(generator, value);
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private long writeCsv(String userId, String kind, Set<String> fields, Iterator<BiometricData> days,
+                          OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+
+        if (HEART_RATE.equals(kind)) {
+            writer.write("date,time,bpm\n");
+            while (days.hasNext()) {
+                BiometricData day = days.next();
+                fillSamples(userId, day);
+                for (BiometricData.HeartRateRecord record : day.getHeartRate() != null
+                        ? day.getHeartRate() : List.<BiometricData.HeartRateRecord>of()) {
+                    if (record.getStartTime() == null) {
+                        continue;
+                    }
+                    LocalDateTime start = SampleTimes.parse(record.getStartTime());
+                    LocalDateTime end = record.getEndTime() != null ? SampleTimes.parse(record.getEndTime()) : start;
+                    long[] samples = record.sampleArray();
+                    for (int i = 0; i < samples.length; i++) {
+                        writer.write(day.getDate());
+                        writer.write(',');
+                        writer.write(SampleTimes.at(start, end, i, samples.length).format(SampleTimes.FORMAT));
+                        writer.write(',');
+                        writer.write(Long.toString(samples[i]));
+                        writer.write('\n');
+                        rows++;
+                    }
+                }
+            }
+            writer.flush();
+            return rows;
+        }
+
+        boolean summary = SUMMARY.equals(kind);
+        BeanPropertyDefinition recordList = summary ? null : property(kind);
+        List<BeanPropertyDefinition> columns = new ArrayList<>();
+        for (BeanPropertyDefinition column : properties(summary ? BiometricData.class : recordType(recordList), true)) {
+            if (!summary || fields.contains(column.getName())) {
+                columns.add(column);
+            }
+        }
+        writer.write("date");
+        for (BeanPropertyDefinition column : columns) {
+            writer.write(',');
+            writer.write(column.getName());
+        }
+        writer.write('\n');
+
+        while (days.hasNext()) {
+            BiometricData day = days.next();
+            for (Object row : summary ? List.of(day) : records(day, recordList)) {
+                writer.write(day.getDate());
+                for (BeanPropertyDefinition column : columns) {
+                    writer.write(',');
+                    Object value = column.getAccessor().getValue(row);
+                    if (value != null) {
+                        writer.write(escape(value.toString()));
+                    }
+                }
+                writer.write('\n');
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Mode timeseries : les échantillons ne sont plus dans les documents jour, ils sont relus
+     * en une requête pour les enregistrements du jour qui n'en ont pas, rendus chacun à son enregistrement
+     */
+    private void fillSamples(String userId, BiometricData day) {
+        if (day.getHeartRate() == null) {
+            return;
+        }
+        List<BiometricData.HeartRateRecord> missing = new ArrayList<>();
+        for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+            if (record.getPackedSamples() == null && record.getSamples() == null && record.getStartTime() != null) {
+                missing.add(record);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Long>> samples = heartRateStore.findRecordSamples(userId, missing);
+        for (BiometricData.HeartRateRecord record : missing) {
+            record.setSamples(samples.getOrDefault(HeartRateStore.recordKey(record), new ArrayList<>()));
+        }
+    }
+
+    private static Collection<?> records(BiometricData day, BeanPropertyDefinition recordList) {
+        Object records = recordList.getAccessor().getValue(day);
+        return records != null ? (Collection<?>) records : List.of();
+    }
+
+    private static Class<?> recordType(BeanPropertyDefinition recordList) {
+        return recordList.getPrimaryType().getContentType().getRawClass();
+    }
+
+    /**
+     * Liste d'enregistrements de BiometricData portant ce nom
+     */
+    private BeanPropertyDefinition property(String name) {
+        for (BeanPropertyDefinition property : properties(BiometricData.class, false)) {
+            if (property.getName().equals(name)) {
+                return property;
+            }
+        }
+        throw new IllegalArgumentException("Champ inconnu: " + name);
+    }
+
+    /**
+     * Propriétés JSON d'une classe, dans l'ordre de sérialisation ; scalars = sans listes ni tableaux (CSV)
+     */
+    private List<BeanPropertyDefinition> properties(Class<?> type, boolean scalars) {
+        List<BeanPropertyDefinition> properties = new ArrayList<>();
+        for (BeanPropertyDefinition property : objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(type)).findProperties()) {
+            if (property.getAccessor() == null) {
+                continue;
+            }
+            if (scalars && (property.getPrimaryType().isContainerType() || property.getPrimaryType().isArrayType())) {
+                continue;
+            }
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    /**
+     * Fusion de deux flux de jours triés par date ; une date présente des deux côtés
+     * ne garde que le jour de biometric_data
+     */
+    static Iterator<BiometricData> merge(Iterator<BiometricData> live, Iterator<BiometricData> archived) {
+        return new Iterator<>() {
+            private BiometricData nextLive = advance(live);
+            private BiometricData nextArchived = advance(archived);
+
+            @Override
+            public boolean hasNext() {
+                return nextLive != null || nextArchived != null;
+            }
+
+            @Override
+            public BiometricData next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextLive == null ? 1
+                        : nextArchived == null ? -1
+                        : nextLive.getDate().compareTo(nextArchived.getDate());
+                BiometricData day;
+                if (order <= 0) {
+                    day = nextLive;
+                    nextLive = advance(live);
+                    if (order == 0) {
+                        nextArchived = advance(archived);
+                    }
+                } else {
+                    day = nextArchived;
+                    nextArchived = advance(archived);
+                }
+                return day;
+            }
+        };
+    }
+
+    private static BiometricData advance(Iterator<BiometricData> days) {
+        return days.hasNext() ? days.next() : null;
+    }
+
+    /**
+     * Valeur CSV (RFC 4180) : entre guillemets si elle contient un séparateur, un guillemet ou un saut de ligne
+     */
+    static String escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
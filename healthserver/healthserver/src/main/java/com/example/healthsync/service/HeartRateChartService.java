@@ -0,0 +1,47 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.HeartRateChart;
+import com.example.healthsync.storage.HeartRateSeries;
+import com.example.healthsync.storage.HeartRateStore;
+import com.example.healthsync.storage.SampleTimes;
+import com.example.healthsync.util.Lttb;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Graphiques HR : la série brute est lue en tableaux primitifs et réduite côté serveur
+ * à quelques centaines de points, au lieu d'envoyer chaque échantillon au client
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HeartRateChartService {
+
+    public static final int MAX_POINTS = 5000;
+
+    private final HeartRateStore heartRateStore;
+
+    public HeartRateChart chart(String userId, LocalDateTime from, LocalDateTime to, int points) {
+        if (points < 3 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("points doit être entre 3 et " + MAX_POINTS);
+        }
+        HeartRateSeries series = heartRateStore.readSeries(userId, from, to);
+        Lttb.Result sampled = Lttb.downsample(series.times(), series.bpm(), series.size(), points);
+
+        List<HeartRateChart.Point> chartPoints = new ArrayList<>(sampled.size());
+        for (int i = 0; i < sampled.size(); i++) {
+            int index = sampled.indices()[i];
+            chartPoints.add(new HeartRateChart.Point(
+                    SampleTimes.fromMillis(series.timeAt(index)), series.bpmAt(index),
+                    sampled.min()[i], sampled.max()[i]));
+        }
+
+        log.debug("📉 Graphique HR: userId={}, échantillons={}, points={}", userId, series.size(), chartPoints.size());
+        return new HeartRateChart(from, to, series.size(), chartPoints);
+    }
+}
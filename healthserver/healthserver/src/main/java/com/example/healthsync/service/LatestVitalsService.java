@@ -0,0 +1,201 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.LatestVitalsProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateStore;
+import com.example.healthsync.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cache LRU + TTL des dernières valeurs par utilisateur (GET /fetch/latest/{userId}).
+ * Écriture traversante : le pipeline d'écriture extrait les dernières valeurs du lot
+ * ({@link #capture}, avant que le stockage HR ne retire les échantillons) puis, une fois
+ * l'upsert réussi, les fusionne dans l'entrée en cache ({@link #apply}).
+ * Une entrée absente ou expirée est remplie par une seule agrégation projetée
+ * (ou, si l'utilisateur n'a plus que des mois archivés, par le dernier mois archivé).
+ */
+@Service
+public class LatestVitalsService {
+
+    private final BiometricDataRepository repository;
+    private final HeartRateStore heartRateStore;
+    private final ArchiveStore archiveStore;
+    private final LatestVitalsProperties properties;
+    private final LruCache<String, Entry> cache;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(LatestVitals vitals, long expiresAt) {
+    }
+
+    public LatestVitalsService(BiometricDataRepository repository, HeartRateStore heartRateStore,
+                               ArchiveStore archiveStore, LatestVitalsProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.heartRateStore = heartRateStore;
+        this.archiveStore = archiveStore;
+        this.properties = properties;
+        this.cache = new LruCache<>(properties.getCacheSize());
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(properties.getTtlSeconds());
+        this.hits = outcome(meterRegistry, "hit");
+        this.misses = outcome(meterRegistry, "miss");
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("healthsync.latest.cache")
+                .description("Lectures des dernières valeurs par résultat de cache")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public LatestVitals get(String userId) {
+        Entry entry = cache.get(userId);
+        if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+            hits.increment();
+            return entry.vitals();
+        }
+        misses.increment();
+        LatestVitals vitals = load(userId);
+        cache.put(userId, new Entry(vitals, System.nanoTime() + ttlNanos));
+        return vitals;
+    }
+
+    /**
+     * Dernières valeurs contenues dans un lot de documents jour, à appeler avant
+     * HeartRateStore.beforeWrite (le backend time-series retire les échantillons)
+     */
+    public LatestVitals capture(String userId, List<BiometricData> days) {
+        LatestVitals latest = new LatestVitals();
+        latest.setUserId(userId);
+        for (BiometricData day : days) {
+            latest = newest(latest, extract(userId, day, false));
+        }
+        return latest;
+    }
+
+    /**
+     * Après un upsert réussi. Seuls les utilisateurs déjà en cache sont mis à jour :
+     * les autres seront chargés à leur première lecture. L'expiration n'est pas repoussée.
+     */
+    public void apply(String userId, LatestVitals captured) {
+        if (captured.isEmpty()) {
+            return;
+        }
+        cache.computeIfPresent(userId, (key, entry) -> new Entry(newest(entry.vitals(), captured), entry.expiresAt()));
+    }
+
+    /**
+     * Invalidation (suppression ou réécriture de données hors du pipeline d'ingestion)
+     */
+    public void evict(String userId) {
+        cache.remove(userId);
+    }
+
+    private LatestVitals load(String userId) {
+        BiometricData latest = repository.findLatestRecords(userId, properties.getLookbackDays());
+        if (latest != null) {
+            return extract(userId, latest, true);
+        }
+        // Plus aucun jour dans biometric_data : dernier mois archivé
+        LatestVitals archived = new LatestVitals();
+        archived.setUserId(userId);
+        for (BiometricData day : archiveStore.findLatestDays(userId)) {
+            archived = newest(archived, extract(userId, day, true));
+        }
+        return archived;
+    }
+
+    /**
+     * Dernières valeurs d'un document jour. Avec readStore, un enregistrement HR sans
+     * échantillons (backend time-series) est complété par une lecture du HeartRateStore.
+     */
+    private LatestVitals extract(String userId, BiometricData day, boolean readStore) {
+        LatestVitals vitals = new LatestVitals();
+        vitals.setUserId(userId);
+        if (day.getTotalSteps() != null && day.getDate() != null) {
+            vitals.setSteps(new LatestVitals.DailySteps(day.getDate(), day.getTotalSteps()));
+        }
+
+        BiometricData.HeartRateRecord lastHeartRate = null;
+        if (day.getHeartRate() != null) {
+            for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+                if (record.getEndTime() != null
+                        && (lastHeartRate == null || record.getEndTime().compareTo(lastHeartRate.getEndTime()) > 0)) {
+                    lastHeartRate = record;
+                }
+            }
+        }
+        if (lastHeartRate != null) {
+            vitals.setHeartRate(lastHeartRate(userId, lastHeartRate, readStore));
+        }
+
+        if (day.getBloodPressure() != null) {
+            for (BiometricData.BloodPressureRecord record : day.getBloodPressure()) {
+                if (record.getTime() != null) {
+                    vitals.setBloodPressure(pick(vitals.getBloodPressure(), new LatestVitals.BloodPressure(
+                            record.getSystolic(), record.getDiastolic(), record.getTime()),
+                            LatestVitals.BloodPressure::getTime));
+                }
+            }
+        }
+        if (day.getWeight() != null) {
+            for (BiometricData.WeightRecord record : day.getWeight()) {
+                if (record.getTime() != null) {
+                    vitals.setWeight(pick(vitals.getWeight(),
+                            new LatestVitals.Reading(record.getWeight(), record.getTime()), LatestVitals.Reading::getTime));
+                }
+            }
+        }
+        return vitals;
+    }
+
+    private LatestVitals.Reading lastHeartRate(String userId, BiometricData.HeartRateRecord record, boolean readStore) {
+        long[] samples = record.sampleArray();
+        if (samples.length > 0) {
+            return new LatestVitals.Reading((double) samples[samples.length - 1], record.getEndTime());
+        }
+        if (!readStore) {
+            return null;
+        }
+        // Échantillons de cet enregistrement seulement, pas ceux d'une autre source sur la même période
+        List<Long> stored = heartRateStore.findRecordSamples(userId, List.of(record))
+                .get(HeartRateStore.recordKey(record));
+        if (stored == null || stored.isEmpty()) {
+            return null;
+        }
+        return new LatestVitals.Reading((double) stored.get(stored.size() - 1), record.getEndTime());
+    }
+
+    /**
+     * Fusion champ par champ : la mesure la plus récente l'emporte (heures "yyyy-MM-dd HH:mm:ss"
+     * comparables comme chaînes), à égalité la nouvelle valeur (jour resynchronisé)
+     */
+    public static LatestVitals newest(LatestVitals current, LatestVitals update) {
+        return new LatestVitals(current.getUserId(),
+                pick(current.getHeartRate(), update.getHeartRate(), LatestVitals.Reading::getTime),
+                pick(current.getBloodPressure(), update.getBloodPressure(), LatestVitals.BloodPressure::getTime),
+                pick(current.getWeight(), update.getWeight(), LatestVitals.Reading::getTime),
+                pick(current.getSteps(), update.getSteps(), LatestVitals.DailySteps::getDate));
+    }
+
+    private static <T> T pick(T current, T update, Function<T, String> time) {
+        if (update == null) {
+            return current;
+        }
+        if (current == null || time.apply(update).compareTo(time.apply(current)) >= 0) {
+            return update;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.ingest.ReactiveHealthDataReader;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.repository.ReactiveBiometricDataRepository;
+import com.example.healthsync.storage.HeartRateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingestion et lecture de la variante WebFlux (profil "reactive").
+ * Ingestion : les jours sortent du parser asynchrone au fil
+ * de l'upload, sont convertis par l'IngestEngine puis écrits par lots de writeBatchSize
+ * via ReactiveBulkOperations, un lot à la fois (ordre conservé pour les high-water marks).
+ * Déduplication, rollups, échantillons HR et sync-state restent sur MongoTemplate :
+ * ces étapes courtes sont exécutées sur boundedElastic, jamais sur l'event loop.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBiometricDataService {
+
+    private final ReactiveBiometricDataRepository repository;
+    private final ReactiveHealthDataReader reader;
+    private final BiometricDataService biometricDataService;
+    private final IngestEngine ingestEngine;
+    private final IngestProperties ingestProperties;
+    private final SyncStateService syncStateService;
+    private final HeartRateStore heartRateStore;
+    private final ContentDedupService contentDedupService;
+    private final RollupService rollupService;
+    private final IngestMetrics ingestMetrics;
+    private final LatestVitalsService latestVitalsService;
+    private final ArchiveStore archiveStore;
+
+    private record PreparedBatch(List<BiometricData> days, List<BiometricData> changed, LatestVitals latest,
+                                 Runnable notifyWritten, Runnable writeSamples) {
+    }
+
+    public Mono<IngestResult> ingest(Flux<DataBuffer> body, MediaType contentType, String requestUserId) {
+        return Mono.defer(() -> {
+            String userId = biometricDataService.resolveUserId(requestUserId);
+            log.info("📝 UserID (réactif): {}", userId);
+
+            IngestResult result = new IngestResult(userId);
+            IngestSummary summary = new IngestSummary();
+            result.setSummary(summary);
+
+            AtomicLong payloadBytes = new AtomicLong();
+            return reader.read(body.doOnNext(buffer -> payloadBytes.addAndGet(buffer.readableByteCount())), contentType)
+                    .<BiometricData>handle((day, sink) -> {
+                        BiometricData data = ingestEngine.process(userId, day, summary);
+                        if (data != null) {
+                            sink.next(data);
+                        }
+                    })
+                    .buffer(ingestProperties.getWriteBatchSize())
+                    .concatMap(batch -> upsert(userId, batch)
+                            .doOnNext(written -> {
+                                result.add(batch.size(), written);
+                                result.setHighWaterMarks(syncStateService.advance(userId, batch));
+                            }))
+                    .then(Mono.fromCallable(() -> {
+                        if (summary.getDays() == 0) {
+                            throw new IllegalArgumentException("Aucun jour valide à sauvegarder");
+                        }
+                        ingestEngine.completed(result);
+                        return result;
+                    }).subscribeOn(Schedulers.boundedElastic()))
+                    .doFinally(signal -> ingestMetrics.payload("reactive", payloadBytes.get()));
+        });
+    }
+
+    /**
+     * Même séquence que l'upsert bloquant : dates répétées réduites → empreintes → bulk upsert réactif
+     * → échantillons HR → observateurs, mémorisation des empreintes et recalcul des rollups
+     */
+    private Mono<BulkUpsertResult> upsert(String userId, List<BiometricData> days) {
+        return Mono.fromCallable(() -> {
+                    List<BiometricData> changed = contentDedupService.filterChanged(userId,
+                            BiometricDataService.lastByDate(days));
+                    LatestVitals latest = latestVitalsService.capture(userId, changed);
+                    Runnable notifyWritten = ingestEngine.beforeWrite(changed);
+                    Runnable writeSamples = heartRateStore.beforeWrite(userId, changed);
+                    return new PreparedBatch(days, changed, latest, notifyWritten, writeSamples);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(batch -> timed(batch.changed().size(), repository.upsertAll(batch.changed()))
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(result -> {
+                            batch.writeSamples().run();
+                            batch.notifyWritten().run();
+                            contentDedupService.remember(userId, batch.changed());
+                            rollupService.apply(userId, batch.changed());
+                            latestVitalsService.apply(userId, batch.latest());
+                            result.setUnchanged(result.getUnchanged() + days.size() - batch.changed().size());
+                            ingestMetrics.upserted(result.getInserted(), result.getUpdated(), result.getUnchanged());
+
+                            log.info("✅ Upsert réactif: userId={}, jours={}, insérés={}, mis à jour={}, inchangés={}",
+                                    userId, days.size(),
+                                    result.getInserted(), result.getUpdated(), result.getUnchanged());
+                            return result;
+                        }))
+                .doOnError(e -> log.error("❌ Erreur sauvegarde réactive de {} jours: {}", days.size(), e.getMessage()));
+    }
+
+    /**
+     * Latence du bulk upsert mesurée de la souscription au résultat (healthsync.ingest.mongo.write)
+     */
+    private Mono<BulkUpsertResult> timed(int days, Mono<BulkUpsertResult> write) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return write
+                    .doOnSuccess(result -> ingestMetrics.write(days, System.nanoTime() - start, true))
+                    .doOnError(e -> ingestMetrics.write(days, System.nanoTime() - start, false));
+        });
+    }
+
+    /**
+     * Historique trié par date, émis document par document (NDJSON côté contrôleur) :
+     * pas de page à matérialiser, le client reçoit les premiers jours immédiatement
+     */
+    public Flux<BiometricData> streamUserData(String userId, LocalDate from, LocalDate to, List<String> fields) {
+        return Flux.defer(() -> {
+            String fromDate = from != null ? from.toString() : null;
+            String toDate = to != null ? to.toString() : null;
+            Set<String> projection = BiometricDataService.projection(fields);
+
+            // Mois archivés : décompression bloquante, hors event loop
+            Flux<BiometricData> archived = Mono.fromCallable(
+                            () -> archiveStore.findDays(userId, fromDate, toDate, projection))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapIterable(days -> days);
+            Flux<BiometricData> live = repository.streamRange(userId, fromDate, toDate, projection);
+            // Fusion par date ; à date égale la source live (première) passe avant et la copie archivée est écartée
+            return Flux.mergeComparing(Comparator.comparing(BiometricData::getDate), live, archived)
+                    .distinctUntilChanged(BiometricData::getDate);
+        });
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricRollup;
+import com.example.healthsync.model.RollupPeriod;
+import com.example.healthsync.model.RollupView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Agrégats hebdomadaires et mensuels par utilisateur (collection biometric_rollups).
+ * <p>
+ * Mis à jour dans le chemin d'ingestion, une fois les jours écrits : chaque bucket touché
+ * est recalculé depuis les documents jour qu'il contient ({@link #apply}) et écrit en $set.
+ * Rejouer un jour, ou l'envoyer deux fois, ne décale donc rien. Les recalculs d'un même
+ * utilisateur sont sérialisés : un recalcul démarre toujours après l'écriture des jours
+ * qu'il doit voir. Une tendance sur 12 mois lit 12 documents.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexInitializer indexInitializer;
+    private final ArchiveStore archiveStore;
+
+    // Verrous par utilisateur (répartis sur un nombre fixe de verrous)
+    private final ReentrantLock[] locks = stripes();
+
+    /**
+     * Recalcule les buckets contenant ces jours depuis les jours stockés (archives comprises).
+     * Une lecture projetée des jours des buckets, puis un bulk non ordonné, un upsert par bucket.
+     */
+    public void apply(String userId, List<BiometricData> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        Map<String, Bucket> buckets = new LinkedHashMap<>();
+        Set<String> dates = new TreeSet<>();
+        for (BiometricData day : written) {
+            LocalDate date = LocalDate.parse(day.getDate());
+            for (RollupPeriod period : RollupPeriod.values()) {
+                if (buckets.putIfAbsent(id(userId, period, date), new Bucket(period, date)) == null) {
+                    period.start(date).datesUntil(period.end(date).plusDays(1))
+                            .forEach(d -> dates.add(d.toString()));
+                }
+            }
+        }
+
+        ReentrantLock lock = lock(userId);
+        lock.lock();
+        try {
+            for (BiometricData day : storedDays(userId, dates)) {
+                LocalDate date = LocalDate.parse(day.getDate());
+                for (RollupPeriod period : RollupPeriod.values()) {
+                    Bucket bucket = buckets.get(id(userId, period, date));
+                    if (bucket != null) {
+                        bucket.add(day);
+                    }
+                }
+            }
+            write(userId, buckets);
+        } finally {
+            lock.unlock();
+        }
+
+        log.debug("📊 Agrégats recalculés: userId={}, jours={}, buckets={}", userId, written.size(), buckets.size());
+    }
+
+    /**
+     * Agrégats d'une période dont le bucket recoupe [from, to], par ordre chronologique
+     */
+    public List<RollupView> findRange(String userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("period").is(period.name())
+                        .and("start").gte(period.start(from).toString()).lte(to.toString()))
+                .with(Sort.by("start"));
+
+        List<RollupView> views = new ArrayList<>();
+        for (BiometricRollup rollup : mongoTemplate.find(query, BiometricRollup.class)) {
+            if (rollup.getDays() > 0) {
+                views.add(toView(rollup));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Recalcule tous les agrégats d'un utilisateur depuis ses documents jour, mois archivés compris
+     */
+    public int rebuild(String userId) {
+        ReentrantLock lock = lock(userId);
+        lock.lock();
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId)), BiometricRollup.class);
+
+            Query query = Query.query(Criteria.where("userId").is(userId));
+            totalsFields(query);
+
+            Map<String, Bucket> buckets = new LinkedHashMap<>();
+            Set<String> liveDates = new HashSet<>();
+            try (Stream<BiometricData> stream = mongoTemplate.stream(query, BiometricData.class)) {
+                for (BiometricData day : (Iterable<BiometricData>) stream::iterator) {
+                    liveDates.add(day.getDate());
+                    add(userId, buckets, day);
+                }
+            }
+            int days = liveDates.size();
+            // Mois archivés : agrégats gardés lisibles dans l'archive
+            try (Stream<BiometricData> stream = archiveStore.streamSummaries(userId)) {
+                for (BiometricData day : (Iterable<BiometricData>) stream::iterator) {
+                    if (!liveDates.contains(day.getDate())) {
+                        add(userId, buckets, day);
+                        days++;
+                    }
+                }
+            }
+            write(userId, buckets);
+
+            log.info("📊 Agrégats reconstruits: userId={}, jours={}", userId, days);
+            return days;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Totaux stockés des jours parmi ces dates : biometric_data, puis l'archive pour les autres
+     */
+    private List<BiometricData> storedDays(String userId, Collection<String> dates) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("date").in(dates));
+        totalsFields(query);
+        List<BiometricData> days = new ArrayList<>(mongoTemplate.find(query, BiometricData.class));
+
+        Set<String> missing = new HashSet<>(dates);
+        days.forEach(day -> missing.remove(day.getDate()));
+        days.addAll(archiveStore.findSummaries(userId, missing));
+        return days;
+    }
+
+    private static void add(String userId, Map<String, Bucket> buckets, BiometricData day) {
+        LocalDate date = LocalDate.parse(day.getDate());
+        for (RollupPeriod period : RollupPeriod.values()) {
+            buckets.computeIfAbsent(id(userId, period, date), id -> new Bucket(period, date)).add(day);
+        }
+    }
+
+    private void write(String userId, Map<String, Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        indexInitializer.ensureIndexes(BiometricRollup.class);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricRollup.class);
+        LocalDateTime now = LocalDateTime.now();
+        buckets.forEach((id, bucket) -> bulk.upsert(Query.query(Criteria.where("_id").is(id)), new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("period", bucket.period.name())
+                .setOnInsert("bucket", bucket.bucket)
+                .setOnInsert("start", bucket.start)
+                .set("days", bucket.days)
+                .set("steps", bucket.steps)
+                .set("heartRateSum", bucket.heartRateSum)
+                .set("heartRateDays", bucket.heartRateDays)
+                .set("sleepHours", bucket.sleepHours)
+                .set("distanceKm", bucket.distanceKm)
+                .set("hydrationLiters", bucket.hydrationLiters)
+                .set("heartRateMinByDay", bucket.heartRateMinByDay)
+                .set("heartRateMaxByDay", bucket.heartRateMaxByDay)
+                .set("updatedAt", now)));
+        bulk.execute();
+    }
+
+    private ReentrantLock lock(String userId) {
+        return locks[Math.floorMod(userId.hashCode(), locks.length)];
+    }
+
+    private static ReentrantLock[] stripes() {
+        ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+
+    private static String id(String userId, RollupPeriod period, LocalDate date) {
+        return userId + ":" + period + ":" + period.bucket(date);
+    }
+
+    private static void totalsFields(Query query) {
+        query.fields().include("date", "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate",
+                "totalSleepHours", "totalDistanceKm", "totalHydrationLiters");
+    }
+
+    private static RollupView toView(BiometricRollup rollup) {
+        int days = rollup.getDays();
+        Integer avgHeartRate = rollup.getHeartRateDays() > 0
+                ? (int) Math.round((double) rollup.getHeartRateSum() / rollup.getHeartRateDays())
+                : null;
+        Integer min = rollup.getHeartRateMinByDay() == null ? null
+                : rollup.getHeartRateMinByDay().values().stream().min(Integer::compare).orElse(null);
+        Integer max = rollup.getHeartRateMaxByDay() == null ? null
+                : rollup.getHeartRateMaxByDay().values().stream().max(Integer::compare).orElse(null);
+
+        return new RollupView(rollup.getPeriod(), rollup.getBucket(), rollup.getStart(), days,
+                rollup.getSteps(), Math.round((double) rollup.getSteps() / days),
+                min, avgHeartRate, max,
+                round(rollup.getSleepHours()), round(rollup.getSleepHours() / days),
+                round(rollup.getDistanceKm()), round(rollup.getHydrationLiters()));
+    }
+
+    // Sommes de doubles affichées à deux décimales
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Totaux d'un bucket, accumulés jour par jour
+     */
+    private static final class Bucket {
+
+        private final RollupPeriod period;
+        private final String bucket;
+        private final String start;
+
+        private int days;
+        private long steps;
+        private long heartRateSum;
+        private int heartRateDays;
+        private double sleepHours;
+        private double distanceKm;
+        private double hydrationLiters;
+        private final Map<String, Integer> heartRateMinByDay = new TreeMap<>();
+        private final Map<String, Integer> heartRateMaxByDay = new TreeMap<>();
+
+        private Bucket(RollupPeriod period, LocalDate date) {
+            this.period = period;
+            this.bucket = period.bucket(date);
+            this.start = period.start(date).toString();
+        }
+
+        private void add(BiometricData day) {
+            days++;
+            steps += day.getTotalSteps() != null ? day.getTotalSteps() : 0;
+            if (day.getAvgHeartRate() != null) {
+                heartRateSum += day.getAvgHeartRate();
+                heartRateDays++;
+            }
+            sleepHours += day.getTotalSleepHours() != null ? day.getTotalSleepHours() : 0;
+            distanceKm += day.getTotalDistanceKm() != null ? day.getTotalDistanceKm() : 0;
+            hydrationLiters += day.getTotalHydrationLiters() != null ? day.getTotalHydrationLiters() : 0;
+            if (day.getMinHeartRate() != null) {
+                heartRateMinByDay.put(day.getDate(), day.getMinHeartRate());
+            }
+            if (day.getMaxHeartRate() != null) {
+                heartRateMaxByDay.put(day.getDate(), day.getMaxHeartRate());
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.SyncState;
+import com.example.healthsync.repository.SyncStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * High-water marks par utilisateur et par type d'enregistrement.
+ * Les heures sont au format "yyyy-MM-dd HH:mm:ss" : l'ordre lexicographique est l'ordre chronologique.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncStateService {
+
+    private final SyncStateRepository repository;
+    private final MongoTemplate mongoTemplate;
+
+    public Map<String, String> getHighWaterMarks(String userId) {
+        return repository.findById(userId)
+                .map(SyncState::getHighWaterMarks)
+                .orElseGet(HashMap::new);
+    }
+
+    /**
+     * Avance les high-water marks avec $max (jamais de recul) en un seul update
+     */
+    public Map<String, String> advance(String userId, List<BiometricData> days) {
+        Map<String, String> marks = highWaterMarks(days);
+        if (marks.isEmpty()) {
+            return getHighWaterMarks(userId);
+        }
+
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        marks.forEach((type, time) -> update.max("highWaterMarks." + type, time));
+
+        SyncState state = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SyncState.class);
+
+        log.debug("🔖 High-water marks {}: {}", userId, state.getHighWaterMarks());
+        return state.getHighWaterMarks();
+    }
+
+    static Map<String, String> highWaterMarks(List<BiometricData> days) {
+        Map<String, String> marks = new HashMap<>();
+        for (BiometricData day : days) {
+            track(marks, "steps", day.getSteps(), BiometricData.StepRecord::getEndTime);
+            track(marks, "heartRate", day.getHeartRate(), BiometricData.HeartRateRecord::getEndTime);
+            track(marks, "distance", day.getDistance(), BiometricData.DistanceRecord::getEndTime);
+            track(marks, "sleep", day.getSleep(), BiometricData.SleepRecord::getEndTime);
+            track(marks, "exercise", day.getExercise(), BiometricData.ExerciseRecord::getEndTime);
+            track(marks, "oxygenSaturation", day.getOxygenSaturation(), BiometricData.OxygenSaturationRecord::getTime);
+            track(marks, "bodyTemperature", day.getBodyTemperature(), BiometricData.BodyTemperatureRecord::getTime);
+            track(marks, "bloodPressure", day.getBloodPressure(), BiometricData.BloodPressureRecord::getTime);
+            track(marks, "weight", day.getWeight(), BiometricData.WeightRecord::getTime);
+            track(marks, "height", day.getHeight(), BiometricData.HeightRecord::getTime);
+            track(marks, "hydration", day.getHydration(), BiometricData.HydrationRecord::getTime);
+        }
+        return marks;
+    }
+
+    private static <T> void track(Map<String, String> marks, String type, List<T> records, Function<T, String> time) {
+        if (records == null) {
+            return;
+        }
+        for (T record : records) {
+            String value = time.apply(record);
+            if (value != null) {
+                marks.merge(type, value, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.StorageProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HeartRatePoint;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import lombok.RequiredArgsConstructor;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Backend historique : les échantillons restent dans les documents jour (biometric_data),
+ * en tableau BSON ou, si healthsync.storage.compact-samples=true, en binaire compact
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "healthsync.storage.heart-rate", havingValue = "embedded", matchIfMissing = true)
+public class EmbeddedHeartRateStore implements HeartRateStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final StorageProperties storageProperties;
+    private final ArchiveStore archiveStore;
+
+    @Override
+    public Runnable beforeWrite(String userId, List<BiometricData> days) {
+        if (storageProperties.isCompactSamples()) {
+            for (BiometricData day : days) {
+                if (day.getHeartRate() != null) {
+                    day.getHeartRate().forEach(BiometricData.HeartRateRecord::pack);
+                }
+            }
+        }
+        // Échantillons écrits avec les documents jour : rien à faire ensuite
+        return () -> { };
+    }
+
+    @Override
+    public List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to) {
+        String fromDate = from.toLocalDate().toString();
+        String toDate = to.toLocalDate().toString();
+        Query query = Query.query(Criteria.where("userId").is(userId).and("date").gte(fromDate).lte(toDate));
+        query.fields().include("date", "heartRate");
+
+        List<BiometricData> days = mongoTemplate.find(query, BiometricData.class);
+        Set<String> liveDates = new HashSet<>();
+        days.forEach(day -> liveDates.add(day.getDate()));
+        for (BiometricData day : archiveStore.findDays(userId, fromDate, toDate, List.of("heartRate"))) {
+            if (!liveDates.contains(day.getDate())) {
+                days.add(day);
+            }
+        }
+
+        List<HeartRatePoint> points = new ArrayList<>();
+        for (BiometricData day : days) {
+            if (day.getHeartRate() == null) {
+                continue;
+            }
+            for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+                long[] samples = record.sampleArray();
+                if (samples.length == 0 || record.getStartTime() == null) {
+                    continue;
+                }
+                LocalDateTime start = SampleTimes.parse(record.getStartTime());
+                LocalDateTime end = record.getEndTime() != null ? SampleTimes.parse(record.getEndTime()) : start;
+                for (int i = 0; i < samples.length; i++) {
+                    LocalDateTime time = SampleTimes.at(start, end, i, samples.length);
+                    if (!time.isBefore(from) && time.isBefore(to)) {
+                        points.add(new HeartRatePoint(time, (int) samples[i]));
+                    }
+                }
+            }
+        }
+        points.sort(Comparator.comparing(HeartRatePoint::getTime));
+        return points;
+    }
+
+    @Override
+    public HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to) {
+        HeartRateSeries series = new HeartRateSeries(1024);
+        RawHeartRateReader reader = new RawHeartRateReader();
+        long fromMillis = SampleTimes.toMillis(from);
+        long toMillis = SampleTimes.toMillis(to);
+
+        String fromDate = from.toLocalDate().toString();
+        String toDate = to.toLocalDate().toString();
+
+        // Documents bruts : les échantillons sont lus depuis les octets BSON, sans mapping
+        Iterable<RawBsonDocument> days = mongoTemplate.getCollection(mongoTemplate.getCollectionName(BiometricData.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(Filters.and(
+                        Filters.eq("userId", userId),
+                        Filters.gte("date", fromDate),
+                        Filters.lte("date", toDate)))
+                .projection(Projections.include("date", "heartRate"))
+                .sort(Sorts.ascending("date"));
+        Set<String> liveDates = new HashSet<>();
+        for (RawBsonDocument day : days) {
+            liveDates.add(day.getString("date").getValue());
+            reader.read(day, fromMillis, toMillis, series);
+        }
+        // Mois archivés : mêmes octets BSON, une fois l'archive décompressée
+        for (RawBsonDocument day : archiveStore.findRawDays(userId, fromDate, toDate)) {
+            if (!liveDates.contains(day.getString("date").getValue())) {
+                reader.read(day, fromMillis, toMillis, series);
+            }
+        }
+        series.sortByTime();
+        return series;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.healthsync.storage;
+
+import java.util.Arrays;
+
+/**
+ * Série HR en tableaux primitifs (heure en millisecondes locales, bpm), sans objet par échantillon.
+ * Sert aux calculs sur de longues plages (graphiques, détection) là où des
+ * {@link com.example.healthsync.model.HeartRatePoint} coûteraient trop cher.
+ */
+public final class HeartRateSeries {
+
+    private long[] times;
+    private int[] bpm;
+    private int size;
+
+    public HeartRateSeries(int initialCapacity) {
+        this.times = new long[Math.max(16, initialCapacity)];
+        this.bpm = new int[times.length];
+    }
+
+    public void add(long timeMillis, int value) {
+        if (size == times.length) {
+            int capacity = size + (size >> 1);
+            times = Arrays.copyOf(times, capacity);
+            bpm = Arrays.copyOf(bpm, capacity);
+        }
+        times[size] = timeMillis;
+        bpm[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timeAt(int index) {
+        return times[index];
+    }
+
+    public int bpmAt(int index) {
+        return bpm[index];
+    }
+
+    /** Tableaux internes (valides sur [0, size)) */
+    public long[] times() {
+        return times;
+    }
+
+    public int[] bpm() {
+        return bpm;
+    }
+
+    /**
+     * Trie par heure si nécessaire. Les enregistrements arrivent en général dans l'ordre :
+     * on ne trie que si une inversion est détectée.
+     */
+    public void sortByTime() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = times[i - 1] <= times[i];
+        }
+        if (sorted) {
+            return;
+        }
+        // Heure et bpm empaquetés dans un long (bpm < 2^16, heure < 2^47) : tri primitif
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (times[i] << 16) | (bpm[i] & 0xFFFF);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            times[i] = keys[i] >> 16;
+            bpm[i] = (int) (keys[i] & 0xFFFF);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HeartRatePoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage des échantillons de fréquence cardiaque
+ * (sélection par healthsync.storage.heart-rate = embedded | timeseries)
+ */
+public interface HeartRateStore {
+
+    /**
+     * Appelé avant l'écriture des documents jour : un backend externe peut y retirer
+     * les échantillons des documents. Il les persiste dans l'action renvoyée, à exécuter
+     * une fois les documents écrits : un upsert en échec ne laisse pas d'échantillons orphelins.
+     */
+    Runnable beforeWrite(String userId, List<BiometricData> days);
+
+    /**
+     * Échantillons d'un utilisateur entre from (inclus) et to (exclu), triés par heure
+     */
+    List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Même plage en tableaux primitifs (heures en millisecondes locales, voir
+     * {@link SampleTimes#toMillis}), pour les traitements sur de longues périodes
+     */
+    HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Échantillons stockés hors des documents jour pour ces enregistrements, par {@link #recordKey}.
+     * Vide par défaut : les échantillons sont dans les documents.
+     */
+    default Map<String, List<Long>> findRecordSamples(String userId, List<BiometricData.HeartRateRecord> records) {
+        return Map.of();
+    }
+
+    /**
+     * Identifie un enregistrement FC : deux sources sur la même période restent distinctes
+     */
+    static String recordKey(BiometricData.HeartRateRecord record) {
+        return record.getStartTime() + "|" + record.getEndTime()
+                + (record.getDataOrigin() != null ? "|" + record.getDataOrigin() : "");
+    }
+}
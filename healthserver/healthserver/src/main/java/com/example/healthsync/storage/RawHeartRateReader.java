@@ -0,0 +1,111 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.util.SampleCodec;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+
+import java.util.Arrays;
+
+/**
+ * Lit les échantillons HR d'un document jour directement depuis ses octets BSON,
+ * vers une {@link HeartRateSeries} : ni List&lt;Long&gt;, ni objet par échantillon.
+ * Accepte les tableaux "samples" (int32, int64 ou double) et le binaire "packedSamples".
+ * Non thread-safe : une instance par lecture.
+ */
+final class RawHeartRateReader {
+
+    private long[] scratch = new long[256];
+    private int scratchSize;
+    private String startTime;
+    private String endTime;
+
+    /**
+     * Ajoute à out les échantillons du jour compris dans [from, to) (millisecondes locales)
+     */
+    void read(RawBsonDocument day, long from, long to, HeartRateSeries out) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(day.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                if ("heartRate".equals(reader.readName()) && reader.getCurrentBsonType() == BsonType.ARRAY) {
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                            readRecord(reader, from, to, out);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.readEndArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+        }
+    }
+
+    private void readRecord(BsonBinaryReader reader, long from, long to, HeartRateSeries out) {
+        scratchSize = 0;
+        startTime = null;
+        endTime = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            BsonType type = reader.getCurrentBsonType();
+            if ("startTime".equals(name) && type == BsonType.STRING) {
+                startTime = reader.readString();
+            } else if ("endTime".equals(name) && type == BsonType.STRING) {
+                endTime = reader.readString();
+            } else if ("samples".equals(name) && type == BsonType.ARRAY) {
+                readSamples(reader);
+            } else if ("packedSamples".equals(name) && type == BsonType.BINARY) {
+                long[] decoded = SampleCodec.decode(reader.readBinaryData().getData());
+                ensureCapacity(decoded.length);
+                System.arraycopy(decoded, 0, scratch, 0, decoded.length);
+                scratchSize = decoded.length;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (scratchSize == 0 || startTime == null) {
+            return;
+        }
+        long start = SampleTimes.toMillis(SampleTimes.parse(startTime));
+        long end = endTime != null ? SampleTimes.toMillis(SampleTimes.parse(endTime)) : start;
+        for (int i = 0; i < scratchSize; i++) {
+            long time = SampleTimes.atMillis(start, end, i, scratchSize);
+            if (time >= from && time < to) {
+                out.add(time, (int) scratch[i]);
+            }
+        }
+    }
+
+    private void readSamples(BsonBinaryReader reader) {
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            long value;
+            switch (reader.getCurrentBsonType()) {
+                case INT64 -> value = reader.readInt64();
+                case INT32 -> value = reader.readInt32();
+                case DOUBLE -> value = Math.round(reader.readDouble());
+                default -> {
+                    reader.skipValue();
+                    continue;
+                }
+            }
+            ensureCapacity(scratchSize + 1);
+            scratch[scratchSize++] = value;
+        }
+        reader.readEndArray();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(capacity, scratch.length * 2));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.healthsync.storage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * L'app Android n'envoie que les bpm d'un HeartRateRecord : l'heure de chaque échantillon
+ * est répartie uniformément entre startTime et endTime (heure locale du téléphone).
+ */
+public final class SampleTimes {
+
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private SampleTimes() {
+    }
+
+    public static LocalDateTime parse(String time) {
+        return LocalDateTime.parse(time, FORMAT);
+    }
+
+    /**
+     * Heure du i-ème échantillon sur count, entre start et end
+     */
+    public static LocalDateTime at(LocalDateTime start, LocalDateTime end, int index, int count) {
+        if (count <= 1 || !end.isAfter(start)) {
+            return start;
+        }
+        long spanMillis = Duration.between(start, end).toMillis();
+        return start.plusNanos(spanMillis * index / (count - 1) * 1_000_000L);
+    }
+
+    /**
+     * Heure locale en millisecondes "epoch" (heure locale lue comme UTC) : sert d'abscisse
+     * numérique sans tenir compte du fuseau du téléphone
+     */
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Équivalent de toMillis(parse(time)) sans passer par le DateTimeFormatter
+     * (format "yyyy-MM-dd HH:mm:ss" lu chiffre à chiffre) ; sinon même exception que parse
+     */
+    public static long parseMillis(String time) {
+        if (time.length() == 19 && time.charAt(4) == '-' && time.charAt(7) == '-' && time.charAt(10) == ' '
+                && time.charAt(13) == ':' && time.charAt(16) == ':') {
+            int year = digits(time, 0, 4);
+            int month = digits(time, 5, 2);
+            int day = digits(time, 8, 2);
+            int hour = digits(time, 11, 2);
+            int minute = digits(time, 14, 2);
+            int second = digits(time, 17, 2);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= YearMonth.of(year, month).lengthOfMonth()
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60) {
+                long days = LocalDate.of(year, month, day).toEpochDay();
+                return ((days * 24 + hour) * 60 + minute) * 60_000 + second * 1000L;
+            }
+        }
+        return toMillis(parse(time));
+    }
+
+    // -1 si un caractère n'est pas un chiffre
+    private static int digits(String text, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Équivalent de {@link #at} en millisecondes, sans allocation
+     */
+    public static long atMillis(long start, long end, int index, int count) {
+        if (count <= 1 || end <= start) {
+            return start;
+        }
+        return start + (end - start) * index / (count - 1);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HeartRatePoint;
+import com.example.healthsync.model.HeartRateSample;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Échantillons HR dans une collection time-series MongoDB (heart_rate_samples) :
+ * stockage compressé par buckets et scans par plage de temps rapides.
+ * Les documents jour ne gardent que startTime/endTime et les agrégats.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "healthsync.storage.heart-rate", havingValue = "timeseries")
+public class TimeSeriesHeartRateStore implements HeartRateStore {
+
+    private final MongoTemplate mongoTemplate;
+    private volatile boolean collectionReady;
+    private final ReentrantLock collectionLock = new ReentrantLock();
+
+    /**
+     * Les échantillons sont rattachés à leur enregistrement (champ record) : un enregistrement renvoyé
+     * remplace les siens, sans toucher à ceux d'un enregistrement contigu ou d'une autre source.
+     * Toutes les suppressions passent avant les insertions du lot.
+     */
+    @Override
+    public Runnable beforeWrite(String userId, List<BiometricData> days) {
+        Set<String> keys = new LinkedHashSet<>();
+        List<Criteria> unkeyed = new ArrayList<>();
+        List<HeartRateSample> inserts = new ArrayList<>();
+
+        for (BiometricData day : days) {
+            if (day.getHeartRate() == null) {
+                continue;
+            }
+            for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+                long[] samples = record.sampleArray();
+                if (samples.length == 0 || record.getStartTime() == null) {
+                    continue;
+                }
+                LocalDateTime start = SampleTimes.parse(record.getStartTime());
+                LocalDateTime end = record.getEndTime() != null ? SampleTimes.parse(record.getEndTime()) : start;
+                String key = HeartRateStore.recordKey(record);
+                keys.add(key);
+                // Échantillons écrits avant le champ record : retrouvés par leur période seulement
+                unkeyed.add(Criteria.where("timestamp").gte(start).lte(end));
+
+                for (int i = 0; i < samples.length; i++) {
+                    inserts.add(new HeartRateSample(null, userId,
+                            SampleTimes.at(start, end, i, samples.length), (int) samples[i], key));
+                }
+                record.setSamples(null);
+                record.setPackedSamples(null);
+            }
+        }
+
+        if (inserts.isEmpty()) {
+            return () -> { };
+        }
+        ensureCollection();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, HeartRateSample.class);
+        bulk.remove(Query.query(Criteria.where("userId").is(userId).and("record").in(keys)));
+        bulk.remove(Query.query(Criteria.where("userId").is(userId).and("record").exists(false)
+                .orOperator(unkeyed)));
+        bulk.insert(inserts);
+        return () -> {
+            bulk.execute();
+            log.debug("💓 {} échantillons HR écrits en time-series pour {}", inserts.size(), userId);
+        };
+    }
+
+    @Override
+    public Map<String, List<Long>> findRecordSamples(String userId, List<BiometricData.HeartRateRecord> records) {
+        Map<String, List<Long>> byRecord = new HashMap<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (BiometricData.HeartRateRecord record : records) {
+            if (record.getStartTime() == null) {
+                continue;
+            }
+            LocalDateTime start = SampleTimes.parse(record.getStartTime());
+            LocalDateTime end = record.getEndTime() != null ? SampleTimes.parse(record.getEndTime()) : start;
+            from = from == null || start.isBefore(from) ? start : from;
+            to = to == null || end.isAfter(to) ? end : to;
+        }
+        if (from == null) {
+            return byRecord;
+        }
+
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("timestamp").gte(from).lte(to))
+                .with(Sort.by("timestamp"));
+        query.fields().include("timestamp", "bpm", "record").exclude("_id");
+        List<HeartRateSample> unkeyed = new ArrayList<>();
+        for (HeartRateSample sample : mongoTemplate.find(query, HeartRateSample.class)) {
+            if (sample.getRecord() == null) {
+                unkeyed.add(sample);
+            } else {
+                byRecord.computeIfAbsent(sample.getRecord(), key -> new ArrayList<>()).add((long) sample.getBpm());
+            }
+        }
+
+        // Enregistrement sans échantillon rattaché (écrit avant le champ record) : par période
+        for (BiometricData.HeartRateRecord record : records) {
+            String key = HeartRateStore.recordKey(record);
+            if (record.getStartTime() == null || byRecord.containsKey(key) || unkeyed.isEmpty()) {
+                continue;
+            }
+            LocalDateTime start = SampleTimes.parse(record.getStartTime());
+            LocalDateTime end = record.getEndTime() != null ? SampleTimes.parse(record.getEndTime()) : start;
+            List<Long> samples = new ArrayList<>();
+            for (HeartRateSample sample : unkeyed) {
+                if (!sample.getTimestamp().isBefore(start) && !sample.getTimestamp().isAfter(end)) {
+                    samples.add((long) sample.getBpm());
+                }
+            }
+            if (!samples.isEmpty()) {
+                byRecord.put(key, samples);
+            }
+        }
+        return byRecord;
+    }
+
+    @Override
+    public List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                        .and("timestamp").gte(from).lt(to))
+                .with(Sort.by("timestamp"));
+        query.fields().include("timestamp", "bpm").exclude("_id");
+
+        List<HeartRateSample> samples = mongoTemplate.find(query, HeartRateSample.class);
+        List<HeartRatePoint> points = new ArrayList<>(samples.size());
+        for (HeartRateSample sample : samples) {
+            points.add(new HeartRatePoint(sample.getTimestamp(), sample.getBpm()));
+        }
+        return points;
+    }
+
+    @Override
+    public HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to) {
+        // Les LocalDateTime sont stockés en dates BSON dans le fuseau du serveur (conversion Spring Data)
+        ZoneId zone = ZoneId.systemDefault();
+        ZoneRules rules = zone.getRules();
+        HeartRateSeries series = new HeartRateSeries(1024);
+
+        Iterable<RawBsonDocument> samples = mongoTemplate.getCollection(mongoTemplate.getCollectionName(HeartRateSample.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(Filters.and(
+                        Filters.eq("userId", userId),
+                        Filters.gte("timestamp", Date.from(from.atZone(zone).toInstant())),
+                        Filters.lt("timestamp", Date.from(to.atZone(zone).toInstant()))))
+                .projection(Projections.fields(Projections.include("timestamp", "bpm"), Projections.excludeId()))
+                .sort(Sorts.ascending("timestamp"));
+
+        for (RawBsonDocument sample : samples) {
+            long instant = Long.MIN_VALUE;
+            int bpm = 0;
+            try (BsonBinaryReader reader = new BsonBinaryReader(sample.getByteBuffer().asNIO())) {
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    String name = reader.readName();
+                    if ("timestamp".equals(name) && reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+                        instant = reader.readDateTime();
+                    } else if ("bpm".equals(name) && reader.getCurrentBsonType() == BsonType.INT32) {
+                        bpm = reader.readInt32();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.readEndDocument();
+            }
+            if (instant != Long.MIN_VALUE) {
+                int offsetSeconds = rules.isFixedOffset()
+                        ? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+                        : rules.getOffset(Instant.ofEpochMilli(instant)).getTotalSeconds();
+                series.add(instant + offsetSeconds * 1000L, bpm);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * La collection doit être créée explicitement en time-series avant le premier insert
+     */
+    private void ensureCollection() {
+        if (collectionReady) {
+            return;
+        }
+        collectionLock.lock();
+        try {
+            if (!collectionReady) {
+                if (!mongoTemplate.collectionExists(HeartRateSample.class)) {
+                    mongoTemplate.createCollection(HeartRateSample.class);
+                    log.info("🗂️ Collection time-series heart_rate_samples créée");
+                }
+                collectionReady = true;
+            }
+        } finally {
+            collectionLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.healthsync.util;
+
+import com.example.healthsync.exception.IngestLimitExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream qui compte les octets lus et échoue dès que la limite est dépassée,
+ * sans jamais bufferiser le contenu
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            add(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        int n = super.read(buffer, off, len);
+        if (n > 0) {
+            add(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        add(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void add(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new IngestLimitExceededException(
+                    "Payload trop volumineux: limite de " + maxBytes + " octets dépassée");
+        }
+    }
+}
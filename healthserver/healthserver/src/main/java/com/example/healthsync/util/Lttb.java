@@ -0,0 +1,97 @@
+package com.example.healthsync.util;
+
+/**
+ * Sous-échantillonnage Largest-Triangle-Three-Buckets : garde, dans chaque bucket,
+ * le point formant le plus grand triangle avec le point retenu précédent et la moyenne
+ * du bucket suivant. Conserve la forme visuelle (pics, creux) d'une série.
+ * Renvoie aussi le min/max de chaque bucket pour tracer une enveloppe.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Résultat : indices retenus dans la série d'origine et enveloppe de leur bucket
+     */
+    public record Result(int[] indices, int[] min, int[] max) {
+
+        public int size() {
+            return indices.length;
+        }
+    }
+
+    /**
+     * @param x         abscisses croissantes
+     * @param y         valeurs
+     * @param count     nombre de points valides dans x / y
+     * @param threshold nombre de points voulus (au moins 3, sinon la série est gardée entière)
+     */
+    public static Result downsample(long[] x, int[] y, int count, int threshold) {
+        if (threshold < 3 || count <= threshold) {
+            int[] indices = new int[count];
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = i;
+                values[i] = y[i];
+            }
+            return new Result(indices, values, values.clone());
+        }
+
+        int[] indices = new int[threshold];
+        int[] min = new int[threshold];
+        int[] max = new int[threshold];
+
+        // Premier et dernier point gardés tels quels, threshold - 2 buckets entre les deux
+        double every = (double) (count - 2) / (threshold - 2);
+        long origin = x[0];  // abscisses relatives : précision des doubles préservée
+        int a = 0;
+        indices[0] = 0;
+        min[0] = y[0];
+        max[0] = y[0];
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int from = (int) (bucket * every) + 1;
+            int to = (int) ((bucket + 1) * every) + 1;
+
+            // Moyenne du bucket suivant (le dernier point pour le dernier bucket)
+            int nextFrom = to;
+            int nextTo = Math.min((int) ((bucket + 2) * every) + 1, count);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                avgX += x[i] - origin;
+                avgY += y[i];
+            }
+            int nextSize = nextTo - nextFrom;
+            avgX /= nextSize;
+            avgY /= nextSize;
+
+            double ax = x[a] - origin;
+            double ay = y[a];
+            double maxArea = -1;
+            int selected = from;
+            int bucketMin = Integer.MAX_VALUE;
+            int bucketMax = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - (x[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+                bucketMin = Math.min(bucketMin, y[i]);
+                bucketMax = Math.max(bucketMax, y[i]);
+            }
+
+            indices[bucket + 1] = selected;
+            min[bucket + 1] = bucketMin;
+            max[bucket + 1] = bucketMax;
+            a = selected;
+        }
+
+        indices[threshold - 1] = count - 1;
+        min[threshold - 1] = y[count - 1];
+        max[threshold - 1] = y[count - 1];
+        return new Result(indices, min, max);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.healthsync.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodage compact des échantillons HR : nombre d'échantillons puis deltas successifs,
+ * en zig-zag varint. Des bpm voisins tiennent en général sur 1 octet par échantillon,
+ * contre ~16 octets pour un tableau BSON d'int64.
+ */
+public final class SampleCodec {
+
+    private SampleCodec() {
+    }
+
+    public static byte[] encode(List<Long> samples) {
+        long[] values = new long[samples.size()];
+        int count = 0;
+        for (Long sample : samples) {
+            if (sample != null) {
+                values[count++] = sample;
+            }
+        }
+        return encode(values, count);
+    }
+
+    public static byte[] encode(long[] samples, int count) {
+        byte[] buffer = new byte[5 + count * 10];
+        int pos = writeVarint(buffer, 0, count);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            pos = writeVarint(buffer, pos, zigZag(samples[i] - previous));
+            previous = samples[i];
+        }
+        return Arrays.copyOf(buffer, pos);
+    }
+
+    public static long[] decode(byte[] packed) {
+        int[] pos = {0};
+        int count = (int) readVarint(packed, pos);
+        long[] samples = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unZigZag(readVarint(packed, pos));
+            samples[i] = previous;
+        }
+        return samples;
+    }
+
+    /**
+     * Nombre d'échantillons, sans décoder le reste du tableau
+     */
+    public static int count(byte[] packed) {
+        return (int) readVarint(packed, new int[]{0});
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarint(byte[] buffer, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.healthsync.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques de compression HTTP, par sens (request | response) et encodage (gzip | zstd) :
+ * <ul>
+ *   <li>healthsync.http.compression.ratio : taille brute / taille compressée</li>
+ *   <li>healthsync.http.compression.bytes : octets bruts et compressés (tag kind)</li>
+ *   <li>healthsync.http.compression.cpu : temps CPU passé à (dé)compresser</li>
+ *   <li>healthsync.http.compression.skipped : réponses non compressées (sous le seuil)</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class CompressionMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final MeterRegistry registry;
+
+    /**
+     * Temps CPU du thread courant (temps écoulé si la JVM ne le mesure pas)
+     */
+    static long cpuNanos() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    void record(String direction, String encoding, long rawBytes, long encodedBytes, long cpuNanos) {
+        if (encodedBytes > 0) {
+            DistributionSummary.builder("healthsync.http.compression.ratio")
+                    .description("Taille brute / taille compressée")
+                    .tags("direction", direction, "encoding", encoding)
+                    .register(registry)
+                    .record((double) rawBytes / encodedBytes);
+        }
+        bytes(direction, encoding, "raw").increment(rawBytes);
+        bytes(direction, encoding, "encoded").increment(encodedBytes);
+        Timer.builder("healthsync.http.compression.cpu")
+                .description("Temps CPU de compression / décompression")
+                .tags("direction", direction, "encoding", encoding)
+                .register(registry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void skipped(long rawBytes) {
+        DistributionSummary.builder("healthsync.http.compression.skipped")
+                .description("Réponses sous le seuil de compression (taille en octets)")
+                .baseUnit("bytes")
+                .register(registry)
+                .record(rawBytes);
+    }
+
+    private Counter bytes(String direction, String encoding, String kind) {
+        return Counter.builder("healthsync.http.compression.bytes")
+                .baseUnit("bytes")
+                .tags("direction", direction, "encoding", encoding, "kind", kind)
+                .register(registry);
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.healthsync.web;
+
+import com.example.healthsync.config.CompressionProperties;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.util.LimitedInputStream;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Décompresse les corps de requête envoyés avec Content-Encoding: gzip ou zstd.
+ * Le corps est décodé à la volée (jamais bufferisé) et plafonné à
+ * healthsync.compression.max-decompressed-bytes : au-delà, 413.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final List<String> HIDDEN_HEADERS = List.of(
+            HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT), HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT));
+
+    private final CompressionProperties properties;
+    private final CompressionMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return !properties.isRequestEnabled() || encoding == null || encoding.equalsIgnoreCase("identity");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        if (!encoding.equals("gzip") && !encoding.equals("zstd")) {
+            reject(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Content-Encoding non supporté: " + encoding);
+            return;
+        }
+
+        DecompressingRequest decompressing = new DecompressingRequest(request, encoding);
+        try {
+            chain.doFilter(decompressing, response);
+        } catch (IngestLimitExceededException e) {
+            tooLarge(response, e);
+        } catch (ServletException e) {
+            IngestLimitExceededException limit = findLimit(e);
+            if (limit == null) {
+                throw e;
+            }
+            tooLarge(response, limit);
+        } finally {
+            decompressing.recordMetrics();
+        }
+    }
+
+    private void tooLarge(HttpServletResponse response, IngestLimitExceededException e) throws IOException {
+        log.warn("⛔ Requête décompressée trop volumineuse: {}", e.getMessage());
+        reject(response, HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.resetBuffer();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("❌ Erreur: " + message);
+    }
+
+    // Une IngestLimitExceededException levée pendant la lecture du @RequestBody arrive enveloppée
+    private static IngestLimitExceededException findLimit(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IngestLimitExceededException limit) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Requête vue sans Content-Encoding ni Content-Length, dont le corps est décompressé
+     */
+    private class DecompressingRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private LimitedInputStream compressed;
+        private DecompressingInputStream body;
+        private BufferedReader reader;
+
+        DecompressingRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (body == null) {
+                compressed = new LimitedInputStream(super.getInputStream(), Long.MAX_VALUE);
+                body = new DecompressingInputStream(this::openDecoder);
+            }
+            return body;
+        }
+
+        private InputStream openDecoder() throws IOException {
+            InputStream decoder = encoding.equals("gzip")
+                    ? new GZIPInputStream(compressed, 8192)
+                    : new ZstdInputStream(compressed);
+            return new LimitedInputStream(decoder, properties.getMaxDecompressedBytes());
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String charset = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                        charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return hidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(this::hidden);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return hidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private boolean hidden(String name) {
+            return HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+        }
+
+        void recordMetrics() {
+            if (body != null) {
+                metrics.record("request", encoding, body.decoded, compressed.getCount(), body.cpuNanos);
+            }
+        }
+    }
+
+    private interface DecoderOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Corps décompressé ; le décodeur est ouvert à la première lecture (GZIPInputStream lit l'en-tête)
+     */
+    private static class DecompressingInputStream extends ServletInputStream {
+
+        private final DecoderOpener opener;
+        private InputStream decoder;
+        private boolean finished;
+        long decoded;
+        long cpuNanos;
+
+        DecompressingInputStream(DecoderOpener opener) {
+            this.opener = opener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (finished) {
+                return -1;
+            }
+            long start = CompressionMetrics.cpuNanos();
+            try {
+                if (decoder == null) {
+                    decoder = opener.open();
+                }
+                int n = decoder.read(buffer, off, len);
+                if (n == -1) {
+                    finished = true;
+                } else {
+                    decoded += n;
+                }
+                return n;
+            } finally {
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Lecture non bloquante non supportée sur un corps compressé");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (decoder != null) {
+                decoder.close();
+            }
+        }
+    }
+}
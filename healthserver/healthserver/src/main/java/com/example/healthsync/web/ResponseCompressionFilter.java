@@ -0,0 +1,350 @@
+package com.example.healthsync.web;
+
+import com.example.healthsync.config.CompressionProperties;
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresse les réponses (gzip ou zstd selon Accept-Encoding) dont le type est listé dans
+ * healthsync.compression.mime-types. Les premiers octets sont gardés en mémoire : une réponse
+ * qui reste sous healthsync.compression.min-response-bytes part telle quelle.
+ * Les réponses asynchrones (streaming) sont terminées lors du dispatch asynchrone.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private final CompressionProperties properties;
+    private final CompressionMetrics metrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isResponseEnabled() || "HEAD".equals(request.getMethod()) || negotiate(request) == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressing == null) {
+            compressing = new CompressingResponse(response, negotiate(request));
+        }
+        chain.doFilter(request, compressing);
+        if (!isAsyncStarted(request)) {
+            compressing.finish();
+        }
+    }
+
+    /**
+     * Encodage accepté par le client : zstd de préférence, sinon gzip (q=0 exclut)
+     */
+    static String negotiate(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return null;
+        }
+        boolean gzip = false;
+        for (String part : accept.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean refused = tokens.length > 1 && tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (refused) {
+                continue;
+            }
+            if (coding.equals("zstd")) {
+                return "zstd";
+            }
+            gzip |= coding.equals("gzip");
+        }
+        return gzip ? "gzip" : null;
+    }
+
+    private enum State { BUFFERING, COMPRESSING, PASSTHROUGH }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        private final byte[] buffer = new byte[properties.getMinResponseBytes()];
+        private int buffered;
+        private State state = State.BUFFERING;
+
+        private CountingOutputStream wire;
+        private OutputStream encoder;
+        private long raw;
+        private long cpuNanos;
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() déjà appelé");
+            }
+            if (outputStream == null) {
+                outputStream = new BodyStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() déjà appelé");
+                }
+                outputStream = new BodyStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        // La taille finale n'est connue qu'une fois la décision de compression prise
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (outputStream != null) {
+                outputStream.flush();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (state == State.BUFFERING) {
+                buffered = 0;
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (state == State.BUFFERING) {
+                buffered = 0;
+            }
+            super.reset();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            state = State.PASSTHROUGH;
+            buffered = 0;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            state = State.PASSTHROUGH;
+            buffered = 0;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            state = State.PASSTHROUGH;
+            buffered = 0;
+            super.sendRedirect(location);
+        }
+
+        private void write(byte[] bytes, int off, int len) throws IOException {
+            if (state == State.BUFFERING) {
+                if (buffered + len <= buffer.length) {
+                    System.arraycopy(bytes, off, buffer, buffered, len);
+                    buffered += len;
+                    return;
+                }
+                decide();
+            }
+            if (state == State.COMPRESSING) {
+                long start = CompressionMetrics.cpuNanos();
+                encoder.write(bytes, off, len);
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+                raw += len;
+            } else {
+                getResponse().getOutputStream().write(bytes, off, len);
+            }
+        }
+
+        /**
+         * Seuil dépassé : compression si le type s'y prête, puis vidage du tampon
+         */
+        private void decide() throws IOException {
+            if (compressible()) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+                super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                wire = new CountingOutputStream(getResponse().getOutputStream());
+                encoder = encoding.equals("zstd") ? new ZstdOutputStream(wire) : new GZIPOutputStream(wire, 8192, true);
+                state = State.COMPRESSING;
+            } else {
+                state = State.PASSTHROUGH;
+            }
+            int pending = buffered;
+            buffered = 0;
+            write(buffer, 0, pending);
+        }
+
+        private boolean compressible() {
+            if (getHeader(HttpHeaders.CONTENT_ENCODING) != null || getContentType() == null) {
+                return false;
+            }
+            MediaType type = MediaType.parseMediaType(getContentType());
+            return properties.getMimeTypes().stream().map(MediaType::parseMediaType).anyMatch(type::isCompatibleWith);
+        }
+
+        private void flushBody() throws IOException {
+            if (state == State.COMPRESSING) {
+                long start = CompressionMetrics.cpuNanos();
+                encoder.flush();
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+            }
+            if (state != State.BUFFERING) {
+                getResponse().getOutputStream().flush();
+            }
+            // En tampon : on attend le seuil ou la fin de la réponse
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.BUFFERING) {
+                state = State.PASSTHROUGH;
+                if (buffered > 0) {
+                    if (compressible()) {
+                        metrics.skipped(buffered);
+                    }
+                    if (!isCommitted()) {
+                        super.setContentLength(buffered);
+                    }
+                    getResponse().getOutputStream().write(buffer, 0, buffered);
+                    buffered = 0;
+                }
+            } else if (state == State.COMPRESSING) {
+                long start = CompressionMetrics.cpuNanos();
+                encoder.close();
+                cpuNanos += CompressionMetrics.cpuNanos() - start;
+                state = State.PASSTHROUGH;
+                metrics.record("response", encoding, raw, wire.count, cpuNanos);
+            }
+        }
+
+        private class BodyStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int off, int len) throws IOException {
+                CompressingResponse.this.write(bytes, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                flushBody();
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Fermé par finish(), après le dernier octet
+                flushBody();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Écriture non bloquante non supportée sur une réponse compressée");
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+            count += len;
+        }
+
+        // Le flux servlet est fermé par le conteneur
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.healthsync.anomaly;
+
+import com.example.healthsync.config.AnomalyProperties;
+import com.example.healthsync.model.BiometricData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AnomalyDetectorTest {
+
+    private final List<AnomalyEvent> events = new ArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AnomalyDetector detector = new AnomalyDetector(new AnomalyProperties(),
+            new StaticListableBeanFactory(Map.of("sink", (AnomalySink) events::add)).getBeanProvider(AnomalySink.class),
+            registry);
+
+    @Test
+    void flagsClinicalThresholdsOnce() {
+        BiometricData day = day();
+        day.setOxygenSaturation(List.of(oxygen(97.0, "10:00:00"), oxygen(88.0, "10:05:00")));
+
+        detector.onDocument(day);
+        detector.onDocument(day);  // même jour renvoyé à la synchronisation suivante
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.sign()).isEqualTo(VitalSign.OXYGEN_SATURATION);
+            assertThat(event.kind()).isEqualTo(AnomalyEvent.Kind.THRESHOLD);
+            assertThat(event.severity()).isEqualTo(AnomalyEvent.Severity.CRITICAL);
+            assertThat(event.time()).hasToString("2025-10-30T10:05");
+        });
+        assertThat(registry.get("healthsync.anomaly.events").tag("sign", "OXYGEN_SATURATION").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void repeatsOnlyOnEscalationDuringCooldown() {
+        BiometricData day = day();
+        day.setOxygenSaturation(List.of(oxygen(92.0, "10:00:00"), oxygen(93.0, "10:10:00"),
+                oxygen(85.0, "10:20:00"), oxygen(92.0, "11:30:00")));
+
+        detector.onDocument(day);
+
+        assertThat(events).extracting(AnomalyEvent::severity).containsExactly(
+                AnomalyEvent.Severity.WARNING, AnomalyEvent.Severity.CRITICAL, AnomalyEvent.Severity.WARNING);
+    }
+
+    @Test
+    void flagsDeviationFromPersonalBaseline() {
+        // 40 échantillons autour de 62 bpm, puis 105 bpm : dans les normes, mais loin de la référence
+        long[] samples = LongStream.range(0, 41).map(i -> i == 40 ? 105 : 61 + i % 3).toArray();
+        BiometricData day = day();
+        day.setHeartRate(List.of(heartRate("08:00:00", "08:40:00", samples)));
+
+        detector.onDocument(day);
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.kind()).isEqualTo(AnomalyEvent.Kind.DEVIATION);
+            assertThat(event.severity()).isEqualTo(AnomalyEvent.Severity.INFO);
+            assertThat(event.value()).isEqualTo(105.0);
+            assertThat(event.baseline()).isCloseTo(62.0, within(1.0));
+        });
+    }
+
+    @Test
+    void ignoresHighHeartRateDuringExercise() {
+        BiometricData.ExerciseRecord run = new BiometricData.ExerciseRecord();
+        run.setStartTime("2025-10-30 18:00:00");
+        run.setEndTime("2025-10-30 19:00:00");
+        BiometricData day = day();
+        day.setExercise(List.of(run));
+        day.setHeartRate(List.of(
+                heartRate("18:10:00", "18:12:00", new long[]{165, 172, 168}),
+                heartRate("21:00:00", "21:00:00", new long[]{165})));
+
+        detector.onDocument(day);
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.severity()).isEqualTo(AnomalyEvent.Severity.WARNING);
+            assertThat(event.time()).hasToString("2025-10-30T21:00");
+        });
+    }
+
+    @Test
+    void evaluatesEveryDayWhenTheClientSendsNewestFirst() {
+        // Ordre d'envoi Android : aujourd'hui, puis les 6 jours précédents
+        List<BiometricData> week = new ArrayList<>();
+        for (int daysAgo = 0; daysAgo <= 6; daysAgo++) {
+            String date = "2025-10-" + (30 - daysAgo);
+            BiometricData day = day(date);
+            day.setOxygenSaturation(List.of(oxygen(88.0, date + " 10:00:00")));
+            week.add(day);
+        }
+
+        week.forEach(detector::onDocument);
+        week.forEach(detector::onDocument);  // même semaine renvoyée à la synchronisation suivante
+
+        assertThat(events).extracting(event -> event.time().toLocalDate().toString()).containsExactly(
+                "2025-10-30", "2025-10-29", "2025-10-28", "2025-10-27", "2025-10-26", "2025-10-25", "2025-10-24");
+        assertThat(registry.get("healthsync.anomaly.events").tag("sign", "OXYGEN_SATURATION")
+                .tag("severity", "CRITICAL").counter().count()).isEqualTo(7);
+    }
+
+    @Test
+    void ignoresDaysOlderThanTheLookback() {
+        BiometricData today = day("2025-10-30");
+        today.setOxygenSaturation(List.of(oxygen(97.0, "2025-10-30 10:00:00")));
+        BiometricData old = day("2025-10-01");
+        old.setOxygenSaturation(List.of(oxygen(85.0, "2025-10-01 10:00:00")));
+
+        detector.onDocument(today);
+        detector.onDocument(old);
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void windowKeepsExactStatisticsAcrossWraps() {
+        VitalWindow window = new VitalWindow(64, 14);
+        for (int i = 1; i <= 200; i++) {
+            window.add(i, 0.5);
+        }
+
+        // Fenêtre = 137..200
+        assertThat(window.count()).isEqualTo(64);
+        assertThat(window.mean()).isCloseTo(168.5, within(1e-9));
+        assertThat(window.stdDev()).isCloseTo(Math.sqrt((64.0 * 64 - 1) / 12), within(1e-6));
+        assertThat(window.ewma()).isCloseTo(199.0, within(1e-6));
+    }
+
+    private static BiometricData day() {
+        return day("2025-10-30");
+    }
+
+    private static BiometricData day(String date) {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate(date);
+        return day;
+    }
+
+    private static BiometricData.OxygenSaturationRecord oxygen(double percentage, String time) {
+        BiometricData.OxygenSaturationRecord record = new BiometricData.OxygenSaturationRecord();
+        record.setPercentage(percentage);
+        // Heure seule : le 30 octobre
+        record.setTime(time.length() > 8 ? time : "2025-10-30 " + time);
+        return record;
+    }
+
+    private static BiometricData.HeartRateRecord heartRate(String start, String end, long[] samples) {
+        BiometricData.HeartRateRecord record = new BiometricData.HeartRateRecord();
+        record.setStartTime("2025-10-30 " + start);
+        record.setEndTime("2025-10-30 " + end);
+        record.setSamples(LongStream.of(samples).boxed().toList());
+        return record;
+    }
+}
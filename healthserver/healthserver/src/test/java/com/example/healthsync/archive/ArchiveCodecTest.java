@@ -0,0 +1,50 @@
+package com.example.healthsync.archive;
+
+import com.example.healthsync.util.SampleCodec;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveCodecTest {
+
+    @Test
+    void roundTripsConcatenatedDaysThroughZstd() {
+        List<RawBsonDocument> days = new ArrayList<>();
+        for (int day = 1; day <= 30; day++) {
+            List<Long> samples = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                samples.add(60L + (i * 7 + day) % 25);
+            }
+            String date = String.format("2025-04-%02d", day);
+            days.add(RawBsonDocument.parse(new Document("userId", "user_1")
+                    .append("date", date)
+                    .append("totalSteps", 5000 + day)
+                    .append("heartRate", List.of(
+                            new Document("startTime", date + " 08:00:00").append("samples", samples),
+                            new Document("startTime", date + " 20:00:00")
+                                    .append("packedSamples", new Binary(SampleCodec.encode(samples)))))
+                    .toJson()));
+        }
+
+        byte[] raw = ArchiveCodec.concat(days);
+        byte[] payload = ArchiveCodec.compress(raw, 9);
+        List<RawBsonDocument> decoded = ArchiveCodec.decode(payload, raw.length);
+
+        assertThat(payload.length).isLessThan(raw.length / 4);
+        assertThat(decoded).containsExactlyElementsOf(days);
+        assertThat(ArchiveStore.date(decoded.get(29))).isEqualTo("2025-04-30");
+    }
+
+    @Test
+    void emptyPayloadHasNoDays() {
+        byte[] raw = ArchiveCodec.concat(List.of());
+
+        assertThat(ArchiveCodec.decode(ArchiveCodec.compress(raw, 3), raw.length)).isEmpty();
+    }
+}
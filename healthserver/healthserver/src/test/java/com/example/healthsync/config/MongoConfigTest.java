@@ -0,0 +1,61 @@
+package com.example.healthsync.config;
+
+import com.example.healthsync.model.BiometricData;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MongoConfigTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void readsLegacyStringValuesAsDoubles() {
+        Document legacy = new Document("userId", "u1")
+                .append("date", "2025-10-30")
+                .append("totalDistanceKm", "3.21")
+                .append("totalSleepHours", "7,5")
+                .append("totalHydrationLiters", "")
+                .append("exercise", List.of(new Document("avgSpeedKmh", "5.40").append("distanceKm", "n/a")));
+
+        BiometricData data = converter.read(BiometricData.class, legacy);
+
+        assertThat(data.getTotalDistanceKm()).isEqualTo(3.21);
+        assertThat(data.getTotalSleepHours()).isEqualTo(7.5);
+        assertThat(data.getTotalHydrationLiters()).isNull();
+        assertThat(data.getExercise().get(0).getAvgSpeedKmh()).isEqualTo(5.40);
+        assertThat(data.getExercise().get(0).getDistanceKm()).isNull();
+    }
+
+    @Test
+    void readsV2NumericValues() {
+        Document v2 = new Document("userId", "u1")
+                .append("schemaVersion", BiometricData.SCHEMA_VERSION)
+                .append("totalDistanceKm", 3.21);
+
+        BiometricData data = converter.read(BiometricData.class, v2);
+
+        assertThat(data.getTotalDistanceKm()).isEqualTo(3.21);
+        assertThat(data.getSchemaVersion()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.model.BiometricData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailyDataHasherTest {
+
+    @Test
+    void ignoresReceptionMetadata() {
+        BiometricData first = day();
+        BiometricData retransmitted = day();
+        retransmitted.setId("abc");
+        retransmitted.setReceivedAt(LocalDateTime.now().plusHours(3));
+        retransmitted.setContentHash("stale");
+
+        assertThat(DailyDataHasher.hash(retransmitted)).isEqualTo(DailyDataHasher.hash(first));
+    }
+
+    @Test
+    void changesWithContent() {
+        BiometricData modified = day();
+        modified.getHeartRate().get(0).setSamples(List.of(60L, 62L, 66L));
+
+        assertThat(DailyDataHasher.hash(modified)).isNotEqualTo(DailyDataHasher.hash(day()));
+    }
+
+    @Test
+    void packedSamplesHashLikeRawSamples() {
+        BiometricData packed = day();
+        packed.getHeartRate().forEach(BiometricData.HeartRateRecord::pack);
+
+        assertThat(DailyDataHasher.hash(packed)).isEqualTo(DailyDataHasher.hash(day()));
+    }
+
+    private static BiometricData day() {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate("2025-10-30");
+        day.setReceivedAt(LocalDateTime.of(2025, 10, 30, 22, 0));
+        day.setTotalSteps(1200);
+        day.setHeartRate(List.of(new BiometricData.HeartRateRecord(
+                List.of(60L, 62L, 65L), "2025-10-30 08:00:00", "2025-10-30 08:05:00")));
+        return day;
+    }
+}
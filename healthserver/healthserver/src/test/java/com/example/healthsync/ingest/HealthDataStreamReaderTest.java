@@ -0,0 +1,95 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.HealthDataGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HealthDataStreamReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String PAYLOAD = """
+            {"source":{"app":"android"},"dailyData":[
+              {"date":"2025-10-30","totalSteps":1200,
+               "steps":[{"count":1200,"startTime":"2025-10-30 08:00:00","endTime":"2025-10-30 09:00:00"}],
+               "heartRate":[{"samples":[60,62,65],"startTime":"2025-10-30 08:00:00","endTime":"2025-10-30 08:05:00"}],
+               "unknown":{"nested":[1,2,3]}},
+              {"date":"2025-10-29","totalSteps":800}
+            ]}
+            """;
+
+    @Test
+    void readsDaysOneByOne() throws Exception {
+        List<HealthData.DailyData> days = new ArrayList<>();
+
+        int count = reader(new IngestProperties()).read(stream(PAYLOAD), days::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(days).extracting(HealthData.DailyData::getDate).containsExactly("2025-10-30", "2025-10-29");
+        assertThat(days.get(0).getHeartRate().get(0).getSamples()).containsExactly(60L, 62L, 65L);
+    }
+
+    @Test
+    void rejectsTooManyDays() {
+        IngestProperties properties = new IngestProperties();
+        properties.setMaxDays(1);
+
+        assertThatThrownBy(() -> reader(properties).read(stream(PAYLOAD), day -> { }))
+                .isInstanceOf(IngestLimitExceededException.class);
+    }
+
+    @Test
+    void rejectsTooManySamplesPerDay() {
+        IngestProperties properties = new IngestProperties();
+        properties.setMaxSamplesPerDay(5);
+
+        assertThatThrownBy(() -> reader(properties).read(stream(PAYLOAD), day -> { }))
+                .isInstanceOf(IngestLimitExceededException.class);
+    }
+
+    @Test
+    void rejectsOversizedPayload() {
+        IngestProperties properties = new IngestProperties();
+        properties.setMaxPayloadBytes(64);
+
+        assertThatThrownBy(() -> reader(properties).read(stream(PAYLOAD), day -> { }))
+                .isInstanceOf(IngestLimitExceededException.class);
+    }
+
+    @Test
+    void readsCborWithSameModel() throws Exception {
+        HealthData payload = new HealthDataGenerator(1).payload(LocalDate.of(2025, 10, 30), 3);
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(payload);
+        List<HealthData.DailyData> days = new ArrayList<>();
+
+        int count = reader(new IngestProperties()).read(new ByteArrayInputStream(cbor), MediaType.APPLICATION_CBOR, days::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(days).isEqualTo(payload.getDailyData());
+    }
+
+    private HealthDataStreamReader reader(IngestProperties properties) {
+        return new HealthDataStreamReader(objectMapper, properties);
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
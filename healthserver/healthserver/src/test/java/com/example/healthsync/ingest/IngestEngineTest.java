@@ -0,0 +1,93 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.support.HealthDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestEngineTest {
+
+    private final RecordHandlers handlers = new RecordHandlers();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Échantillons FC de chaque document notifié
+    private final List<Integer> observed = new ArrayList<>();
+    private final IngestEngine engine = new IngestEngine(
+            List.of(handlers.stepsHandler(), handlers.heartRateHandler(), handlers.oxygenSaturationHandler()),
+            new StaticListableBeanFactory(Map.of("observer", new IngestListener() {
+                @Override
+                public void onDocument(BiometricData data) {
+                    observed.add(data.getHeartRate().stream().mapToInt(record -> record.getSamples().size()).sum());
+                }
+            })).getBeanProvider(IngestListener.class),
+            new IngestMetrics(registry), new IntervalMerger(new IngestProperties()));
+
+    @Test
+    void convertsAndCountsInOnePass() {
+        HealthData.DailyData day = new HealthDataGenerator(3).day(LocalDate.of(2025, 10, 30));
+        IngestSummary summary = new IngestSummary();
+
+        BiometricData data = engine.process("user_1", day, summary);
+
+        assertThat(data.getDate()).isEqualTo("2025-10-30");
+        assertThat(data.getSteps()).hasSameSizeAs(day.getSteps());
+        assertThat(summary.getRecords().get("heartRate").getAccepted()).isEqualTo(288);
+        assertThat(summary.getRecords().get("heartRate").getSamples()).isEqualTo(288 * 60);
+        assertThat(summary.getDataPoints()).isEqualTo(day.getSteps().size() + 288 + day.getOxygenSaturation().size());
+    }
+
+    @Test
+    void dropsInvalidRecordsAndDays() {
+        HealthData.DailyData day = new HealthDataGenerator(3).day(LocalDate.of(2025, 10, 30));
+        List<HealthData.OxygenSaturationRecord> oxygen = new ArrayList<>(day.getOxygenSaturation());
+        HealthData.OxygenSaturationRecord impossible = new HealthData.OxygenSaturationRecord();
+        impossible.setPercentage(140.0);
+        impossible.setTime("2025-10-30 12:00:00");
+        oxygen.add(impossible);
+        day.setOxygenSaturation(oxygen);
+
+        HealthData.DailyData undated = new HealthData.DailyData();
+        undated.setDate("30/10/2025");
+        IngestSummary summary = new IngestSummary();
+
+        BiometricData data = engine.process("user_1", day, summary);
+        assertThat(engine.process("user_1", undated, summary)).isNull();
+        engine.record(summary);
+
+        assertThat(data.getOxygenSaturation()).hasSize(oxygen.size() - 1);
+        assertThat(summary.getRecords().get("oxygenSaturation").getRejected()).isEqualTo(1);
+        assertThat(summary.getDays()).isEqualTo(1);
+        assertThat(summary.getRejectedDays()).isEqualTo(1);
+        assertThat(registry.get("healthsync.ingest.records")
+                .tags("type", "oxygenSaturation", "outcome", "rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("healthsync.ingest.days.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("healthsync.ingest.days").summary().totalAmount()).isEqualTo(1);
+        assertThat(registry.get("healthsync.ingest.conversion").tag("type", "heartRate").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void documentsAreObservedOnceWrittenWithTheirSamples() {
+        HealthData.DailyData day = new HealthDataGenerator(3).day(LocalDate.of(2025, 10, 30));
+        BiometricData data = engine.process("user_1", day, new IngestSummary());
+        assertThat(observed).isEmpty();
+
+        Runnable notifyWritten = engine.beforeWrite(List.of(data));
+        // Store time-series : échantillons retirés du document avant l'upsert
+        data.getHeartRate().forEach(record -> record.setSamples(null));
+        assertThat(observed).isEmpty();
+
+        notifyWritten.run();
+        assertThat(observed).containsExactly(288 * 60);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestSummary;
+import com.example.healthsync.storage.SampleTimes;
+import com.example.healthsync.support.HealthDataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
+
+class IntervalMergerTest {
+
+    private static final String WATCH = "com.watch.app";
+    private static final String PHONE = "com.phone.app";
+
+    private final IntervalMerger merger = merger(List.of(WATCH, PHONE));
+
+    @Test
+    void higherPrioritySourceWinsAndLowerOneKeepsItsUncoveredShare() {
+        BiometricData day = new BiometricData();
+        day.setSteps(new ArrayList<>(List.of(
+                new BiometricData.StepRecord(1200L, "2025-10-30 08:00:00", "2025-10-30 09:00:00", PHONE),
+                new BiometricData.StepRecord(500L, "2025-10-30 08:30:00", "2025-10-30 09:00:00", WATCH),
+                new BiometricData.StepRecord(300L, "2025-10-30 08:40:00", "2025-10-30 08:50:00", null))));
+        IngestSummary summary = new IngestSummary();
+
+        assertThat(merger.merge(day, summary)).isTrue();
+
+        assertThat(day.getSteps()).containsExactly(
+                new BiometricData.StepRecord(600L, "2025-10-30 08:00:00", "2025-10-30 08:30:00", PHONE),
+                new BiometricData.StepRecord(500L, "2025-10-30 08:30:00", "2025-10-30 09:00:00", WATCH));
+        assertThat(summary.getRecords().get("steps").getMerged()).isEqualTo(2);
+        // Originaux rognés ou retirés, reconnus s'ils sont renvoyés en delta
+        assertThat(day.getMergedRecords()).containsExactly(
+                "steps|2025-10-30 08:00:00|2025-10-30 09:00:00",
+                "steps|2025-10-30 08:40:00|2025-10-30 08:50:00");
+    }
+
+    @Test
+    void dropsDuplicateHeartRateSamplesAndSplitsAroundCoveredTime() {
+        BiometricData day = new BiometricData();
+        day.setHeartRate(new ArrayList<>(List.of(
+                new BiometricData.HeartRateRecord(List.of(60L, 61L, 62L, 63L, 64L, 65L, 66L),
+                        "2025-10-30 10:00:00", "2025-10-30 10:06:00", PHONE),
+                new BiometricData.HeartRateRecord(List.of(90L, 91L),
+                        "2025-10-30 10:02:00", "2025-10-30 10:03:00", WATCH))));
+
+        assertThat(merger.merge(day, new IngestSummary())).isTrue();
+
+        assertThat(day.getHeartRate()).extracting(BiometricData.HeartRateRecord::getStartTime,
+                        BiometricData.HeartRateRecord::getEndTime, BiometricData.HeartRateRecord::getSamples)
+                .containsExactly(
+                        tuple("2025-10-30 10:00:00", "2025-10-30 10:01:00", List.of(60L, 61L)),
+                        tuple("2025-10-30 10:02:00", "2025-10-30 10:03:00", List.of(90L, 91L)),
+                        tuple("2025-10-30 10:03:00", "2025-10-30 10:06:00", List.of(63L, 64L, 65L, 66L)));
+    }
+
+    @Test
+    void leavesAdjacentRecordsUntouched() {
+        BiometricData day = new BiometricData();
+        List<BiometricData.StepRecord> steps = List.of(
+                new BiometricData.StepRecord(100L, "2025-10-30 08:00:00", "2025-10-30 09:00:00"),
+                new BiometricData.StepRecord(200L, "2025-10-30 09:00:00", "2025-10-30 10:00:00"));
+        day.setSteps(steps);
+
+        assertThat(merger.merge(day, new IngestSummary())).isFalse();
+        assertThat(day.getSteps()).isSameAs(steps);
+    }
+
+    @Test
+    void engineRecomputesTotalsFromTheMergedRecords() {
+        HealthData.DailyData day = new HealthDataGenerator(3).day(LocalDate.of(2025, 10, 30));
+        HealthData.StepRecord duplicate = new HealthData.StepRecord();
+        duplicate.setCount(day.getSteps().get(0).getCount());
+        duplicate.setStartTime(day.getSteps().get(0).getStartTime());
+        duplicate.setEndTime(day.getSteps().get(0).getEndTime());
+        duplicate.setDataOrigin(PHONE);
+        List<HealthData.StepRecord> steps = new ArrayList<>(day.getSteps());
+        steps.add(duplicate);
+        day.setSteps(steps);
+        // Total calculé côté client sur les deux sources : compté deux fois
+        day.setTotalSteps(day.getTotalSteps() + duplicate.getCount().intValue());
+
+        RecordHandlers handlers = new RecordHandlers();
+        IngestEngine engine = new IngestEngine(List.of(handlers.stepsHandler()),
+                new StaticListableBeanFactory().getBeanProvider(IngestListener.class),
+                new IngestMetrics(new SimpleMeterRegistry()), merger);
+        BiometricData data = engine.process("user_1", day, new IngestSummary());
+
+        long expected = day.getSteps().stream().filter(record -> record != duplicate)
+                .mapToLong(HealthData.StepRecord::getCount).sum();
+        assertThat(data.getSteps()).hasSize(steps.size() - 1);
+        assertThat(data.getTotalSteps()).isEqualTo((int) expected);
+    }
+
+    @Test
+    void coverMergesTouchingIntervals() {
+        TreeMap<Long, Long> covered = new TreeMap<>();
+        IntervalMerger.cover(covered, 10, 20);
+        IntervalMerger.cover(covered, 30, 40);
+
+        assertThat(IntervalMerger.uncovered(covered, 0, 50))
+                .containsExactly(new long[]{0, 10}, new long[]{20, 30}, new long[]{40, 50});
+
+        IntervalMerger.cover(covered, 15, 30);
+        assertThat(covered).containsExactly(entry(10L, 40L));
+    }
+
+    @Test
+    void fastTimeParsingMatchesTheFormatter() {
+        // 2025-02-30 : ramené au 28 par le formatter (résolution SMART), même résultat attendu
+        for (String time : List.of("2025-10-30 08:15:30", "2024-02-29 23:59:59", "1970-01-01 00:00:00",
+                "2025-02-30 08:00:00")) {
+            assertThat(SampleTimes.parseMillis(time)).isEqualTo(SampleTimes.toMillis(SampleTimes.parse(time)));
+        }
+        assertThatThrownBy(() -> SampleTimes.parseMillis("2025-10-30T08:00:00"))
+                .isInstanceOf(DateTimeParseException.class);
+    }
+
+    private static IntervalMerger merger(List<String> priority) {
+        IngestProperties properties = new IngestProperties();
+        properties.getMerge().setEnabled(true);
+        properties.getMerge().setSourcePriority(priority);
+        return new IntervalMerger(properties);
+    }
+}
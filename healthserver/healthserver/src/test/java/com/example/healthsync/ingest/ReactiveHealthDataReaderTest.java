@@ -0,0 +1,106 @@
+package com.example.healthsync.ingest;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.support.HealthDataGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReactiveHealthDataReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String PAYLOAD = """
+            {"source":{"app":"android","tags":[1,[2]]},"dailyData":[
+              {"date":"2025-10-30","totalSteps":1200,
+               "heartRate":[{"samples":[60,62,65],"startTime":"2025-10-30 08:00:00","endTime":"2025-10-30 08:05:00"}],
+               "unknown":{"nested":[1,2,3]}},
+              {"date":"2025-10-29","totalSteps":800}
+            ],"trailer":null}
+            """;
+
+    @Test
+    void readsDaysAcrossArbitraryChunkBoundaries() {
+        byte[] json = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        // Découpage en morceaux de 7 octets : jetons et chaînes coupés au milieu
+        List<HealthData.DailyData> days = reader(new IngestProperties())
+                .read(chunks(json, 7), MediaType.APPLICATION_JSON)
+                .collectList()
+                .block();
+
+        assertThat(days).extracting(HealthData.DailyData::getDate).containsExactly("2025-10-30", "2025-10-29");
+        assertThat(days.get(0).getHeartRate().get(0).getSamples()).containsExactly(60L, 62L, 65L);
+    }
+
+    @Test
+    void matchesBlockingReaderOnGeneratedPayload() throws Exception {
+        HealthData payload = new HealthDataGenerator(3).payload(LocalDate.of(2025, 10, 30), 3);
+        byte[] json = objectMapper.writeValueAsBytes(payload);
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(payload);
+        ReactiveHealthDataReader reader = reader(new IngestProperties());
+
+        assertThat(reader.read(chunks(json, 8192), MediaType.APPLICATION_JSON).collectList().block())
+                .isEqualTo(payload.getDailyData());
+        assertThat(reader.read(chunks(cbor, 8192), MediaType.APPLICATION_CBOR).collectList().block())
+                .isEqualTo(payload.getDailyData());
+    }
+
+    @Test
+    void enforcesLimits() {
+        byte[] json = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        IngestProperties tooManyDays = new IngestProperties();
+        tooManyDays.setMaxDays(1);
+        IngestProperties tooManySamples = new IngestProperties();
+        tooManySamples.setMaxSamplesPerDay(5);
+        IngestProperties tooLarge = new IngestProperties();
+        tooLarge.setMaxPayloadBytes(64);
+
+        for (IngestProperties properties : List.of(tooManyDays, tooManySamples, tooLarge)) {
+            assertThatThrownBy(() -> reader(properties).read(chunks(json, 16), MediaType.APPLICATION_JSON)
+                    .collectList().block())
+                    .isInstanceOf(IngestLimitExceededException.class);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] json = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = Arrays.copyOf(json, json.length / 2);
+
+        assertThatThrownBy(() -> reader(new IngestProperties()).read(chunks(truncated, 16), MediaType.APPLICATION_JSON)
+                .collectList().block())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReactiveHealthDataReader reader(IngestProperties properties) {
+        return new ReactiveHealthDataReader(objectMapper, properties,
+                new HealthDataStreamReader(objectMapper, properties));
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] bytes, int size) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += size) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + size))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.healthsync.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupPeriodTest {
+
+    @Test
+    void weekUsesIsoWeekBasedYear() {
+        LocalDate newYearsEve = LocalDate.of(2024, 12, 31);
+
+        assertThat(RollupPeriod.WEEK.bucket(newYearsEve)).isEqualTo("2025-W01");
+        assertThat(RollupPeriod.WEEK.start(newYearsEve)).isEqualTo(LocalDate.of(2024, 12, 30));
+        assertThat(RollupPeriod.WEEK.end(newYearsEve)).isEqualTo(LocalDate.of(2025, 1, 5));
+    }
+
+    @Test
+    void monthStartsOnFirstDay() {
+        LocalDate date = LocalDate.of(2025, 10, 30);
+
+        assertThat(RollupPeriod.MONTH.bucket(date)).isEqualTo("2025-10");
+        assertThat(RollupPeriod.MONTH.start(date)).isEqualTo(LocalDate.of(2025, 10, 1));
+        assertThat(RollupPeriod.MONTH.end(LocalDate.of(2024, 2, 10))).isEqualTo(LocalDate.of(2024, 2, 29));
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.healthsync.repository;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.MongoConfig;
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.UserStats;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BiometricDataRepositoryCustomImplTest {
+
+    private static final LocalDateTime FIRST_RECEIVED = LocalDateTime.of(2025, 10, 30, 22, 0);
+
+    // Documents biometric_data par date, mis à jour comme MongoDB le ferait ($set, $unset, $setOnInsert)
+    private final Map<String, Document> stored = new TreeMap<>();
+
+    // userStats : pipeline envoyé et sortie du $facet que MongoDB produirait pour les jours de la plage
+    private final List<Document> pipeline = new ArrayList<>();
+    private Document facets;
+
+    private final MongoTemplate mongoTemplate = new MongoTemplate(
+            (MongoDatabaseFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> null),
+            converter()) {
+        @Override
+        public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+            List<Object[]> upserts = new ArrayList<>();
+            return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{BulkOperations.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "upsert":
+                                upserts.add(args);
+                                return proxy;
+                            case "execute":
+                                return applyBulk(upserts);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        @Override
+        public <O> AggregationResults<O> aggregate(Aggregation aggregation, Class<?> inputType, Class<O> outputType) {
+            pipeline.addAll(aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT));
+            // Dernière étape ($replaceWith) évaluée sur la sortie du $facet, champs absents omis
+            Document shaped = (Document) evaluate(
+                    pipeline.get(pipeline.size() - 1).get("$replaceWith"), facets, Map.of());
+            shaped.values().removeIf(Objects::isNull);
+            return new AggregationResults<>(List.of(getConverter().read(outputType, shaped)), shaped);
+        }
+    };
+
+    private final BiometricDataRepositoryCustomImpl repository = new BiometricDataRepositoryCustomImpl(
+            mongoTemplate, new MongoIndexInitializer(null) {
+                @Override
+                public void ensureIndexes(Class<?> entityType) {
+                }
+            }, new BiometricDataUpdates(mongoTemplate.getConverter()), new ArchiveStore(mongoTemplate, null));
+
+    @Test
+    void countsInsertedUpdatedAndUnchangedDays() {
+        BulkUpsertResult first = repository.upsertAll(List.of(day("2025-10-30", 1000), day("2025-10-31", 200)));
+        assertThat(first.getInserted()).isEqualTo(2);
+        assertThat(first.getUpsertedIndexes()).containsExactly(0, 1);
+
+        // Renvoi identique, jour modifié, nouveau jour
+        BulkUpsertResult second = repository.upsertAll(List.of(
+                day("2025-10-30", 1000), day("2025-10-31", 250), day("2025-11-01", 50)));
+
+        assertThat(second.getInserted()).isEqualTo(1);
+        assertThat(second.getUpsertedIndexes()).containsExactly(2);
+        assertThat(second.getUpdated()).isEqualTo(1);
+        assertThat(second.getUnchanged()).isEqualTo(1);
+        assertThat(stored.get("2025-10-31").get("totalSteps")).isEqualTo(250);
+    }
+
+    @Test
+    void fieldAbsentFromTheResentDayIsCleared() {
+        BiometricData stressed = day("2025-10-30", 1000);
+        stressed.setStressLevel("HIGH");
+        stressed.setStressScore(80);
+        repository.upsertAll(List.of(stressed));
+
+        BiometricData resent = day("2025-10-30", 1000);
+        resent.setReceivedAt(FIRST_RECEIVED.plusDays(1));
+        BulkUpsertResult result = repository.upsertAll(List.of(resent));
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(stored.get("2025-10-30"))
+                .doesNotContainKeys("stressLevel", "stressScore")
+                .containsEntry("totalSteps", 1000);
+        // Date de première réception conservée
+        assertThat(stored.get("2025-10-30").get("receivedAt")).isEqualTo(FIRST_RECEIVED);
+    }
+
+    @Test
+    void emptyRangeGivesZeroDaysAndNoMetrics() {
+        facets = new Document("days", List.of()).append("oxygen", List.of()).append("exercise", List.of());
+
+        UserStats stats = repository.userStats("user_1", "2025-10-01", "2025-10-31");
+
+        assertThat(stats.getDaysWithData()).isZero();
+        assertThat(stats.getFirstDate()).isNull();
+        assertThat(stats.getSteps()).isNull();
+        assertThat(stats.getHeartRate()).isNull();
+        assertThat(stats.getOxygenSaturation()).isNull();
+        assertThat(stats.getExercise()).isEmpty();
+        assertThat(stats.getUserId()).isEqualTo("user_1");
+        assertThat(stats.getFrom()).isEqualTo("2025-10-01");
+        assertThat(stats.getTo()).isEqualTo("2025-10-31");
+    }
+
+    @Test
+    void rangeSpanningArchivedMonthsReadsTheirSummaries() {
+        // 30-31 août archivés, 1er septembre dans biometric_data
+        facets = new Document("days", List.of(new Document("daysWithData", 3)
+                .append("firstDate", "2025-08-30")
+                .append("lastDate", "2025-09-01")
+                .append("steps", new Document("count", 3).append("avg", 5000.0).append("min", 3000.0)
+                        .append("max", 7000.0).append("p50", 5000.0).append("p90", 7000.0))))
+                .append("oxygen", List.of(new Document("oxygenSaturation",
+                        new Document("count", 2).append("avg", 97.5))))
+                .append("exercise", List.of(new Document("type", "RUNNING")
+                        .append("sessions", 2).append("minutes", 75L)));
+
+        UserStats stats = repository.userStats("user_1", "2025-08-30", "2025-09-01");
+
+        assertThat(stats.getDaysWithData()).isEqualTo(3);
+        assertThat(stats.getFirstDate()).isEqualTo("2025-08-30");
+        assertThat(stats.getSteps().getP90()).isEqualTo(7000.0);
+        assertThat(stats.getOxygenSaturation().getAvg()).isEqualTo(97.5);
+        assertThat(stats.getExercise()).extracting(UserStats.ExerciseMinutes::getType).containsExactly("RUNNING");
+
+        // Résumés archivés ajoutés avant la projection : ils traversent les mêmes étapes que les jours live
+        assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next())
+                .containsExactly("$match", "$unionWith", "$project", "$facet", "$replaceWith");
+        Document union = pipeline.get(1).get("$unionWith", Document.class);
+        assertThat(union.getString("coll")).isEqualTo("biometric_archive");
+        List<Document> archived = union.getList("pipeline", Document.class);
+        assertThat(archived.get(0).toJson()).contains("\"$gte\": \"2025-08\"", "\"$lte\": \"2025-09\"");
+        assertThat(archived.get(archived.size() - 1)).isEqualTo(new Document("$match",
+                new Document("date", new Document("$gte", "2025-08-30").append("$lte", "2025-09-01"))));
+    }
+
+    private BulkWriteResult applyBulk(List<Object[]> upserts) {
+        int matched = 0;
+        int modified = 0;
+        List<BulkWriteUpsert> inserted = new ArrayList<>();
+        for (int i = 0; i < upserts.size(); i++) {
+            String date = (String) ((Query) upserts.get(i)[0]).getQueryObject().get("date");
+            Document update = ((UpdateDefinition) upserts.get(i)[1]).getUpdateObject();
+            Document document = stored.get(date);
+            if (document == null) {
+                document = new Document("date", date);
+                document.putAll(update.get("$setOnInsert", Document.class));
+                apply(document, update);
+                stored.put(date, document);
+                inserted.add(new BulkWriteUpsert(i, new BsonObjectId()));
+                continue;
+            }
+            matched++;
+            Document before = new Document(document);
+            apply(document, update);
+            if (!document.equals(before)) {
+                modified++;
+            }
+        }
+        return BulkWriteResult.acknowledged(0, matched, 0, modified, inserted, List.of());
+    }
+
+    private static void apply(Document document, Document update) {
+        Document set = update.get("$set", Document.class);
+        if (set != null) {
+            document.putAll(set);
+        }
+        Document unset = update.get("$unset", Document.class);
+        if (unset != null) {
+            unset.keySet().forEach(document::remove);
+        }
+    }
+
+    /**
+     * Sous-ensemble des expressions de l'étape finale : chemins (tableaux compris), $$variables, $let, $ifNull, $first
+     */
+    private static Object evaluate(Object expression, Document root, Map<String, Object> vars) {
+        if (expression instanceof String path && path.startsWith("$")) {
+            String[] parts = path.startsWith("$$") ? path.substring(2).split("\\.") : path.substring(1).split("\\.");
+            Object value = path.startsWith("$$") ? vars.get(parts[0]) : root.get(parts[0]);
+            for (int i = 1; i < parts.length && value != null; i++) {
+                String field = parts[i];
+                // Chemin sur un tableau : le champ de chaque élément, comme MongoDB
+                value = value instanceof List<?> list
+                        ? list.stream().map(element -> ((Document) element).get(field)).toList()
+                        : ((Document) value).get(field);
+            }
+            return value;
+        }
+        if (!(expression instanceof Document document)) {
+            return expression;
+        }
+        if (document.containsKey("$let")) {
+            Document let = document.get("$let", Document.class);
+            Map<String, Object> scope = new HashMap<>(vars);
+            let.get("vars", Document.class).forEach((name, value) -> scope.put(name, evaluate(value, root, vars)));
+            return evaluate(let.get("in"), root, scope);
+        }
+        if (document.containsKey("$ifNull")) {
+            for (Object candidate : (List<?>) document.get("$ifNull")) {
+                Object value = evaluate(candidate, root, vars);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+        if (document.containsKey("$first")) {
+            List<?> values = (List<?>) evaluate(document.get("$first"), root, vars);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+        Document result = new Document();
+        document.forEach((field, value) -> result.put(field, evaluate(value, root, vars)));
+        return result;
+    }
+
+    private static BiometricData day(String date, int steps) {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate(date);
+        day.setReceivedAt(FIRST_RECEIVED);
+        day.setSchemaVersion(BiometricData.SCHEMA_VERSION);
+        day.setTotalSteps(steps);
+        day.setSteps(List.of(new BiometricData.StepRecord((long) steps, date + " 08:00:00", date + " 09:00:00")));
+        return day;
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.LatestVitalsProperties;
+import com.example.healthsync.exception.IngestLimitExceededException;
+import com.example.healthsync.exception.IngestQueueFullException;
+import com.example.healthsync.exception.IngestUnavailableException;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestListener;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.ingest.IntervalMerger;
+import com.example.healthsync.ingest.RecordHandlers;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.HeartRatePoint;
+import com.example.healthsync.model.IngestionStatus;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateSeries;
+import com.example.healthsync.storage.HeartRateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AsyncIngestServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestProperties properties = new IngestProperties();
+    private final List<List<BiometricData>> bulks = new CopyOnWriteArrayList<>();
+    private final List<String> sampleWrites = new CopyOnWriteArrayList<>();
+    // Documents notifiés aux observateurs (AnomalyDetector en production)
+    private final List<String> observed = new CopyOnWriteArrayList<>();
+    private volatile boolean failWrites;
+
+    private final BiometricDataRepository repository = (BiometricDataRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[]{BiometricDataRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("upsertAll")) {
+                    if (failWrites) {
+                        throw new IllegalStateException("MongoDB indisponible");
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<BiometricData> days = new ArrayList<>((List<BiometricData>) args[0]);
+                    bulks.add(days);
+                    // Tous les jours sont nouveaux
+                    List<Integer> indexes = new ArrayList<>();
+                    for (int i = 0; i < days.size(); i++) {
+                        indexes.add(i);
+                    }
+                    return new BulkUpsertResult(days.size(), 0, 0, indexes);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private final HeartRateStore heartRateStore = new HeartRateStore() {
+        @Override
+        public Runnable beforeWrite(String userId, List<BiometricData> days) {
+            return () -> sampleWrites.add(userId);
+        }
+
+        @Override
+        public List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private AsyncIngestService service;
+
+    @AfterEach
+    void stopWriter() {
+        if (service != null && service.isRunning()) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void sameDayFromTwoIngestionsIsWrittenOnceWithTheLatestVersion() throws InterruptedException {
+        service = service();
+        IngestionStatus first = service.submit(payload(day("2025-10-30", 100)), "user_1");
+        IngestionStatus second = service.submit(payload(day("2025-10-30", 200), day("2025-10-31", 50)), "user_1");
+        service.start();
+
+        IngestionStatus secondDone = await(second);
+        IngestionStatus firstDone = service.getStatus(first.getIngestionId());
+
+        assertThat(bulks).hasSize(1);
+        assertThat(bulks.get(0)).extracting(BiometricData::getDate, BiometricData::getTotalSteps)
+                .containsExactlyInAnyOrder(
+                        tuple("2025-10-30", 200),
+                        tuple("2025-10-31", 50));
+        // Le jour remplacé dans le lot n'est pas compté comme créé par la première ingestion
+        assertThat(firstDone.getInserted()).isZero();
+        assertThat(firstDone.getExisting()).isEqualTo(1);
+        assertThat(secondDone.getInserted()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectedDaysAreNotCountedAsExisting() throws InterruptedException {
+        service = service();
+        IngestionStatus status = await(
+                service.submit(payload(day("2025-10-30", 100), day("30/10/2025", 100)), "user_1"));
+
+        assertThat(status.getState()).isEqualTo(IngestionStatus.State.DONE);
+        assertThat(status.getInserted()).isEqualTo(1);
+        assertThat(status.getExisting()).isZero();
+        assertThat(status.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void samplesAndObserversFollowOnlyAStoredDay() throws InterruptedException {
+        service = service();
+        failWrites = true;
+        IngestionStatus failed = await(service.submit(payload(day("2025-10-30", 100)), "user_1"));
+        assertThat(failed.getState()).isEqualTo(IngestionStatus.State.FAILED);
+        assertThat(sampleWrites).isEmpty();
+        assertThat(observed).isEmpty();
+
+        failWrites = false;
+        IngestionStatus done = await(service.submit(payload(day("2025-10-30", 100)), "user_1"));
+        assertThat(done.getState()).isEqualTo(IngestionStatus.State.DONE);
+        assertThat(sampleWrites).containsExactly("user_1");
+        assertThat(observed).containsExactly("2025-10-30");
+    }
+
+    @Test
+    void queueIsBoundedByEstimatedPayloadSize() throws InterruptedException {
+        HealthData payload = payload(day("2025-10-30", 100));
+        long bytes = AsyncIngestService.estimateBytes(payload);
+        properties.getAsync().setQueueMaxBytes(bytes * 3 / 2);
+        service = service();
+
+        IngestionStatus queued = service.submit(payload, "user_1");
+        assertThat(service.getQueuedBytes()).isEqualTo(bytes);
+        assertThatThrownBy(() -> service.submit(payload(day("2025-10-31", 100)), "user_2"))
+                .isInstanceOf(IngestQueueFullException.class);
+        assertThatThrownBy(() -> service.submit(payload(day("2025-10-30", 1), day("2025-10-31", 1)), "user_3"))
+                .isInstanceOf(IngestLimitExceededException.class);
+
+        // Place libérée une fois le lot écrit
+        service.start();
+        await(queued);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getQueuedBytes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.getQueuedBytes()).isZero();
+        assertThat(service.submit(payload(day("2025-10-31", 100)), "user_2").getState())
+                .isEqualTo(IngestionStatus.State.QUEUED);
+    }
+
+    @Test
+    void statusIsASnapshotOfTheIngestion() throws InterruptedException {
+        service = service();
+        IngestionStatus queued = service.submit(payload(day("2025-10-30", 100)), "user_1");
+
+        IngestionStatus done = await(queued);
+
+        assertThat(queued.getState()).isEqualTo(IngestionStatus.State.QUEUED);
+        assertThat(done.getState()).isEqualTo(IngestionStatus.State.DONE);
+        assertThat(service.getStatus(queued.getIngestionId())).isNotSameAs(done).isEqualTo(done);
+    }
+
+    @Test
+    void payloadsAreRejectedOnceStopped() throws InterruptedException {
+        service = service();
+        IngestionStatus before = await(service.submit(payload(day("2025-10-30", 100)), "user_1"));
+        service.stop();
+
+        assertThatThrownBy(() -> service.submit(payload(day("2025-10-31", 100)), "user_1"))
+                .isInstanceOf(IngestUnavailableException.class);
+        assertThat(service.getQueueDepth()).isZero();
+        assertThat(service.getQueuedBytes()).isZero();
+        assertThat(before.getState()).isEqualTo(IngestionStatus.State.DONE);
+    }
+
+    private AsyncIngestService service() {
+        RecordHandlers handlers = new RecordHandlers();
+        IngestMetrics metrics = new IngestMetrics(registry);
+        IngestListener observer = new IngestListener() {
+            @Override
+            public void onDocument(BiometricData data) {
+                observed.add(data.getDate());
+            }
+        };
+        IngestEngine engine = new IngestEngine(List.of(handlers.stepsHandler()),
+                new StaticListableBeanFactory(Map.of("observer", observer)).getBeanProvider(IngestListener.class),
+                metrics, new IntervalMerger(properties));
+        BiometricDataService biometricDataService = new BiometricDataService(repository, null, engine, properties,
+                null, heartRateStore, null, null, metrics, null, null);
+        ContentDedupService dedup = new ContentDedupService(null, properties, registry) {
+            @Override
+            public List<BiometricData> filterChanged(String userId, List<BiometricData> days) {
+                return new ArrayList<>(days);
+            }
+        };
+        RollupService rollups = new RollupService(null, null, null) {
+            @Override
+            public void apply(String userId, List<BiometricData> written) {
+            }
+        };
+        SyncStateService syncState = new SyncStateService(null, null) {
+            @Override
+            public Map<String, String> advance(String userId, List<BiometricData> days) {
+                return Map.of();
+            }
+        };
+        LatestVitalsService latest = new LatestVitalsService(repository, heartRateStore, null,
+                new LatestVitalsProperties(), registry);
+
+        AsyncIngestService async = new AsyncIngestService(biometricDataService, repository, syncState,
+                heartRateStore, dedup, rollups, engine, properties, metrics, latest);
+        async.init();
+        return async;
+    }
+
+    /**
+     * Démarre l'écrivain si besoin et renvoie le statut final de l'ingestion
+     */
+    private IngestionStatus await(IngestionStatus status) throws InterruptedException {
+        if (!service.isRunning()) {
+            service.start();
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            IngestionStatus current = service.getStatus(status.getIngestionId());
+            if (current.getState() == IngestionStatus.State.DONE || current.getState() == IngestionStatus.State.FAILED) {
+                return current;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Ingestion non terminée: " + status.getIngestionId());
+    }
+
+    private static HealthData payload(HealthData.DailyData... days) {
+        HealthData payload = new HealthData();
+        payload.setDailyData(List.of(days));
+        return payload;
+    }
+
+    private static HealthData.DailyData day(String date, long steps) {
+        HealthData.StepRecord record = new HealthData.StepRecord();
+        record.setCount(steps);
+        record.setStartTime(date + " 08:00:00");
+        record.setEndTime(date + " 09:00:00");
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date);
+        day.setSteps(List.of(record));
+        day.setTotalSteps((int) steps);
+        return day;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricPage;
+import com.example.healthsync.repository.BiometricDataRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BiometricDataServiceTest {
+
+    // Fin août archivée ; le 1er septembre a été réécrit dans biometric_data après archivage
+    private final List<BiometricData> live = List.of(day("2025-09-01", 900), day("2025-09-02", 800));
+    private final List<BiometricData> archived = List.of(day("2025-08-30", 100), day("2025-08-31", 200),
+            day("2025-09-01", 300));
+
+    private final BiometricDataRepository repository = (BiometricDataRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[]{BiometricDataRepository.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("findPage")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                return page(live, (String) args[4], (int) args[5]);
+            });
+
+    private final ArchiveStore archiveStore = new ArchiveStore(null, null) {
+        @Override
+        public List<BiometricData> findPage(String userId, String fromDate, String toDate, Collection<String> fields,
+                                            String afterDate, int limit) {
+            return page(archived, afterDate, limit);
+        }
+    };
+
+    private final BiometricDataService service = new BiometricDataService(repository, null, null, null,
+            null, null, null, null, null, null, archiveStore);
+
+    @Test
+    void cursorCarriesTheLastDate() {
+        String cursor = BiometricDataService.encodeCursor("2025-10-30");
+
+        assertThat(BiometricDataService.decodeCursor(cursor)).isEqualTo("2025-10-30");
+        // Curseur "date|id" d'une version précédente
+        assertThat(BiometricDataService.decodeCursor(encode("2025-10-30|65f1c0de2a9b4c0012345678")))
+                .isEqualTo("2025-10-30");
+        assertThatThrownBy(() -> BiometricDataService.decodeCursor(encode("pas-une-date")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur invalide");
+        assertThatThrownBy(() -> BiometricDataService.decodeCursor("%%%"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur invalide");
+    }
+
+    @Test
+    void pagesCrossTheArchiveBoundaryWithoutDuplicates() {
+        BiometricPage first = service.getUserDataPage("user_1", null, null, List.of(), null, 2);
+        assertThat(first.getItems()).extracting(BiometricData::getDate).containsExactly("2025-08-30", "2025-08-31");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        BiometricPage second = service.getUserDataPage("user_1", null, null, List.of(), first.getNextCursor(), 2);
+        // Jour présent des deux côtés : seul le document de biometric_data est renvoyé
+        assertThat(second.getItems()).extracting(BiometricData::getDate, BiometricData::getTotalSteps)
+                .containsExactly(tuple("2025-09-01", 900), tuple("2025-09-02", 800));
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    private static List<BiometricData> page(List<BiometricData> days, String afterDate, int limit) {
+        return days.stream()
+                .filter(day -> afterDate == null || day.getDate().compareTo(afterDate) > 0)
+                .limit(limit)
+                .toList();
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BiometricData day(String date, int steps) {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate(date);
+        day.setTotalSteps(steps);
+        return day;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.IngestProperties;
+import com.example.healthsync.config.LatestVitalsProperties;
+import com.example.healthsync.ingest.IngestEngine;
+import com.example.healthsync.ingest.IngestListener;
+import com.example.healthsync.ingest.IngestMetrics;
+import com.example.healthsync.ingest.IntervalMerger;
+import com.example.healthsync.ingest.RecordHandlers;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BulkUpsertResult;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.HeartRatePoint;
+import com.example.healthsync.model.IngestResult;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateSeries;
+import com.example.healthsync.storage.HeartRateStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DeltaSyncServiceTest {
+
+    private static final String WATCH = "com.watch.app";
+    private static final String PHONE = "com.phone.app";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IngestProperties properties = new IngestProperties();
+    // Documents jour stockés, par date
+    private final Map<String, BiometricData> stored = new TreeMap<>();
+
+    private final BiometricDataRepository repository = (BiometricDataRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[]{BiometricDataRepository.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findByUserIdAndDateIn": {
+                        List<BiometricData> found = new ArrayList<>();
+                        for (Object date : (Collection<?>) args[1]) {
+                            if (stored.containsKey(date)) {
+                                found.add(stored.get(date));
+                            }
+                        }
+                        return found;
+                    }
+                    case "upsertAll": {
+                        @SuppressWarnings("unchecked")
+                        List<BiometricData> days = (List<BiometricData>) args[0];
+                        int inserted = 0;
+                        List<Integer> indexes = new ArrayList<>();
+                        for (int i = 0; i < days.size(); i++) {
+                            if (stored.put(days.get(i).getDate(), days.get(i)) == null) {
+                                inserted++;
+                                indexes.add(i);
+                            }
+                        }
+                        return new BulkUpsertResult(inserted, days.size() - inserted, 0, indexes);
+                    }
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+    private final HeartRateStore heartRateStore = new HeartRateStore() {
+        @Override
+        public Runnable beforeWrite(String userId, List<BiometricData> days) {
+            return () -> { };
+        }
+
+        @Override
+        public List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    @Test
+    void deltaIsMergedIntoTheStoredDayAndRetriedRecordsAreIgnored() {
+        DeltaSyncService service = service();
+        service.mergeDelta(payload(day("2025-10-30", steps(1000, "08:00:00", "09:00:00", null))), "user_1");
+
+        // Retry du premier enregistrement + un nouveau le même jour + un jour encore absent
+        IngestResult result = service.mergeDelta(payload(
+                day("2025-10-30",
+                        steps(1000, "08:00:00", "09:00:00", null),
+                        steps(400, "18:00:00", "18:30:00", null)),
+                day("2025-10-31", steps(250, "07:00:00", "07:15:00", null))), "user_1");
+
+        assertThat(result.getNewRecords()).isEqualTo(2);
+        assertThat(result.getDuplicateRecords()).isEqualTo(1);
+        assertThat(stored.get("2025-10-30").getSteps())
+                .extracting(BiometricData.StepRecord::getStartTime)
+                .containsExactly("2025-10-30 08:00:00", "2025-10-30 18:00:00");
+        // Totaux recalculés sur l'union, pas sur le seul delta
+        assertThat(stored.get("2025-10-30").getTotalSteps()).isEqualTo(1400);
+        assertThat(stored.get("2025-10-31").getTotalSteps()).isEqualTo(250);
+    }
+
+    @Test
+    void dateRepeatedInTheDeltaIsMergedIntoOneDocument() {
+        IngestResult result = service().mergeDelta(payload(
+                day("2025-10-30", steps(1000, "08:00:00", "09:00:00", null)),
+                day("2025-10-30", steps(400, "18:00:00", "18:30:00", null))), "user_1");
+
+        assertThat(result.getDays()).isEqualTo(1);
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(stored.get("2025-10-30").getTotalSteps()).isEqualTo(1400);
+    }
+
+    @Test
+    void resentOriginalOfATrimmedRecordIsADuplicate() {
+        properties.getMerge().setEnabled(true);
+        properties.getMerge().setSourcePriority(List.of(WATCH, PHONE));
+        DeltaSyncService service = service();
+
+        IngestResult first = service.mergeDelta(payload(day("2025-10-30",
+                steps(1200, "08:00:00", "09:00:00", PHONE),
+                steps(500, "08:30:00", "09:00:00", WATCH))), "user_1");
+        assertThat(first.getNewRecords()).isEqualTo(2);
+        assertThat(stored.get("2025-10-30").getSteps())
+                .extracting(BiometricData.StepRecord::getCount, BiometricData.StepRecord::getStartTime)
+                .containsExactly(tuple(600L, "2025-10-30 08:00:00"), tuple(500L, "2025-10-30 08:30:00"));
+
+        // Le client renvoie l'enregistrement téléphone d'origine (retry, high-water mark non avancée)
+        IngestResult retry = service.mergeDelta(payload(day("2025-10-30",
+                steps(1200, "08:00:00", "09:00:00", PHONE))), "user_1");
+
+        assertThat(retry.getNewRecords()).isZero();
+        assertThat(retry.getDuplicateRecords()).isEqualTo(1);
+        assertThat(stored.get("2025-10-30").getSteps()).hasSize(2);
+        assertThat(stored.get("2025-10-30").getTotalSteps()).isEqualTo(1100);
+    }
+
+    private DeltaSyncService service() {
+        RecordHandlers handlers = new RecordHandlers();
+        IngestMetrics metrics = new IngestMetrics(registry);
+        IntervalMerger merger = new IntervalMerger(properties);
+        IngestEngine engine = new IngestEngine(List.of(handlers.stepsHandler()),
+                new StaticListableBeanFactory().getBeanProvider(IngestListener.class), metrics, merger);
+        BiometricDataService biometricDataService = new BiometricDataService(repository, null, engine, properties,
+                null, heartRateStore, null, null, metrics, null, null);
+        SyncStateService syncState = new SyncStateService(null, null) {
+            @Override
+            public Map<String, String> advance(String userId, List<BiometricData> days) {
+                return Map.of();
+            }
+        };
+        ContentDedupService dedup = new ContentDedupService(null, properties, registry) {
+            @Override
+            public List<BiometricData> filterChanged(String userId, List<BiometricData> days) {
+                return new ArrayList<>(days);
+            }
+        };
+        RollupService rollups = new RollupService(null, null, null) {
+            @Override
+            public void apply(String userId, List<BiometricData> written) {
+            }
+        };
+        ArchiveStore archives = new ArchiveStore(null, null) {
+            @Override
+            public Map<String, BiometricData> findDays(String userId, Collection<String> dates) {
+                return Map.of();
+            }
+        };
+        LatestVitalsService latest = new LatestVitalsService(repository, heartRateStore, null,
+                new LatestVitalsProperties(), registry);
+        return new DeltaSyncService(repository, biometricDataService, syncState, heartRateStore, dedup, rollups,
+                archives, engine, metrics, latest, merger);
+    }
+
+    private static HealthData payload(HealthData.DailyData... days) {
+        HealthData payload = new HealthData();
+        payload.setDailyData(List.of(days));
+        return payload;
+    }
+
+    private static HealthData.DailyData day(String date, HealthData.StepRecord... steps) {
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date);
+        List<HealthData.StepRecord> records = new ArrayList<>();
+        for (HealthData.StepRecord record : steps) {
+            record.setStartTime(date + " " + record.getStartTime());
+            record.setEndTime(date + " " + record.getEndTime());
+            records.add(record);
+        }
+        day.setSteps(records);
+        return day;
+    }
+
+    private static HealthData.StepRecord steps(long count, String start, String end, String origin) {
+        HealthData.StepRecord record = new HealthData.StepRecord();
+        record.setCount(count);
+        record.setStartTime(start);
+        record.setEndTime(end);
+        record.setDataOrigin(origin);
+        return record;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.ArchiveProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HeartRatePoint;
+import com.example.healthsync.repository.BiometricDataRepository;
+import com.example.healthsync.storage.HeartRateSeries;
+import com.example.healthsync.storage.HeartRateStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportServiceTest {
+
+    private List<BiometricData> live = List.of();
+    private List<BiometricData> archived = List.of();
+    private Map<String, List<Long>> timeSeries = Map.of();
+    private boolean liveClosed;
+
+    private final BiometricDataRepository repository = (BiometricDataRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[]{BiometricDataRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("streamRange")) {
+                    return live.stream().onClose(() -> liveClosed = true);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private final ArchiveStore archiveStore = new ArchiveStore(null, new ArchiveProperties()) {
+        @Override
+        public Stream<BiometricData> streamDays(String userId, String fromDate, String toDate,
+                                                Collection<String> fields) {
+            return archived.stream();
+        }
+    };
+
+    private final HeartRateStore heartRateStore = new HeartRateStore() {
+        @Override
+        public Runnable beforeWrite(String userId, List<BiometricData> days) {
+            return () -> { };
+        }
+
+        @Override
+        public List<HeartRatePoint> findRange(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, List<Long>> findRecordSamples(String userId, List<BiometricData.HeartRateRecord> records) {
+            return timeSeries;
+        }
+
+        @Override
+        public HeartRateSeries readSeries(String userId, LocalDateTime from, LocalDateTime to) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final ExportService service = new ExportService(repository, archiveStore, heartRateStore,
+            Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void flattensRecordsAndPrefersLiveDaysOverArchivedCopies() throws IOException {
+        archived = List.of(steps("2025-01-01", 100L), steps("2025-01-02", 999L));
+        live = List.of(steps("2025-01-02", 200L), steps("2025-06-01", 300L));
+
+        List<String> lines = export("steps", ExportService.Format.NDJSON);
+
+        assertThat(lines).containsExactly(
+                "{\"userId\":\"user_1\",\"date\":\"2025-01-01\",\"count\":100,\"startTime\":\"2025-01-01 08:00:00\",\"endTime\":null}",
+                "{\"userId\":\"user_1\",\"date\":\"2025-01-02\",\"count\":200,\"startTime\":\"2025-01-02 08:00:00\",\"endTime\":null}",
+                "{\"userId\":\"user_1\",\"date\":\"2025-06-01\",\"count\":300,\"startTime\":\"2025-06-01 08:00:00\",\"endTime\":null}");
+        assertThat(liveClosed).isTrue();
+    }
+
+    @Test
+    void writesOneCsvRowPerHeartRateSampleIncludingTimeSeriesSamples() throws IOException {
+        BiometricData embedded = new BiometricData();
+        embedded.setDate("2025-01-01");
+        embedded.setHeartRate(List.of(new BiometricData.HeartRateRecord(List.of(60L, 62L),
+                "2025-01-01 08:00:00", "2025-01-01 08:00:10")));
+        BiometricData stripped = new BiometricData();
+        stripped.setDate("2025-01-02");
+        // Deux enregistrements contigus : l'échantillon de 09:00:05 de chacun reste à son enregistrement
+        stripped.setHeartRate(List.of(
+                new BiometricData.HeartRateRecord(null, "2025-01-02 09:00:00", "2025-01-02 09:00:05"),
+                new BiometricData.HeartRateRecord(null, "2025-01-02 09:00:05", "2025-01-02 09:00:10")));
+        live = List.of(embedded, stripped);
+        timeSeries = Map.of(
+                "2025-01-02 09:00:00|2025-01-02 09:00:05", List.of(70L, 71L),
+                "2025-01-02 09:00:05|2025-01-02 09:00:10", List.of(90L, 91L));
+
+        List<String> lines = export("heartRate", ExportService.Format.CSV);
+
+        assertThat(lines).containsExactly("date,time,bpm",
+                "2025-01-01,2025-01-01 08:00:00,60",
+                "2025-01-01,2025-01-01 08:00:10,62",
+                "2025-01-02,2025-01-02 09:00:00,70",
+                "2025-01-02,2025-01-02 09:00:05,71",
+                "2025-01-02,2025-01-02 09:00:05,90",
+                "2025-01-02,2025-01-02 09:00:10,91");
+    }
+
+    @Test
+    void csvSummaryEscapesValues() throws IOException {
+        BiometricData day = new BiometricData();
+        day.setDate("2025-01-01");
+        day.setTotalSteps(8000);
+        day.setStressLevel("élevé, \"pic\"");
+        live = List.of(day);
+
+        List<String> lines = export(null, ExportService.Format.CSV);
+
+        assertThat(lines.get(0)).startsWith("date,").contains("totalSteps").doesNotContain("heartRate,");
+        assertThat(lines.get(1)).contains(",8000,").contains(",\"élevé, \"\"pic\"\"\",");
+    }
+
+    @Test
+    void rejectsUnknownTypeAndFormat() {
+        assertThatThrownBy(() -> service.validate(null, null, "unknown")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ExportService.Format.parse("xml")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> export(String type, ExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export("user_1", null, null, type, format, out);
+        return new ArrayList<>(out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    private static BiometricData steps(String date, long count) {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate(date);
+        day.setSteps(List.of(new BiometricData.StepRecord(count, date + " 08:00:00", null)));
+        return day;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.ArchiveProperties;
+import com.example.healthsync.config.LatestVitalsProperties;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.LatestVitals;
+import com.example.healthsync.repository.BiometricDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestVitalsServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BiometricData stored = day("2025-10-30", 8000,
+            bloodPressure(121.0, 79.0, "2025-10-30 08:00:00"), weight(72.5, "2025-10-28 07:30:00"));
+    private int loads;
+
+    private final BiometricDataRepository repository = (BiometricDataRepository) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[]{BiometricDataRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("findLatestRecords")) {
+                    loads++;
+                    return stored;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private List<BiometricData> archived = List.of();
+
+    private final ArchiveStore archiveStore = new ArchiveStore(null, new ArchiveProperties()) {
+        @Override
+        public List<BiometricData> findLatestDays(String userId) {
+            return archived;
+        }
+    };
+
+    @Test
+    void coldMissIsLoadedOnceThenServedFromCache() {
+        LatestVitalsService service = service(300);
+
+        LatestVitals first = service.get("user_1");
+        LatestVitals second = service.get("user_1");
+
+        assertThat(loads).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.getSteps().getCount()).isEqualTo(8000);
+        assertThat(first.getWeight().getValue()).isEqualTo(72.5);
+        assertThat(registry.get("healthsync.latest.cache").tag("outcome", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void writeThroughKeepsTheNewestReadingOfEachVital() {
+        LatestVitalsService service = service(300);
+        service.get("user_1");
+
+        BiometricData today = day("2025-10-31", 1200,
+                bloodPressure(135.0, 88.0, "2025-10-31 09:00:00"), weight(80.0, "2025-10-20 07:00:00"));
+        BiometricData.HeartRateRecord heartRate = new BiometricData.HeartRateRecord(
+                List.of(70L, 72L, 75L), "2025-10-31 08:00:00", "2025-10-31 08:05:00");
+        heartRate.pack();  // stockage compact : les échantillons restent lisibles
+        today.setHeartRate(List.of(heartRate));
+        service.apply("user_1", service.capture("user_1", List.of(today)));
+
+        LatestVitals latest = service.get("user_1");
+        assertThat(loads).isEqualTo(1);
+        assertThat(latest.getSteps().getDate()).isEqualTo("2025-10-31");
+        assertThat(latest.getBloodPressure().getSystolic()).isEqualTo(135.0);
+        assertThat(latest.getWeight().getValue()).isEqualTo(72.5);  // mesure reçue plus ancienne
+        assertThat(latest.getHeartRate().getValue()).isEqualTo(75.0);
+        assertThat(latest.getHeartRate().getTime()).isEqualTo("2025-10-31 08:05:00");
+    }
+
+    @Test
+    void uncachedUsersAndExpiredEntriesAreReloaded() {
+        LatestVitalsService service = service(0);
+
+        service.apply("user_2", service.capture("user_2", List.of(day("2025-10-31", 10, null, null))));
+        service.get("user_2");
+        service.get("user_2");
+
+        assertThat(loads).isEqualTo(2);
+    }
+
+    @Test
+    void usersWithoutDataGetAnEmptyEntry() {
+        stored = null;
+
+        assertThat(service(300).get("user_3").isEmpty()).isTrue();
+    }
+
+    @Test
+    void usersWithOnlyArchivedMonthsFallBackToTheLatestArchive() {
+        stored = null;
+        archived = List.of(
+                day("2025-03-30", 6000, null, weight(71.0, "2025-03-30 07:00:00")),
+                day("2025-03-31", 4000, bloodPressure(118.0, 76.0, "2025-03-31 08:00:00"), null));
+
+        LatestVitals latest = service(300).get("user_4");
+
+        assertThat(latest.getSteps().getDate()).isEqualTo("2025-03-31");
+        assertThat(latest.getWeight().getValue()).isEqualTo(71.0);
+        assertThat(latest.getBloodPressure().getSystolic()).isEqualTo(118.0);
+    }
+
+    private LatestVitalsService service(long ttlSeconds) {
+        LatestVitalsProperties properties = new LatestVitalsProperties();
+        properties.setTtlSeconds(ttlSeconds);
+        return new LatestVitalsService(repository, null, archiveStore, properties, registry);
+    }
+
+    private static BiometricData day(String date, Integer steps, BiometricData.BloodPressureRecord bloodPressure,
+                                     BiometricData.WeightRecord weight) {
+        BiometricData day = new BiometricData();
+        day.setDate(date);
+        day.setTotalSteps(steps);
+        day.setBloodPressure(bloodPressure != null ? List.of(bloodPressure) : null);
+        day.setWeight(weight != null ? List.of(weight) : null);
+        return day;
+    }
+
+    private static BiometricData.BloodPressureRecord bloodPressure(double systolic, double diastolic, String time) {
+        BiometricData.BloodPressureRecord record = new BiometricData.BloodPressureRecord();
+        record.setSystolic(systolic);
+        record.setDiastolic(diastolic);
+        record.setTime(time);
+        return record;
+    }
+
+    private static BiometricData.WeightRecord weight(double value, String time) {
+        BiometricData.WeightRecord record = new BiometricData.WeightRecord();
+        record.setWeight(value);
+        record.setTime(time);
+        return record;
+    }
+}
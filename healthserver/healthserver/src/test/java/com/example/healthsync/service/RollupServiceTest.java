@@ -0,0 +1,195 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.archive.ArchiveStore;
+import com.example.healthsync.config.MongoIndexInitializer;
+import com.example.healthsync.model.BiometricData;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupServiceTest {
+
+    // Documents jour (par date) et agrégats (par _id), mis à jour comme MongoDB le ferait
+    private final Map<String, BiometricData> days = new TreeMap<>();
+    private final Map<String, Document> rollups = new TreeMap<>();
+
+    private final MongoTemplate mongoTemplate = new MongoTemplate(
+            (MongoDatabaseFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> null),
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext())) {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> find(Query query, Class<T> entityClass) {
+            Collection<?> dates = (Collection<?>) ((Document) query.getQueryObject().get("date")).get("$in");
+            List<T> found = new ArrayList<>();
+            dates.forEach(date -> {
+                if (days.containsKey(date)) {
+                    found.add((T) days.get(date));
+                }
+            });
+            return found;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Stream<T> stream(Query query, Class<T> entityType) {
+            return (Stream<T>) new ArrayList<>(days.values()).stream();
+        }
+
+        @Override
+        public DeleteResult remove(Query query, Class<?> entityClass) {
+            rollups.clear();
+            return DeleteResult.unacknowledged();
+        }
+
+        @Override
+        public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+            List<Object[]> upserts = new ArrayList<>();
+            return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{BulkOperations.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "upsert":
+                                upserts.add(args);
+                                return proxy;
+                            case "execute":
+                                upserts.forEach(upsert -> applyUpsert((Query) upsert[0], (UpdateDefinition) upsert[1]));
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    };
+
+    private final RollupService service = new RollupService(mongoTemplate, new MongoIndexInitializer(null) {
+        @Override
+        public void ensureIndexes(Class<?> entityType) {
+        }
+    }, new ArchiveStore(null, null) {
+        @Override
+        public List<BiometricData> findSummaries(String userId, Collection<String> dates) {
+            return List.of();
+        }
+
+        @Override
+        public Stream<BiometricData> streamSummaries(String userId) {
+            return Stream.empty();
+        }
+    });
+
+    @Test
+    void sameDayUpsertedTwiceIsCountedOnce() {
+        write(day("2025-10-30", 1000, 70));
+        write(day("2025-10-30", 1500, 80));
+        // Renvoi identique : rien ne bouge
+        write(day("2025-10-30", 1500, 80));
+        write(day("2025-10-31", 200, null));
+
+        Document month = rollups.get("user_1:MONTH:2025-10");
+        assertThat(month.get("days")).isEqualTo(2);
+        assertThat(month.get("steps")).isEqualTo(1700L);
+        assertThat(month.get("heartRateSum")).isEqualTo(80L);
+        assertThat(month.get("heartRateDays")).isEqualTo(1);
+        assertThat(rollups.get("user_1:WEEK:2025-W44").get("steps")).isEqualTo(1700L);
+    }
+
+    @Test
+    void dateRepeatedInOneBatchIsCountedOnce() {
+        write(day("2025-10-30", 1000, 70), day("2025-10-31", 200, null), day("2025-10-30", 1500, 80));
+
+        Document month = rollups.get("user_1:MONTH:2025-10");
+        assertThat(month.get("days")).isEqualTo(2);
+        assertThat(month.get("steps")).isEqualTo(1700L);
+        assertThat(month.get("heartRateSum")).isEqualTo(80L);
+    }
+
+    @Test
+    void bucketIncludesDaysWrittenByAConcurrentIngest() {
+        // Deux ingestions écrivent leur jour avant que la première ne recalcule ses buckets
+        days.put("2025-10-30", day("2025-10-30", 1000, 70));
+        days.put("2025-10-31", day("2025-10-31", 500, 60));
+        service.apply("user_1", List.of(day("2025-10-30", 1000, 70)));
+
+        assertThat(rollups.get("user_1:MONTH:2025-10").get("days")).isEqualTo(2);
+        assertThat(rollups.get("user_1:MONTH:2025-10").get("steps")).isEqualTo(1500L);
+    }
+
+    @Test
+    void nextWriteRepairsADriftedBucket() {
+        write(day("2025-10-30", 1000, 70));
+        rollups.get("user_1:MONTH:2025-10").put("steps", 999_999L);
+
+        write(day("2025-10-31", 200, null));
+
+        assertThat(rollups.get("user_1:MONTH:2025-10").get("steps")).isEqualTo(1200L);
+    }
+
+    @Test
+    void rebuildMatchesIncrementalUpdates() {
+        write(day("2025-10-30", 1000, 70));
+        write(day("2025-10-30", 1500, 80));
+        write(day("2025-11-02", 300, 65));
+        Map<String, Document> incremental = copy(rollups);
+
+        assertThat(service.rebuild("user_1")).isEqualTo(2);
+
+        assertThat(rollups.keySet()).isEqualTo(incremental.keySet());
+        rollups.forEach((id, rollup) -> {
+            assertThat(rollup.get("days")).as(id).isEqualTo(incremental.get(id).get("days"));
+            assertThat(rollup.get("steps")).as(id).isEqualTo(incremental.get(id).get("steps"));
+            assertThat(rollup.get("heartRateSum")).as(id).isEqualTo(incremental.get(id).get("heartRateSum"));
+        });
+    }
+
+    /**
+     * Chemin d'ingestion : écriture des jours (le dernier d'une date l'emporte), puis recalcul des buckets
+     */
+    private void write(BiometricData... written) {
+        for (BiometricData day : written) {
+            days.put(day.getDate(), day);
+        }
+        service.apply("user_1", List.of(written));
+    }
+
+    private void applyUpsert(Query query, UpdateDefinition update) {
+        String id = (String) query.getQueryObject().get("_id");
+        Document set = (Document) update.getUpdateObject().get("$set");
+        if (!rollups.containsKey(id)) {
+            rollups.put(id, new Document((Document) update.getUpdateObject().get("$setOnInsert")));
+        }
+        rollups.get(id).putAll(set);
+    }
+
+    private static Map<String, Document> copy(Map<String, Document> rollups) {
+        Map<String, Document> copy = new TreeMap<>();
+        rollups.forEach((id, rollup) -> copy.put(id, new Document(rollup)));
+        return copy;
+    }
+
+    private static BiometricData day(String date, int steps, Integer avgHeartRate) {
+        BiometricData day = new BiometricData();
+        day.setUserId("user_1");
+        day.setDate(date);
+        day.setTotalSteps(steps);
+        day.setAvgHeartRate(avgHeartRate);
+        return day;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.SyncState;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class SyncStateServiceTest {
+
+    // highWaterMarks stockées, appliquées comme MongoDB le ferait ($max)
+    private final Map<String, String> stored = new HashMap<>();
+
+    private final MongoTemplate mongoTemplate = new MongoTemplate(
+            (MongoDatabaseFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> null),
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext())) {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options,
+                                   Class<T> entityClass) {
+            Document max = (Document) update.getUpdateObject().get("$max");
+            max.forEach((field, time) -> stored.merge(field.substring("highWaterMarks.".length()), (String) time,
+                    (current, candidate) -> current.compareTo(candidate) >= 0 ? current : candidate));
+            SyncState state = new SyncState();
+            state.setUserId((String) query.getQueryObject().get("_id"));
+            state.setHighWaterMarks(new HashMap<>(stored));
+            return (T) state;
+        }
+    };
+
+    private final SyncStateService service = new SyncStateService(null, mongoTemplate);
+
+    @Test
+    void marksTrackTheLatestRecordOfEachType() {
+        BiometricData monday = new BiometricData();
+        monday.setSteps(List.of(
+                new BiometricData.StepRecord(100L, "2025-10-27 08:00:00", "2025-10-27 09:00:00"),
+                new BiometricData.StepRecord(200L, "2025-10-27 18:00:00", "2025-10-27 19:00:00")));
+        BiometricData tuesday = new BiometricData();
+        tuesday.setSteps(List.of(new BiometricData.StepRecord(50L, "2025-10-28 07:00:00", "2025-10-28 07:30:00")));
+        tuesday.setWeight(List.of(weight("2025-10-28 06:45:00")));
+
+        assertThat(SyncStateService.highWaterMarks(List.of(tuesday, monday))).containsOnly(
+                entry("steps", "2025-10-28 07:30:00"),
+                entry("weight", "2025-10-28 06:45:00"));
+    }
+
+    @Test
+    void staleDeltaNeverMovesMarksBackwards() {
+        BiometricData recent = new BiometricData();
+        recent.setSteps(List.of(new BiometricData.StepRecord(100L, "2025-10-30 08:00:00", "2025-10-30 09:00:00")));
+        service.advance("user_1", List.of(recent));
+
+        // Delta en retard (autre appareil, retry) : jours plus anciens, nouveau type
+        BiometricData stale = new BiometricData();
+        stale.setSteps(List.of(new BiometricData.StepRecord(80L, "2025-10-29 08:00:00", "2025-10-29 09:00:00")));
+        stale.setWeight(List.of(weight("2025-10-29 07:00:00")));
+        Map<String, String> marks = service.advance("user_1", List.of(stale));
+
+        assertThat(marks).containsOnly(
+                entry("steps", "2025-10-30 09:00:00"),
+                entry("weight", "2025-10-29 07:00:00"));
+    }
+
+    private static BiometricData.WeightRecord weight(String time) {
+        BiometricData.WeightRecord record = new BiometricData.WeightRecord();
+        record.setTime(time);
+        return record;
+    }
+}
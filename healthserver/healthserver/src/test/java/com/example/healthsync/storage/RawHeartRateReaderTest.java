@@ -0,0 +1,52 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.util.SampleCodec;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Binary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RawHeartRateReaderTest {
+
+    private static final long FROM = SampleTimes.toMillis(LocalDateTime.of(2025, 10, 30, 0, 0));
+    private static final long TO = SampleTimes.toMillis(LocalDateTime.of(2025, 10, 31, 0, 0));
+
+    @Test
+    void readsBsonArraysAndPackedSamples() {
+        long[] packed = {70, 72, 75};
+        Document day = new Document("date", "2025-10-30").append("heartRate", List.of(
+                new Document("samples", List.of(60L, 62, 64.0))
+                        .append("startTime", "2025-10-30 08:00:00")
+                        .append("endTime", "2025-10-30 08:00:02"),
+                new Document("startTime", "2025-10-30 09:00:00")
+                        .append("endTime", "2025-10-30 09:00:02")
+                        .append("packedSamples", new Binary(SampleCodec.encode(packed, packed.length)))));
+
+        HeartRateSeries series = new HeartRateSeries(0);
+        new RawHeartRateReader().read(new RawBsonDocument(day, new DocumentCodec()), FROM, TO, series);
+
+        assertThat(series.size()).isEqualTo(6);
+        assertThat(new int[]{series.bpmAt(0), series.bpmAt(1), series.bpmAt(2), series.bpmAt(5)})
+                .containsExactly(60, 62, 64, 75);
+        assertThat(SampleTimes.fromMillis(series.timeAt(1))).isEqualTo(LocalDateTime.of(2025, 10, 30, 8, 0, 1));
+    }
+
+    @Test
+    void keepsOnlySamplesInRange() {
+        Document day = new Document("heartRate", List.of(
+                new Document("samples", List.of(60L, 62L, 64L))
+                        .append("startTime", "2025-10-30 23:59:58")
+                        .append("endTime", "2025-10-31 00:00:00")));
+
+        HeartRateSeries series = new HeartRateSeries(0);
+        new RawHeartRateReader().read(new RawBsonDocument(day, new DocumentCodec()), FROM, TO, series);
+
+        assertThat(series.size()).isEqualTo(2);
+    }
+}
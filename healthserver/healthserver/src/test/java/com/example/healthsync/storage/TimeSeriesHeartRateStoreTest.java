@@ -0,0 +1,180 @@
+package com.example.healthsync.storage;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HeartRateSample;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class TimeSeriesHeartRateStoreTest {
+
+    private static final String PHONE = "com.phone.app";
+    private static final String WATCH = "com.watch.app";
+
+    // Collection heart_rate_samples en mémoire, filtres appliqués comme MongoDB le ferait
+    private final List<HeartRateSample> stored = new ArrayList<>();
+
+    private final MongoTemplate mongoTemplate = new MongoTemplate(
+            (MongoDatabaseFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{MongoDatabaseFactory.class}, (proxy, method, args) -> null),
+            new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext())) {
+        @Override
+        public <T> boolean collectionExists(Class<T> entityClass) {
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> find(Query query, Class<T> entityClass) {
+            return (List<T>) stored.stream()
+                    .filter(sample -> matches(sample, query.getQueryObject()))
+                    .sorted(Comparator.comparing(HeartRateSample::getTimestamp))
+                    .toList();
+        }
+
+        @Override
+        public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+            List<Runnable> operations = new ArrayList<>();
+            return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{BulkOperations.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "remove" -> operations.add(() -> stored.removeIf(
+                                    sample -> matches(sample, ((Query) args[0]).getQueryObject())));
+                            case "insert" -> operations.add(() -> {
+                                for (Object sample : (List<?>) args[0]) {
+                                    stored.add((HeartRateSample) sample);
+                                }
+                            });
+                            case "execute" -> {
+                                operations.forEach(Runnable::run);
+                                return null;
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        }
+                        return proxy;
+                    });
+        }
+    };
+
+    private final TimeSeriesHeartRateStore store = new TimeSeriesHeartRateStore(mongoTemplate);
+
+    @Test
+    void contiguousRecordKeepsItsBoundarySample() {
+        write(record(List.of(60L, 61L, 62L), "10:00:00", "10:00:10", null),
+                record(List.of(70L, 71L, 72L), "10:00:10", "10:00:20", null));
+
+        // Delta : seul le second enregistrement est renvoyé, son début est la fin du premier
+        write(record(List.of(70L, 71L, 72L), "10:00:10", "10:00:20", null));
+
+        assertThat(stored).hasSize(6);
+        assertThat(read(record(null, "10:00:00", "10:00:10", null), record(null, "10:00:10", "10:00:20", null)))
+                .containsOnly(
+                        entry("2025-10-30 10:00:00|2025-10-30 10:00:10", List.of(60L, 61L, 62L)),
+                        entry("2025-10-30 10:00:10|2025-10-30 10:00:20", List.of(70L, 71L, 72L)));
+    }
+
+    @Test
+    void overlappingSourcesKeepTheirOwnSamples() {
+        write(record(List.of(60L, 61L, 62L), "10:00:00", "10:01:00", PHONE),
+                record(List.of(90L, 91L, 92L), "10:00:30", "10:01:30", WATCH));
+
+        // La source téléphone renvoie son enregistrement : ceux de la montre restent
+        write(record(List.of(60L, 61L, 63L), "10:00:00", "10:01:00", PHONE));
+
+        assertThat(stored).hasSize(6);
+        assertThat(read(record(null, "10:00:00", "10:01:00", PHONE), record(null, "10:00:30", "10:01:30", WATCH)))
+                .containsOnly(
+                        entry("2025-10-30 10:00:00|2025-10-30 10:01:00|" + PHONE, List.of(60L, 61L, 63L)),
+                        entry("2025-10-30 10:00:30|2025-10-30 10:01:30|" + WATCH, List.of(90L, 91L, 92L)));
+    }
+
+    @Test
+    void samplesWrittenBeforeTheRecordKeyAreReadByPeriod() {
+        stored.add(new HeartRateSample(null, "user_1", LocalDateTime.of(2025, 10, 30, 9, 0, 0), 55, null));
+        stored.add(new HeartRateSample(null, "user_1", LocalDateTime.of(2025, 10, 30, 9, 0, 10), 56, null));
+
+        assertThat(read(record(null, "09:00:00", "09:00:10", null)))
+                .containsOnly(entry("2025-10-30 09:00:00|2025-10-30 09:00:10", List.of(55L, 56L)));
+
+        // Renvoyé : les anciens échantillons de la période sont remplacés
+        write(record(List.of(57L, 58L), "09:00:00", "09:00:10", null));
+        assertThat(stored).extracting(HeartRateSample::getBpm).containsExactly(57, 58);
+    }
+
+    private void write(BiometricData.HeartRateRecord... records) {
+        BiometricData day = new BiometricData();
+        day.setDate("2025-10-30");
+        day.setHeartRate(List.of(records));
+        store.beforeWrite("user_1", List.of(day)).run();
+        assertThat(day.getHeartRate()).allSatisfy(record -> assertThat(record.getSamples()).isNull());
+    }
+
+    private Map<String, List<Long>> read(BiometricData.HeartRateRecord... records) {
+        return store.findRecordSamples("user_1", List.of(records));
+    }
+
+    private static BiometricData.HeartRateRecord record(List<Long> samples, String start, String end, String origin) {
+        return new BiometricData.HeartRateRecord(samples, "2025-10-30 " + start, "2025-10-30 " + end, origin);
+    }
+
+    /**
+     * Sous-ensemble des filtres MongoDB utilisés par le store : égalité, $in, $exists, $gte, $lte, $lt, $or
+     */
+    private static boolean matches(HeartRateSample sample, Document filter) {
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            if (condition.getKey().equals("$or")) {
+                if (((List<?>) condition.getValue()).stream().noneMatch(branch -> matches(sample, (Document) branch))) {
+                    return false;
+                }
+                continue;
+            }
+            Object value = switch (condition.getKey()) {
+                case "userId" -> sample.getUserId();
+                case "record" -> sample.getRecord();
+                case "timestamp" -> sample.getTimestamp();
+                default -> throw new UnsupportedOperationException(condition.getKey());
+            };
+            if (!(condition.getValue() instanceof Document operators)) {
+                if (!condition.getValue().equals(value)) {
+                    return false;
+                }
+                continue;
+            }
+            for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                boolean ok = switch (operator.getKey()) {
+                    case "$in" -> ((Collection<?>) operator.getValue()).contains(value);
+                    case "$exists" -> (value != null) == (Boolean) operator.getValue();
+                    case "$gte" -> compare(value, operator.getValue()) >= 0;
+                    case "$lte" -> compare(value, operator.getValue()) <= 0;
+                    case "$lt" -> compare(value, operator.getValue()) < 0;
+                    default -> throw new UnsupportedOperationException(operator.getKey());
+                };
+                if (!ok) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int compare(Object value, Object bound) {
+        return ((LocalDateTime) value).compareTo((LocalDateTime) bound);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.healthsync.support;
+
+import com.example.healthsync.model.HealthData;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Génère des payloads HealthData réalistes (format de l'app Android), reproductibles
+ * à graine égale : pas par heure, HR par tranches de 5 min à 1 échantillon / 5 s,
+ * sommeil, distance, hydratation, SpO2 et une séance d'exercice par jour.
+ * Utilisé par les tests et les benchmarks JMH.
+ */
+public final class HealthDataGenerator {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Densité des mesures de fréquence cardiaque : montre portée en continu (DENSE)
+     * ou quelques relevés ponctuels par jour (SPARSE, téléphone seul)
+     */
+    public enum HeartRateDensity {
+        SPARSE(24, 1),
+        DENSE(288, 60);
+
+        final int slots;
+        final int samplesPerSlot;
+
+        HeartRateDensity(int slots, int samplesPerSlot) {
+            this.slots = slots;
+            this.samplesPerSlot = samplesPerSlot;
+        }
+    }
+
+    private final Random random;
+    private final HeartRateDensity density;
+
+    public HealthDataGenerator(long seed) {
+        this(seed, HeartRateDensity.DENSE);
+    }
+
+    public HealthDataGenerator(long seed, HeartRateDensity density) {
+        this.random = new Random(seed);
+        this.density = density;
+    }
+
+    public HealthData payload(LocalDate lastDay, int days) {
+        HealthData data = new HealthData();
+        List<HealthData.DailyData> dailyData = new ArrayList<>(days);
+        for (int i = days - 1; i >= 0; i--) {
+            dailyData.add(day(lastDay.minusDays(i)));
+        }
+        data.setDailyData(dailyData);
+        return data;
+    }
+
+    public HealthData.DailyData day(LocalDate date) {
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date.toString());
+        LocalDateTime midnight = date.atStartOfDay();
+
+        List<HealthData.StepRecord> steps = new ArrayList<>();
+        int totalSteps = 0;
+        for (int hour = 7; hour < 22; hour++) {
+            HealthData.StepRecord record = new HealthData.StepRecord();
+            record.setCount((long) random.nextInt(1500));
+            record.setStartTime(format(midnight.plusHours(hour)));
+            record.setEndTime(format(midnight.plusHours(hour + 1)));
+            totalSteps += record.getCount();
+            steps.add(record);
+        }
+        day.setSteps(steps);
+        day.setTotalSteps(totalSteps);
+
+        // DENSE : 288 tranches de 5 min, 60 échantillons chacune (marche aléatoire bornée)
+        List<HealthData.HeartRateRecord> heartRate = new ArrayList<>();
+        long slotMinutes = 1440 / density.slots;
+        long bpm = 70;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum = 0;
+        for (int slot = 0; slot < density.slots; slot++) {
+            List<Long> samples = new ArrayList<>(density.samplesPerSlot);
+            for (int i = 0; i < density.samplesPerSlot; i++) {
+                bpm = Math.max(45, Math.min(185, bpm + random.nextInt(5) - 2));
+                samples.add(bpm);
+                min = Math.min(min, bpm);
+                max = Math.max(max, bpm);
+                sum += bpm;
+            }
+            HealthData.HeartRateRecord record = new HealthData.HeartRateRecord();
+            record.setSamples(samples);
+            record.setStartTime(format(midnight.plusMinutes(slot * slotMinutes)));
+            record.setEndTime(format(midnight.plusMinutes(slot * slotMinutes + 5)));
+            heartRate.add(record);
+        }
+        day.setHeartRate(heartRate);
+        day.setMinHeartRate((int) min);
+        day.setMaxHeartRate((int) max);
+        day.setAvgHeartRate((int) (sum / ((long) density.slots * density.samplesPerSlot)));
+
+        HealthData.DistanceRecord distance = new HealthData.DistanceRecord();
+        distance.setDistanceMeters(totalSteps * 0.75);
+        distance.setStartTime(format(midnight.plusHours(7)));
+        distance.setEndTime(format(midnight.plusHours(22)));
+        day.setDistance(List.of(distance));
+        day.setTotalDistanceKm(Math.round(totalSteps * 0.75 / 10) / 100.0);
+
+        HealthData.SleepRecord sleep = new HealthData.SleepRecord();
+        long sleepMinutes = 360 + random.nextInt(150);
+        sleep.setTitle("Sommeil");
+        sleep.setStartTime(format(midnight.minusMinutes(sleepMinutes - 420)));
+        sleep.setEndTime(format(midnight.plusHours(7)));
+        sleep.setDurationMinutes(sleepMinutes);
+        day.setSleep(List.of(sleep));
+        day.setTotalSleepHours(Math.round(sleepMinutes / 6.0) / 10.0);
+
+        HealthData.ExerciseRecord exercise = new HealthData.ExerciseRecord();
+        exercise.setTitle("Course");
+        exercise.setExerciseType(56);
+        exercise.setExerciseTypeName("RUNNING");
+        exercise.setStartTime(format(midnight.plusHours(18)));
+        exercise.setEndTime(format(midnight.plusHours(18).plusMinutes(40)));
+        exercise.setDurationMinutes(40L);
+        exercise.setSteps(5200L);
+        exercise.setDistanceMeters(6100.0);
+        exercise.setDistanceKm(6.1);
+        exercise.setAvgHeartRate(148);
+        exercise.setMinHeartRate(102);
+        exercise.setMaxHeartRate(171);
+        exercise.setAvgSpeedKmh(9.15);
+        day.setExercise(List.of(exercise));
+
+        List<HealthData.OxygenSaturationRecord> oxygen = new ArrayList<>();
+        List<HealthData.HydrationRecord> hydration = new ArrayList<>();
+        for (int hour = 8; hour < 22; hour += 2) {
+            HealthData.OxygenSaturationRecord spo2 = new HealthData.OxygenSaturationRecord();
+            spo2.setPercentage(95 + random.nextInt(5) + 0.5);
+            spo2.setTime(format(midnight.plusHours(hour)));
+            oxygen.add(spo2);
+
+            HealthData.HydrationRecord water = new HealthData.HydrationRecord();
+            water.setVolumeMl(250.0);
+            water.setTime(format(midnight.plusHours(hour)));
+            hydration.add(water);
+        }
+        day.setOxygenSaturation(oxygen);
+        day.setHydration(hydration);
+        day.setTotalHydrationLiters(hydration.size() * 0.25);
+
+        day.setStressLevel("Modéré");
+        day.setStressScore(35 + random.nextInt(30));
+        return day;
+    }
+
+    private static String format(LocalDateTime time) {
+        return time.format(TIME);
+    }
+}
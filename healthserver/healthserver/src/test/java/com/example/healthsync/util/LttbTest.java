@@ -0,0 +1,49 @@
+package com.example.healthsync.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LttbTest {
+
+    @Test
+    void keepsShortSeriesUnchanged() {
+        long[] x = {0, 1, 2};
+        int[] y = {60, 80, 70};
+
+        Lttb.Result result = Lttb.downsample(x, y, 3, 300);
+
+        assertThat(result.indices()).containsExactly(0, 1, 2);
+        assertThat(result.min()).containsExactly(60, 80, 70);
+    }
+
+    @Test
+    void keepsEndpointsAndPeakWithinEnvelope() {
+        List<Long> day = SampleCodecTest.realisticDay(17_280, new Random(7));
+        long[] x = new long[day.size()];
+        int[] y = new int[day.size()];
+        for (int i = 0; i < y.length; i++) {
+            x[i] = i * 5_000L;
+            y[i] = day.get(i).intValue();
+        }
+        int peak = 5_000;
+        y[peak] = 220;
+
+        Lttb.Result result = Lttb.downsample(x, y, y.length, 300);
+
+        assertThat(result.size()).isEqualTo(300);
+        assertThat(result.indices()[0]).isZero();
+        assertThat(result.indices()[299]).isEqualTo(y.length - 1);
+        assertThat(result.indices()).contains(peak);
+        for (int i = 0; i < result.size(); i++) {
+            int value = y[result.indices()[i]];
+            assertThat(value).isBetween(result.min()[i], result.max()[i]);
+            if (i > 0) {
+                assertThat(result.indices()[i]).isGreaterThan(result.indices()[i - 1]);
+            }
+        }
+    }
+}
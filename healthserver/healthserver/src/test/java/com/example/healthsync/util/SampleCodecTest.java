@@ -0,0 +1,59 @@
+package com.example.healthsync.util;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SampleCodecTest {
+
+    @Test
+    void roundTripsExtremeValues() {
+        long[] values = {0, 1, -1, Long.MAX_VALUE, Long.MIN_VALUE, 72, 71, 180, 40};
+
+        long[] decoded = SampleCodec.decode(SampleCodec.encode(values, values.length));
+
+        assertThat(decoded).containsExactly(values);
+    }
+
+    @Test
+    void skipsNullSamples() {
+        List<Long> samples = new ArrayList<>(List.of(60L, 61L));
+        samples.add(null);
+        samples.add(64L);
+
+        byte[] packed = SampleCodec.encode(samples);
+
+        assertThat(SampleCodec.count(packed)).isEqualTo(3);
+        assertThat(SampleCodec.decode(packed)).containsExactly(60, 61, 64);
+    }
+
+    @Test
+    void isMuchSmallerThanBsonArrayOnRealisticDay() {
+        // Une journée à 1 échantillon / 5 s, marche aléatoire entre 45 et 185 bpm
+        List<Long> day = realisticDay(17_280, new Random(42));
+
+        byte[] packed = SampleCodec.encode(day);
+        int bsonBytes = new RawBsonDocument(new Document("samples", day), new DocumentCodec())
+                .getByteBuffer().remaining();
+
+        assertThat(SampleCodec.decode(packed)).containsExactly(day.stream().mapToLong(Long::longValue).toArray());
+        assertThat(packed.length).isLessThan(bsonBytes / 10);
+    }
+
+    static List<Long> realisticDay(int count, Random random) {
+        List<Long> samples = new ArrayList<>(count);
+        long bpm = 70;
+        for (int i = 0; i < count; i++) {
+            bpm = Math.max(45, Math.min(185, bpm + random.nextInt(7) - 3));
+            samples.add(bpm);
+        }
+        return samples;
+    }
+}
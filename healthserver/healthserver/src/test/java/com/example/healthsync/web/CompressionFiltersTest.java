@@ -0,0 +1,102 @@
+package com.example.healthsync.web;
+
+import com.example.healthsync.config.CompressionProperties;
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressionFiltersTest {
+
+    private static final String BODY = "{\"dailyData\":[" + "{\"date\":\"2025-10-30\",\"totalSteps\":1200},".repeat(200) + "{}]}";
+
+    private final CompressionProperties properties = new CompressionProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CompressionMetrics metrics = new CompressionMetrics(registry);
+
+    @Test
+    void decompressesGzipAndZstdRequests() throws Exception {
+        byte[] raw = BODY.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(readThroughFilter("gzip", gzip(raw))).isEqualTo(BODY);
+        assertThat(readThroughFilter("zstd", Zstd.compress(raw))).isEqualTo(BODY);
+        assertThat(registry.get("healthsync.http.compression.ratio").tag("direction", "request").summaries()).hasSize(2);
+    }
+
+    @Test
+    void rejectsRequestsThatDecompressBeyondLimit() throws Exception {
+        properties.setMaxDecompressedBytes(1024);
+        MockHttpServletRequest request = compressedRequest("gzip", gzip(BODY.getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new RequestDecompressionFilter(properties, metrics).doFilter(request, response,
+                (req, res) -> req.getInputStream().readAllBytes());
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    @Test
+    void compressesOnlyResponsesAboveThreshold() throws Exception {
+        MockHttpServletResponse large = respond(BODY);
+        assertThat(large.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+
+        MockHttpServletResponse small = respond("{\"ok\":true}");
+        assertThat(small.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(small.getContentAsString()).isEqualTo("{\"ok\":true}");
+    }
+
+    private String readThroughFilter(String encoding, byte[] body) throws Exception {
+        AtomicReference<String> read = new AtomicReference<>();
+        new RequestDecompressionFilter(properties, metrics).doFilter(compressedRequest(encoding, body),
+                new MockHttpServletResponse(), (req, res) -> {
+                    assertThat(((HttpServletRequest) req).getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+                    read.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+                });
+        return read.get();
+    }
+
+    private MockHttpServletResponse respond(String json) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/fetch/user/u1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ResponseCompressionFilter(properties, metrics).doFilter(request, response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(json.getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest compressedRequest(String encoding, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/fetch");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        }
+        return out.toByteArray();
+    }
+}